@@ -0,0 +1,19 @@
+#!/bin/sh
+# Сравнение JVM- и native-сборки: время старта, RSS и пропускная способность.
+# Требует собранных target/*.jar (./mvnw package -Paot) и target/demo-admink (./mvnw -Pnative native:compile).
+set -eu
+
+JAR="$(ls target/*.jar | grep -v plain | head -n 1)"
+NATIVE="target/demo-admink"
+export THROUGHPUT_REQUESTS="${THROUGHPUT_REQUESTS:-5000}"
+
+echo "=== JVM"
+scripts/measure-startup.sh "$JAR" 18090 ""
+echo "=== JVM (AOT, fast-startup)"
+scripts/measure-startup.sh "$JAR" 18091 "-Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup"
+if [ -x "$NATIVE" ]; then
+    echo "=== Native"
+    scripts/measure-startup.sh "$NATIVE" 18092 "--spring.profiles.active=fast-startup"
+else
+    echo "=== Native: $NATIVE не найден, соберите ./mvnw -Pnative native:compile -DskipTests"
+fi
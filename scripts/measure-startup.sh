@@ -0,0 +1,52 @@
+#!/bin/sh
+# Измеряет время старта, время до первого ответа на /api/products и RSS процесса.
+# Использование: scripts/measure-startup.sh [jar или native-бинарник] [порт] [доп. параметры запуска]
+# THROUGHPUT_REQUESTS=N дополнительно меряет установившуюся пропускную способность
+# (N запросов GET /api/products в THROUGHPUT_CONCURRENCY потоков после прогрева).
+set -eu
+
+APP="${1:-$(ls target/*.jar | grep -v plain | head -n 1)}"
+PORT="${2:-18080}"
+EXTRA_OPTS="${3:-}"
+THROUGHPUT_REQUESTS="${THROUGHPUT_REQUESTS:-0}"
+THROUGHPUT_CONCURRENCY="${THROUGHPUT_CONCURRENCY:-16}"
+LOG_FILE="target/startup-$PORT.log"
+TIMEOUT_SECONDS=120
+URL="http://localhost:$PORT/api/products"
+
+start_ns=$(date +%s%N)
+# shellcheck disable=SC2086
+case "$APP" in
+    *.jar) java $EXTRA_OPTS -jar "$APP" --server.port="$PORT" > "$LOG_FILE" 2>&1 & ;;
+    *) "$APP" $EXTRA_OPTS --server.port="$PORT" > "$LOG_FILE" 2>&1 & ;;
+esac
+APP_PID=$!
+trap 'kill $APP_PID 2>/dev/null || true' EXIT
+
+deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+until curl -sf "$URL" > /dev/null; do
+    if [ "$(date +%s)" -ge "$deadline" ] || ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "Приложение не ответило за ${TIMEOUT_SECONDS} с, лог: $LOG_FILE"
+        exit 1
+    fi
+    sleep 0.05
+done
+end_ns=$(date +%s%N)
+
+echo "app: $APP"
+echo "options: ${EXTRA_OPTS:-<none>}"
+grep -Eo 'Started [A-Za-z]+ in [0-9.]+ seconds[^)]*\)' "$LOG_FILE" || true
+grep 'StartupTimeReporter' "$LOG_FILE" | sed 's/.*: //' || true
+echo "time-to-first-request: $(( (end_ns - start_ns) / 1000000 )) ms"
+echo "rss-after-first-request: $(awk '/VmRSS/ {print $2, $3}' "/proc/$APP_PID/status")"
+
+if [ "$THROUGHPUT_REQUESTS" -gt 0 ]; then
+    # Прогрев, затем замер
+    seq "$THROUGHPUT_REQUESTS" | xargs -P "$THROUGHPUT_CONCURRENCY" -I{} curl -sf -o /dev/null "$URL"
+    tp_start_ns=$(date +%s%N)
+    seq "$THROUGHPUT_REQUESTS" | xargs -P "$THROUGHPUT_CONCURRENCY" -I{} curl -sf -o /dev/null "$URL"
+    tp_end_ns=$(date +%s%N)
+    elapsed_ms=$(( (tp_end_ns - tp_start_ns) / 1000000 ))
+    echo "throughput: $(( THROUGHPUT_REQUESTS * 1000 / (elapsed_ms > 0 ? elapsed_ms : 1) )) req/s ($THROUGHPUT_REQUESTS requests, $THROUGHPUT_CONCURRENCY concurrent)"
+    echo "rss-after-load: $(awk '/VmRSS/ {print $2, $3}' "/proc/$APP_PID/status")"
+fi
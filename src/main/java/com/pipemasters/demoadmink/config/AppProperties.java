@@ -0,0 +1,454 @@
+package com.pipemasters.demoadmink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки приложения с префиксом {@code app}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app")
+public class AppProperties {
+
+    private SeedData seedData = new SeedData();
+
+    private Startup startup = new Startup();
+
+    private Coalescing coalescing = new Coalescing();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private Metrics metrics = new Metrics();
+
+    private TimeSeries timeSeries = new TimeSeries();
+
+    private Reports reports = new Reports();
+
+    private Tenancy tenancy = new Tenancy();
+
+    private Replication replication = new Replication();
+
+    private Expiry expiry = new Expiry();
+
+    private Profiling profiling = new Profiling();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Grpc grpc = new Grpc();
+
+    @Data
+    public static class SeedData {
+
+        /**
+         * Заполнять ли хранилища тестовыми продуктами и пользователями при старте.
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Startup {
+
+        /**
+         * Создавать бины springdoc/OpenAPI при первом обращении, а не при старте контекста.
+         */
+        private boolean lazySpringdoc = false;
+    }
+
+    @Data
+    public static class Coalescing {
+
+        /**
+         * Объединять ли одновременные одинаковые запросы чтения.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Сколько переиспользовать завершенный результат; 0 — только пока чтение выполняется.
+         */
+        private Duration window = Duration.ZERO;
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * Подтверждать изменения после постановки в очередь и записывать их в хранилище пачками.
+         * Если очередь заполнена, изменение отклоняется с 503.
+         */
+        private boolean enabled = false;
+
+        private int queueCapacity = 10_000;
+
+        private int batchSize = 256;
+
+        /**
+         * Сколько поток-писатель ждет добора неполной пачки.
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        /**
+         * Пауза перед первым повтором пачки, которую не приняло хранилище; дальше она удваивается.
+         */
+        private Duration retryBackoff = Duration.ofMillis(100);
+
+        private Duration maxRetryBackoff = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Metrics {
+
+        private ScrapeCache scrapeCache = new ScrapeCache();
+
+        private GaugeSampling gaugeSampling = new GaugeSampling();
+
+        @Data
+        public static class ScrapeCache {
+
+            /**
+             * Отдавать {@code /actuator/prometheus} из кэша отрисованного текста.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Как часто фоновый поток перерисовывает выгрузку.
+             */
+            private Duration refreshInterval = Duration.ofSeconds(5);
+
+            /**
+             * Насколько старый кэш еще можно отдать; старше — отрисовка в потоке запроса.
+             */
+            private Duration maxStaleness = Duration.ofSeconds(15);
+        }
+
+        @Data
+        public static class GaugeSampling {
+
+            /**
+             * Считать дорогие gauge (суммы и средние по хранилищам) в фоне, а не при каждом scrape.
+             */
+            private boolean enabled = false;
+
+            private Duration interval = Duration.ofSeconds(5);
+        }
+    }
+
+    @Data
+    public static class TimeSeries {
+
+        /**
+         * Записывать историю остатков продуктов во встроенное хранилище временных рядов.
+         * По умолчанию выключено: {@code retention} и {@code max-size} нужно подобрать под объем истории.
+         * Ориентир: месяц истории 100k продуктов по 120 изменений каждого (36M точек) занимает около
+         * 200MB, для него нужны {@code retention=30d} и {@code max-size=256MB}.
+         */
+        private boolean enabled;
+
+        /**
+         * Каталог для отображаемых в память сегментов; пусто — сегменты в куче.
+         */
+        private Path directory;
+
+        private int pointsPerChunk = 512;
+
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Сколько хранить точки, считая от последней записанной; 0 — без срока.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * Бюджет памяти сегментов (не меньше двух {@code segment-size}); 0 — без ограничения.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+
+    @Data
+    public static class Reports {
+
+        /**
+         * Число потоков выделенного fork-join пула отчетов.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Минимальный размер части хранилища, которую еще имеет смысл делить между потоками.
+         */
+        private long parallelismThreshold = 4096;
+
+        /**
+         * Верхние границы ценовых диапазонов по возрастанию; последний диапазон открыт сверху.
+         */
+        private List<BigDecimal> priceBands = List.of(new BigDecimal("10"), new BigDecimal("50"),
+                new BigDecimal("100"), new BigDecimal("500"), new BigDecimal("1000"));
+
+        private int lowStockThreshold = 10;
+
+        private int lowStockLimit = 100;
+
+        private int ageBandWidth = 10;
+
+        /**
+         * Начало последнего, открытого сверху возрастного диапазона.
+         */
+        private int maxAgeBand = 100;
+
+        /**
+         * Сколько вариантов параметров одного отчета держать в кэше.
+         */
+        private int cacheSize = 64;
+    }
+
+    @Data
+    public static class Tenancy {
+
+        /**
+         * Заголовок запроса с идентификатором арендатора; без заголовка запрос относится к арендатору
+         * {@code default}.
+         */
+        private String header = "X-Tenant-Id";
+
+        /**
+         * Сколько арендаторов может появиться за время жизни процесса. Ограничивает число разделов
+         * хранилища и значений тега {@code tenant} у метрик; запросы новых арендаторов сверх лимита отклоняются.
+         */
+        private int maxTenants = 32;
+
+        /**
+         * Квоты арендатора, для которого нет записи в {@code tenants}, в том числе {@code default}
+         * для запросов без заголовка.
+         */
+        private Quota defaults = new Quota();
+
+        /**
+         * Квоты отдельных арендаторов, например {@code app.tenancy.tenants.acme.max-products=1000000}.
+         */
+        private Map<String, Quota> tenants = new HashMap<>();
+
+        public Quota quotaFor(String tenant) {
+            return tenants.getOrDefault(tenant, defaults);
+        }
+
+        /**
+         * Квоты арендатора; 0 — без ограничения. Не заданные для арендатора из {@code tenants} значения
+         * берутся отсюда, а не из {@code defaults}.
+         */
+        @Data
+        public static class Quota {
+
+            private int maxProducts = 100_000;
+
+            private int maxUsers = 100_000;
+
+            /**
+             * Средняя разрешенная частота запросов к API.
+             */
+            private int requestsPerSecond = 1_000;
+
+            /**
+             * Сколько запросов можно выполнить подряд сверх средней частоты; 0 — столько же, сколько за секунду.
+             */
+            private int burst = 2_000;
+
+            /**
+             * Сколько запросов арендатора одновременно занимают потоки сервера.
+             */
+            private int maxConcurrentRequests = 64;
+        }
+    }
+
+    @Data
+    public static class Replication {
+
+        /**
+         * Роль экземпляра: standalone без репликации, leader ведет журнал изменений,
+         * follower забирает журнал у лидера и обслуживает только чтение.
+         */
+        private Role role = Role.STANDALONE;
+
+        /**
+         * Адрес лидера для follower, например {@code http://localhost:8080}.
+         */
+        private URI leaderUrl;
+
+        /**
+         * Адрес лидера для клиентов: его follower возвращает в {@code Location} при перенаправлении записи.
+         * Нужен, если follower обращается к лидеру по внутреннему адресу, недоступному клиентам;
+         * по умолчанию совпадает с {@code leader-url}.
+         */
+        private URI advertisedLeaderUrl;
+
+        /**
+         * Общий секрет лидера и follower для доступа к журналу репликации; обязателен для обеих ролей.
+         */
+        private String token;
+
+        /**
+         * Сколько лидер держит запрос журнала, если новых изменений нет.
+         */
+        private Duration pollWait = Duration.ofSeconds(5);
+
+        private int batchSize = 1_000;
+
+        /**
+         * Follower отвечает 503 на чтение, если последний раз догонял лидера раньше этого срока.
+         */
+        private Duration maxStaleness = Duration.ofSeconds(15);
+
+        /**
+         * Пауза перед повтором после ошибки запроса к лидеру.
+         */
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Сколько лидер хранит записи об удалениях. Follower, отставший сильнее, перечитывает журнал с начала.
+         */
+        private Duration tombstoneRetention = Duration.ofMinutes(10);
+
+        public URI getAdvertisedLeaderUrl() {
+            return advertisedLeaderUrl != null ? advertisedLeaderUrl : leaderUrl;
+        }
+
+        public boolean isFollower() {
+            return role == Role.FOLLOWER;
+        }
+
+        /**
+         * @throws IllegalStateException если секрет журнала репликации не задан
+         */
+        public String requireToken() {
+            if (token == null || token.isBlank()) {
+                throw new IllegalStateException("app.replication.token is required for a leader and a follower");
+            }
+            return token;
+        }
+
+        public enum Role {
+            STANDALONE,
+            LEADER,
+            FOLLOWER
+        }
+    }
+
+    @Data
+    public static class Expiry {
+
+        /**
+         * Фоновое удаление истекших сущностей и мягкое удаление с tombstone. Если выключено, удаление сразу
+         * окончательное, а {@code expiresAt} в запросах не сохраняется. Follower скрывает истекшие сущности
+         * при чтении, а удаляет их по журналу лидера. По умолчанию выключено: каждый tombstone держит
+         * удаленную сущность в памяти {@code tombstone-retention}, и массовое удаление удваивает объем данных.
+         */
+        private boolean enabled;
+
+        /**
+         * Шаг колеса таймеров: сущность удаляется не позже чем через тик после {@code expiresAt}.
+         */
+        private Duration tick = Duration.ofMillis(100);
+
+        /**
+         * Сколько сущностей reaper удаляет за тик; остаток переносится на следующие тики.
+         */
+        private int batchSize = 1_000;
+
+        /**
+         * Сколько удаленная сущность хранится в tombstone и может быть восстановлена.
+         */
+        private Duration tombstoneRetention = Duration.ofMinutes(15);
+    }
+
+    @Data
+    public static class Profiling {
+
+        /**
+         * Непрерывная запись JFR и эндпоинт {@code /actuator/jfr}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Набор настроек JFR из {@code $JAVA_HOME/lib/jfr}: {@code default} (около 1% накладных расходов) или {@code profile}.
+         */
+        private String settings = "default";
+
+        private Duration maxAge = Duration.ofMinutes(30);
+
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+
+        /**
+         * В запись попадают операции сервисов не короче этого порога.
+         */
+        private Duration operationThreshold = Duration.ofMillis(1);
+
+        /**
+         * Каталог выгрузок; по умолчанию временный каталог.
+         */
+        private Path dumpDirectory;
+
+        private int keepDumps = 5;
+
+        /**
+         * Метрики из событий JFR: выделение памяти потоками запросов и ожидание блокировок.
+         */
+        private boolean metricsBridge = true;
+
+        /**
+         * Ожидание блокировки короче порога в метрики не попадает.
+         */
+        private Duration contentionThreshold = Duration.ofMillis(10);
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * Сколько ключей {@code Idempotency-Key} хранит каждый сервис (по всем арендаторам).
+         * При переполнении самые старые ключи вытесняются раньше {@code ttl}.
+         */
+        private int maxKeys = 100_000;
+
+        /**
+         * Сколько повтор запроса с тем же ключом возвращает сохраненный результат.
+         */
+        private Duration ttl = Duration.ofHours(24);
+    }
+
+    @Data
+    public static class Grpc {
+
+        private boolean enabled = true;
+
+        /**
+         * Порт gRPC сервера; 0 — любой свободный.
+         */
+        private int port = 6565;
+
+        /**
+         * Потоки обработки вызовов gRPC.
+         */
+        private int threads = 2 * Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Сущностей в одном сообщении потокового списка, если клиент не указал {@code batch_size}.
+         */
+        private int listBatchSize = 256;
+
+        /**
+         * Сколько сообщений пакетной загрузки сервер принимает вперед, пока обрабатывает текущее.
+         */
+        private int upsertWindow = 64;
+
+        /**
+         * Сколько при остановке ждать завершения текущих вызовов.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+}
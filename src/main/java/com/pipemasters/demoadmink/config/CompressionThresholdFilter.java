@@ -0,0 +1,235 @@
+package com.pipemasters.demoadmink.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Tomcat применяет {@code server.compression.min-response-size} только к ответам с известной длиной,
+ * а конвертеры Spring MVC сбрасывают тело сразу после записи, и ответ уходит chunked и сжатым
+ * при любом размере. Фильтр придерживает первые {@code min-response-size} байт ответа REST API:
+ * если ответ в них уместился, он уходит с Content-Length и без gzip, иначе придержанное
+ * отправляется и дальше тело пишется потоком. Больше порога на запрос не буферизуется.
+ * Запросы без gzip в Accept-Encoding не фильтруются.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private final int threshold;
+
+    public CompressionThresholdFilter(ServerProperties serverProperties) {
+        this.threshold = (int) serverProperties.getCompression().getMinResponseSize().toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!request.getRequestURI().startsWith(API_PREFIX)) {
+            return true;
+        }
+        // Без gzip в Accept-Encoding Tomcat не сжимает ответ, придерживать нечего
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding == null || !acceptEncoding.contains("gzip");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ThresholdResponse wrapper = new ThresholdResponse(response, threshold);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            // Тело асинхронного ответа еще не записано, его длина неизвестна
+            wrapper.finish(!request.isAsyncStarted());
+        }
+    }
+
+    private static final class ThresholdResponse extends HttpServletResponseWrapper {
+
+        private final int threshold;
+        private ByteArrayOutputStream held;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ThresholdResponse(HttpServletResponse response, int threshold) {
+            super(response);
+            this.threshold = threshold;
+            this.held = new ByteArrayOutputStream(threshold);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called for this response");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (held == null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (held != null) {
+                held.reset();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (held != null) {
+                held.reset();
+            }
+            super.reset();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            if (held != null) {
+                held.reset();
+            }
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            if (held != null) {
+                held.reset();
+            }
+            super.sendError(sc);
+        }
+
+        /**
+         * @param complete тело записано целиком, и его длину можно выставить в Content-Length
+         */
+        void finish(boolean complete) throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            release(complete);
+        }
+
+        /**
+         * Отправляет придержанные байты и переключает ответ на запись потоком.
+         */
+        private void release(boolean complete) throws IOException {
+            if (held == null) {
+                return;
+            }
+            ByteArrayOutputStream bytes = held;
+            held = null;
+            if (complete && !isCommitted()) {
+                setContentLength(bytes.size());
+            }
+            if (bytes.size() > 0) {
+                bytes.writeTo(target());
+            }
+        }
+
+        private ServletOutputStream target() throws IOException {
+            return getResponse().getOutputStream();
+        }
+
+        private ServletOutputStream stream() {
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream();
+            }
+            return outputStream;
+        }
+
+        private final class ThresholdOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                if (held != null && held.size() + 1 > threshold) {
+                    release(false);
+                }
+                if (held != null) {
+                    held.write(b);
+                } else {
+                    target().write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (held != null && held.size() + len > threshold) {
+                    release(false);
+                }
+                if (held != null) {
+                    held.write(b, off, len);
+                } else {
+                    target().write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // Пока ответ придержан, сброс зафиксировал бы его без длины
+                if (held == null) {
+                    target().flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                release(true);
+                target().close();
+            }
+
+            @Override
+            public boolean isReady() {
+                try {
+                    return held != null || target().isReady();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                try {
+                    target().setWriteListener(writeListener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
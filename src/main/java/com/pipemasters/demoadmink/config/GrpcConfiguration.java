@@ -0,0 +1,54 @@
+package com.pipemasters.demoadmink.config;
+
+import com.pipemasters.demoadmink.grpc.GrpcServer;
+import com.pipemasters.demoadmink.grpc.ProductGrpcService;
+import com.pipemasters.demoadmink.grpc.UserGrpcService;
+import com.pipemasters.demoadmink.replication.FollowerServerInterceptor;
+import com.pipemasters.demoadmink.replication.ReplicationFollower;
+import com.pipemasters.demoadmink.service.ProductService;
+import com.pipemasters.demoadmink.service.UserService;
+import com.pipemasters.demoadmink.tenant.TenantRegistry;
+import com.pipemasters.demoadmink.tenant.TenantServerInterceptor;
+import io.grpc.BindableService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ServerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.grpc.MetricCollectingServerInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gRPC API для внутренних сервисов ({@code src/main/proto/catalog.proto}) на отдельном порту
+ * {@code app.grpc.port}. Сервисы те же, что у REST API, поэтому арендаторы, квоты, идемпотентность
+ * и репликация работают одинаково для обоих протоколов.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcConfiguration {
+
+    @Bean
+    public GrpcServer grpcServer(AppProperties properties, ProductService productService, UserService userService,
+                                 TenantRegistry tenantRegistry, ObjectProvider<ReplicationFollower> follower,
+                                 MeterRegistry meterRegistry) {
+        AppProperties.Grpc grpc = properties.getGrpc();
+        List<BindableService> services = List.of(
+                new ProductGrpcService(productService, grpc.getListBatchSize(), grpc.getUpsertWindow()),
+                new UserGrpcService(userService, grpc.getListBatchSize(), grpc.getUpsertWindow()));
+
+        // Первым вызывается последний: метрики видят и отказы, follower отклоняет запись до квот арендатора
+        List<ServerInterceptor> interceptors = new ArrayList<>();
+        interceptors.add(new TenantServerInterceptor(properties.getTenancy().getHeader(), tenantRegistry));
+        follower.ifAvailable(replica -> interceptors.add(new FollowerServerInterceptor(
+                properties.getReplication().getAdvertisedLeaderUrl(), replica::isStale)));
+        interceptors.add(new MetricCollectingServerInterceptor(meterRegistry));
+
+        return new GrpcServer(Grpc.newServerBuilderForPort(grpc.getPort(), InsecureServerCredentials.create()),
+                services, interceptors, grpc.getThreads(), grpc.getShutdownTimeout());
+    }
+}
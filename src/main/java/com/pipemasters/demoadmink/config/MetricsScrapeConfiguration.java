@@ -0,0 +1,35 @@
+package com.pipemasters.demoadmink.config;
+
+import com.pipemasters.demoadmink.monitoring.CachingPrometheusScrapeEndpoint;
+import com.pipemasters.demoadmink.support.GaugeSampler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Снижает стоимость scrape: фоновый подсчет дорогих gauge и кэш отрисованной выгрузки Prometheus,
+ * который заменяет стандартный {@code PrometheusScrapeEndpoint}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsScrapeConfiguration {
+
+    @Bean
+    public GaugeSampler gaugeSampler(AppProperties properties) {
+        AppProperties.Metrics.GaugeSampling sampling = properties.getMetrics().getGaugeSampling();
+        return sampling.isEnabled() ? GaugeSampler.scheduled(sampling.getInterval()) : GaugeSampler.direct();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.metrics.scrape-cache.enabled", havingValue = "true")
+    public CachingPrometheusScrapeEndpoint prometheusEndpoint(PrometheusRegistry prometheusRegistry,
+                                                              PrometheusConfig prometheusConfig,
+                                                              AppProperties properties,
+                                                              MeterRegistry meterRegistry) {
+        AppProperties.Metrics.ScrapeCache scrapeCache = properties.getMetrics().getScrapeCache();
+        return new CachingPrometheusScrapeEndpoint(prometheusRegistry, prometheusConfig.prometheusProperties(),
+                scrapeCache.getRefreshInterval(), scrapeCache.getMaxStaleness(), meterRegistry);
+    }
+}
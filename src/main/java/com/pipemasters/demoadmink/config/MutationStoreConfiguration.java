@@ -0,0 +1,39 @@
+package com.pipemasters.demoadmink.config;
+
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.model.User;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.replication.ReplicationLog;
+import com.pipemasters.demoadmink.service.InventoryHistoryService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Хранилища изменений для сервисов. Пока долговременного хранилища нет,
+ * состояние живет только в памяти; замена этих бинов подключает реальную запись.
+ * Изменения продуктов, если включена история остатков, попадают во временные ряды.
+ * На лидере репликации изменения также добавляются в журнал для follower.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MutationStoreConfiguration {
+
+    @Bean
+    public MutationStore<Product> productMutationStore(ObjectProvider<InventoryHistoryService> inventoryHistory,
+                                                       ObjectProvider<ReplicationLog> replicationLog) {
+        InventoryHistoryService history = inventoryHistory.getIfAvailable();
+        MutationStore<Product> store = history != null ? history::record : MutationStore.inMemory();
+        return replicated(store, ReplicationLog.PRODUCTS, replicationLog);
+    }
+
+    @Bean
+    public MutationStore<User> userMutationStore(ObjectProvider<ReplicationLog> replicationLog) {
+        return replicated(MutationStore.inMemory(), ReplicationLog.USERS, replicationLog);
+    }
+
+    private static <T> MutationStore<T> replicated(MutationStore<T> store, String entity,
+                                                   ObjectProvider<ReplicationLog> replicationLog) {
+        ReplicationLog log = replicationLog.getIfAvailable();
+        return log != null ? store.andThen(log.store(entity)) : store;
+    }
+}
@@ -0,0 +1,65 @@
+package com.pipemasters.demoadmink.config;
+
+import com.google.protobuf.Descriptors;
+import com.pipemasters.demoadmink.dto.AgeBandDto;
+import com.pipemasters.demoadmink.dto.PriceBandDto;
+import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.dto.TimeSeriesDto;
+import com.pipemasters.demoadmink.dto.UserDto;
+import com.pipemasters.demoadmink.grpc.proto.CatalogProto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.model.User;
+import com.pipemasters.demoadmink.monitoring.EntityOperationEvent;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.replication.ReplicationBatch;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Метаданные достижимости для native-image, которые не видны статическому анализу:
+ * <ul>
+ *     <li>Jackson-привязка DTO, записей модели, отчетов и журнала репликации
+ *     ({@link ReplicationBatch} с вложенными записями и {@link Mutation});</li>
+ *     <li>методы сообщений protobuf и их Builder: таблица аксессоров полей (toString, TextFormat)
+ *     ищет их рефлексией;</li>
+ *     <li>транспорт gRPC-сервера, который {@code Grpc.newServerBuilderForPort} находит через ServiceLoader;</li>
+ *     <li>поля и конструктор JFR-события {@link EntityOperationEvent};</li>
+ *     <li>статические ресурсы Swagger UI.</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+@RegisterReflectionForBinding({ProductDto.class, UserDto.class, Product.class, User.class,
+        PriceBandDto.class, AgeBandDto.class, TimeSeriesDto.class, Mutation.class, ReplicationBatch.class})
+@ImportRuntimeHints(NativeHintsConfiguration.ApplicationRuntimeHints.class)
+public class NativeHintsConfiguration {
+
+    static final String GRPC_SERVER_PROVIDER = "io.grpc.netty.shaded.io.grpc.netty.NettyServerProvider";
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/*");
+            hints.resources().registerPattern("META-INF/maven/org.webjars/swagger-ui/pom.properties");
+
+            String protoPackage = CatalogProto.class.getPackageName();
+            for (Descriptors.Descriptor message : CatalogProto.getDescriptor().getMessageTypes()) {
+                String type = protoPackage + "." + message.getName();
+                hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_METHODS);
+                hints.reflection().registerType(TypeReference.of(type + "$Builder"), MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            hints.resources().registerPattern("META-INF/services/io.grpc.ServerProvider");
+            hints.reflection().registerType(TypeReference.of(GRPC_SERVER_PROVIDER),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+            hints.reflection().registerType(EntityOperationEvent.class,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+    }
+}
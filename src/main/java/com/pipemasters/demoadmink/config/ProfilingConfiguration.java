@@ -0,0 +1,44 @@
+package com.pipemasters.demoadmink.config;
+
+import com.pipemasters.demoadmink.monitoring.ContinuousRecording;
+import com.pipemasters.demoadmink.monitoring.FlightRecordingEndpoint;
+import com.pipemasters.demoadmink.monitoring.JfrMetricsBridge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Непрерывное профилирование в production: запись JFR с событиями операций сервисов,
+ * выгрузка последних минут через actuator и метрики из событий JFR.
+ * <p>
+ * Выгрузка содержит стеки, аргументы JVM и данные запросов, поэтому эндпоинт {@code jfr} создается,
+ * только если actuator вынесен на отдельный порт {@code management.server.port}, закрытый снаружи;
+ * на порту приложения он недоступен даже при включении в {@code management.endpoints.web.exposure.include}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true")
+public class ProfilingConfiguration {
+
+    @Bean
+    public ContinuousRecording continuousRecording(AppProperties properties) throws IOException, ParseException {
+        AppProperties.Profiling profiling = properties.getProfiling();
+        return new ContinuousRecording(profiling.getSettings(), profiling.getMaxAge(), profiling.getMaxSize().toBytes(),
+                profiling.getOperationThreshold(), profiling.getDumpDirectory(), profiling.getKeepDumps());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "management.server.port")
+    public FlightRecordingEndpoint flightRecordingEndpoint(ContinuousRecording continuousRecording) {
+        return new FlightRecordingEndpoint(continuousRecording);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.profiling.metrics-bridge", havingValue = "true", matchIfMissing = true)
+    public JfrMetricsBridge jfrMetricsBridge(AppProperties properties, MeterRegistry meterRegistry) {
+        return new JfrMetricsBridge(properties.getProfiling().getContentionThreshold(), meterRegistry);
+    }
+}
@@ -0,0 +1,62 @@
+package com.pipemasters.demoadmink.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pipemasters.demoadmink.replication.FollowerReadFilter;
+import com.pipemasters.demoadmink.replication.ReplicationFollower;
+import com.pipemasters.demoadmink.replication.ReplicationLog;
+import com.pipemasters.demoadmink.replication.ReplicationTokenFilter;
+import com.pipemasters.demoadmink.service.ProductService;
+import com.pipemasters.demoadmink.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Репликация для масштабирования чтения: лидер ведет журнал изменений продуктов и пользователей
+ * ({@code app.replication.role=leader}), follower забирает его и обслуживает чтение REST API
+ * ({@code app.replication.role=follower}). Журнал лидера доступен только с секретом {@code app.replication.token}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReplicationConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.role", havingValue = "leader")
+    public ReplicationLog replicationLog(AppProperties properties, MeterRegistry meterRegistry) {
+        return new ReplicationLog(properties.getReplication().getTombstoneRetention(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.role", havingValue = "leader")
+    public FilterRegistrationBean<ReplicationTokenFilter> replicationTokenFilter(AppProperties properties) {
+        FilterRegistrationBean<ReplicationTokenFilter> registration = new FilterRegistrationBean<>(
+                new ReplicationTokenFilter(properties.getReplication().requireToken()));
+        registration.addUrlPatterns("/internal/replication/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.role", havingValue = "follower")
+    public ReplicationFollower replicationFollower(AppProperties properties, ProductService productService,
+                                                   UserService userService, ObjectMapper objectMapper,
+                                                   MeterRegistry meterRegistry) {
+        return new ReplicationFollower(properties.getReplication(), productService, userService, objectMapper,
+                meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.role", havingValue = "follower")
+    public FilterRegistrationBean<FollowerReadFilter> followerReadFilter(AppProperties properties,
+                                                                         ReplicationFollower follower) {
+        AppProperties.Replication replication = properties.getReplication();
+        FilterRegistrationBean<FollowerReadFilter> registration = new FilterRegistrationBean<>(new FollowerReadFilter(
+                replication.getAdvertisedLeaderUrl(), follower::isStale, replication.getRetryBackoff().toSeconds()));
+        registration.addUrlPatterns("/api/*");
+        // Перенаправление записи лидеру не должно расходовать квоты арендатора на follower
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,38 @@
+package com.pipemasters.demoadmink.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Помечает бины springdoc/OpenAPI как ленивые: спецификация и Swagger UI
+ * собираются при первом обращении к ним, а не при старте приложения.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.lazy-springdoc", havingValue = "true")
+public class SpringdocLazyInitPostProcessor implements BeanFactoryPostProcessor {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (isSpringdocBean(definition)) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    private static boolean isSpringdocBean(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className == null && definition instanceof AnnotatedBeanDefinition annotated
+                && annotated.getFactoryMethodMetadata() != null) {
+            className = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return className != null && className.startsWith(SPRINGDOC_PACKAGE);
+    }
+}
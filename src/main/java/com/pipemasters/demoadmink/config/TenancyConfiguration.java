@@ -0,0 +1,32 @@
+package com.pipemasters.demoadmink.config;
+
+import com.pipemasters.demoadmink.tenant.TenantFilter;
+import com.pipemasters.demoadmink.tenant.TenantRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Разделение данных между арендаторами: фильтр выбирает раздел хранилищ по заголовку запроса
+ * и применяет квоты арендатора до того, как запрос займет ресурсы сервисов.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TenancyConfiguration {
+
+    @Bean
+    public TenantRegistry tenantRegistry(AppProperties properties, MeterRegistry meterRegistry) {
+        return new TenantRegistry(properties.getTenancy(), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter(AppProperties properties, TenantRegistry registry) {
+        FilterRegistrationBean<TenantFilter> registration =
+                new FilterRegistrationBean<>(new TenantFilter(properties.getTenancy().getHeader(), registry));
+        registration.addUrlPatterns("/api/*");
+        // Отказ по квоте не должен тратить ресурсы остальных фильтров
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
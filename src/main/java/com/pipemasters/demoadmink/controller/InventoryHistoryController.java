@@ -0,0 +1,118 @@
+package com.pipemasters.demoadmink.controller;
+
+import com.pipemasters.demoadmink.dto.TimeSeriesDto;
+import com.pipemasters.demoadmink.service.InventoryHistoryService;
+import com.pipemasters.demoadmink.timeseries.Aggregation;
+import com.pipemasters.demoadmink.timeseries.TimeSeriesPoint;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/inventory/history")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.time-series.enabled", havingValue = "true")
+@Tag(name = "Inventory history", description = "API для истории остатков на складе")
+public class InventoryHistoryController {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(1);
+
+    private final InventoryHistoryService inventoryHistoryService;
+
+    @GetMapping("/products/{id}/quantity")
+    @Operation(summary = "История количества продукта",
+            description = "Возвращает количество продукта на складе, прореженное по интервалам step")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Успешное получение истории"),
+        @ApiResponse(responseCode = "400", description = "Пустой диапазон или слишком много интервалов")
+    })
+    public ResponseEntity<TimeSeriesDto> getProductQuantity(
+            @Parameter(description = "ID продукта") @PathVariable Long id,
+            @Parameter(description = "Начало диапазона, по умолчанию сутки до to")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Конец диапазона, по умолчанию текущее время")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "Шаг прореживания в формате ISO-8601") @RequestParam(defaultValue = "PT1H") Duration step,
+            @Parameter(description = "Функция свертки") @RequestParam(defaultValue = "LAST") Aggregation aggregation) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_RANGE);
+        try {
+            List<TimeSeriesPoint> points = inventoryHistoryService.getProductQuantity(id, start, end, step, aggregation);
+            return ResponseEntity.ok(toDto(InventoryHistoryService.productQuantitySeries(id), start, end, step,
+                    aggregation, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/total-quantity")
+    @Operation(summary = "История общего количества", description = "Возвращает суммарное количество товаров на складе")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Успешное получение истории"),
+        @ApiResponse(responseCode = "400", description = "Пустой диапазон или слишком много интервалов")
+    })
+    public ResponseEntity<TimeSeriesDto> getTotalQuantity(
+            @Parameter(description = "Начало диапазона, по умолчанию сутки до to")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Конец диапазона, по умолчанию текущее время")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "Шаг прореживания в формате ISO-8601") @RequestParam(defaultValue = "PT1H") Duration step,
+            @Parameter(description = "Функция свертки") @RequestParam(defaultValue = "LAST") Aggregation aggregation) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_RANGE);
+        try {
+            List<TimeSeriesPoint> points = inventoryHistoryService.getTotalQuantity(start, end, step, aggregation);
+            return ResponseEntity.ok(toDto(InventoryHistoryService.TOTAL_QUANTITY_SERIES, start, end, step,
+                    aggregation, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/total-value")
+    @Operation(summary = "История общей стоимости", description = "Возвращает суммарную стоимость товаров на складе")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Успешное получение истории"),
+        @ApiResponse(responseCode = "400", description = "Пустой диапазон или слишком много интервалов")
+    })
+    public ResponseEntity<TimeSeriesDto> getTotalValue(
+            @Parameter(description = "Начало диапазона, по умолчанию сутки до to")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Конец диапазона, по умолчанию текущее время")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "Шаг прореживания в формате ISO-8601") @RequestParam(defaultValue = "PT1H") Duration step,
+            @Parameter(description = "Функция свертки") @RequestParam(defaultValue = "LAST") Aggregation aggregation) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_RANGE);
+        try {
+            List<TimeSeriesPoint> points = inventoryHistoryService.getTotalValue(start, end, step, aggregation);
+            return ResponseEntity.ok(toDto(InventoryHistoryService.TOTAL_VALUE_SERIES, start, end, step,
+                    aggregation, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static TimeSeriesDto toDto(String series, Instant from, Instant to, Duration step,
+                                       Aggregation aggregation, List<TimeSeriesPoint> points) {
+        return TimeSeriesDto.builder()
+                .series(series)
+                .from(from)
+                .to(to)
+                .step(step)
+                .aggregation(aggregation)
+                .points(points)
+                .build();
+    }
+}
@@ -1,7 +1,12 @@
 package com.pipemasters.demoadmink.controller;
 
 import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.projection.DtoProjections;
+import com.pipemasters.demoadmink.projection.ProjectedJson;
+import com.pipemasters.demoadmink.projection.ProjectionSerializers;
 import com.pipemasters.demoadmink.service.ProductService;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,29 +30,87 @@ public class ProductController {
     @GetMapping
     @Operation(summary = "Получить все продукты", description = "Возвращает список всех продуктов")
     @ApiResponse(responseCode = "200", description = "Успешное получение списка продуктов")
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
+    public ResponseEntity<List<Product>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @GetMapping(params = "fields")
+    @Operation(summary = "Получить все продукты с выбранными полями",
+            description = "Возвращает список продуктов, в котором у каждого элемента только перечисленные поля")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Успешное получение списка продуктов"),
+        @ApiResponse(responseCode = "400", description = "Неизвестное поле в параметре fields")
+    })
+    public ResponseEntity<ProjectedJson<Product>> getAllProductsProjected(
+            @Parameter(description = "Поля через запятую, например id,price,quantity") @RequestParam String fields) {
+        ProjectionSerializers.Projection<Product> projection;
+        try {
+            projection = DtoProjections.PRODUCT.compile(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ProjectedJson.ofList(productService.getAllProducts(), projection));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получить продукт по ID", description = "Возвращает продукт по указанному ID")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Продукт найден"),
         @ApiResponse(responseCode = "404", description = "Продукт не найден")
     })
-    public ResponseEntity<ProductDto> getProductById(
+    public ResponseEntity<Product> getProductById(
             @Parameter(description = "ID продукта") @PathVariable Long id) {
         return productService.getProductById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/{id}", params = "fields")
+    @Operation(summary = "Получить продукт по ID с выбранными полями",
+            description = "Возвращает продукт по указанному ID только с перечисленными полями")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Продукт найден"),
+        @ApiResponse(responseCode = "400", description = "Неизвестное поле в параметре fields"),
+        @ApiResponse(responseCode = "404", description = "Продукт не найден")
+    })
+    public ResponseEntity<ProjectedJson<Product>> getProductByIdProjected(
+            @Parameter(description = "ID продукта") @PathVariable Long id,
+            @Parameter(description = "Поля через запятую, например id,price,quantity") @RequestParam String fields) {
+        ProjectionSerializers.Projection<Product> projection;
+        try {
+            projection = DtoProjections.PRODUCT.compile(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return productService.getProductById(id)
+                .map(product -> ResponseEntity.ok(ProjectedJson.of(product, projection)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping
-    @Operation(summary = "Создать продукт", description = "Создает новый продукт")
-    @ApiResponse(responseCode = "201", description = "Продукт успешно создан")
-    public ResponseEntity<ProductDto> createProduct(@RequestBody ProductDto productDto) {
-        ProductDto created = productService.createProduct(productDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    @Operation(summary = "Создать продукт", description = "Создает новый продукт. Повтор запроса с тем же "
+            + "заголовком Idempotency-Key возвращает продукт, созданный первым запросом")
+    @ApiResponses({
+        @ApiResponse(responseCode = "201", description = "Продукт успешно создан"),
+        @ApiResponse(responseCode = "400", description = "Недопустимый ключ идемпотентности"),
+        @ApiResponse(responseCode = "422", description = "Ключ идемпотентности уже использован с другим телом запроса"),
+        @ApiResponse(responseCode = "403", description = "Превышена квота арендатора на число записей")
+    })
+    public ResponseEntity<Product> createProduct(
+            @Parameter(description = "Ключ идемпотентности: до 255 видимых ASCII-символов")
+            @RequestHeader(name = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody ProductDto productDto) {
+        if (idempotencyKey == null) {
+            Product created = productService.createProduct(productDto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        }
+        if (!IdempotencyStore.isValidKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+        IdempotencyStore.Result<Product> result = productService.createProduct(productDto, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyStore.REPLAYED_HEADER, Boolean.toString(result.replayed()))
+                .body(result.value());
     }
 
     @PutMapping("/{id}")
@@ -56,7 +119,7 @@ public class ProductController {
         @ApiResponse(responseCode = "200", description = "Продукт успешно обновлен"),
         @ApiResponse(responseCode = "404", description = "Продукт не найден")
     })
-    public ResponseEntity<ProductDto> updateProduct(
+    public ResponseEntity<Product> updateProduct(
             @Parameter(description = "ID продукта") @PathVariable Long id,
             @RequestBody ProductDto productDto) {
         return productService.updateProduct(id, productDto)
@@ -77,4 +140,19 @@ public class ProductController {
         }
         return ResponseEntity.notFound().build();
     }
+
+    @PostMapping("/{id}/restore")
+    @Operation(summary = "Восстановить продукт",
+            description = "Восстанавливает удаленный продукт, пока не истек срок хранения tombstone")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Продукт восстановлен"),
+        @ApiResponse(responseCode = "403", description = "Превышена квота арендатора на число записей"),
+        @ApiResponse(responseCode = "404", description = "Tombstone не найден или уже удален")
+    })
+    public ResponseEntity<Product> restoreProduct(
+            @Parameter(description = "ID продукта") @PathVariable Long id) {
+        return productService.restoreProduct(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,46 @@
+package com.pipemasters.demoadmink.controller;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.replication.ReplicationBatch;
+import com.pipemasters.demoadmink.replication.ReplicationLog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/internal/replication")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.replication.role", havingValue = "leader")
+@Tag(name = "Replication", description = "Журнал изменений лидера для follower")
+public class ReplicationController {
+
+    private final ReplicationLog replicationLog;
+    private final AppProperties properties;
+
+    @GetMapping("/log")
+    @Operation(summary = "Записи журнала репликации",
+            description = "Возвращает записи после after; если новых записей нет, ждет их не дольше waitMs")
+    @ApiResponse(responseCode = "200", description = "Записи журнала")
+    public ReplicationBatch getLog(
+            @Parameter(description = "Идентификатор журнала из предыдущего ответа") @RequestParam(required = false) String epoch,
+            @Parameter(description = "Последний примененный follower номер записи") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Последнее известное follower значение purgedThrough") @RequestParam(defaultValue = "0") long purged,
+            @Parameter(description = "Максимальное число записей в ответе") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Время ожидания новых записей, мс") @RequestParam(defaultValue = "0") long waitMs)
+            throws InterruptedException {
+        AppProperties.Replication replication = properties.getReplication();
+        int maxEntries = replication.getBatchSize();
+        int entries = limit != null ? Math.max(1, Math.min(limit, maxEntries)) : maxEntries;
+        long waitMillis = Math.max(0, Math.min(waitMs, replication.getPollWait().toMillis()));
+        return replicationLog.read(epoch, after, purged, entries, Duration.ofMillis(waitMillis));
+    }
+}
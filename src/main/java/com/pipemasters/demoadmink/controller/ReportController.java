@@ -0,0 +1,62 @@
+package com.pipemasters.demoadmink.controller;
+
+import com.pipemasters.demoadmink.dto.AgeBandDto;
+import com.pipemasters.demoadmink.dto.PriceBandDto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "API для отчетов по складу и пользователям")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    @GetMapping("/products/value-by-price-band")
+    @Operation(summary = "Стоимость склада по ценовым диапазонам",
+            description = "Возвращает число продуктов, количество и стоимость остатков в каждом ценовом диапазоне")
+    @ApiResponse(responseCode = "200", description = "Отчет сформирован")
+    public CompletableFuture<List<PriceBandDto>> getValueByPriceBand() {
+        return reportService.getValueByPriceBand();
+    }
+
+    @GetMapping("/products/low-stock")
+    @Operation(summary = "Продукты с низким остатком",
+            description = "Возвращает продукты с количеством не больше порога, начиная с наименьшего остатка")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Отчет сформирован"),
+        @ApiResponse(responseCode = "400", description = "Отрицательный порог или недопустимый лимит")
+    })
+    public CompletableFuture<ResponseEntity<List<Product>>> getLowStock(
+            @Parameter(description = "Порог количества включительно") @RequestParam(required = false) Integer threshold,
+            @Parameter(description = "Максимальное число продуктов в ответе") @RequestParam(required = false) Integer limit) {
+        try {
+            return reportService.getLowStock(threshold, limit).thenApply(ResponseEntity::ok);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+    }
+
+    @GetMapping("/users/age-distribution")
+    @Operation(summary = "Распределение пользователей по возрасту",
+            description = "Возвращает число пользователей в каждом возрастном диапазоне")
+    @ApiResponse(responseCode = "200", description = "Отчет сформирован")
+    public CompletableFuture<List<AgeBandDto>> getAgeDistribution() {
+        return reportService.getAgeDistribution();
+    }
+}
@@ -1,7 +1,12 @@
 package com.pipemasters.demoadmink.controller;
 
 import com.pipemasters.demoadmink.dto.UserDto;
+import com.pipemasters.demoadmink.model.User;
+import com.pipemasters.demoadmink.projection.DtoProjections;
+import com.pipemasters.demoadmink.projection.ProjectedJson;
+import com.pipemasters.demoadmink.projection.ProjectionSerializers;
 import com.pipemasters.demoadmink.service.UserService;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,29 +30,87 @@ public class UserController {
     @GetMapping
     @Operation(summary = "Получить всех пользователей", description = "Возвращает список всех пользователей")
     @ApiResponse(responseCode = "200", description = "Успешное получение списка пользователей")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
+    public ResponseEntity<List<User>> getAllUsers() {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping(params = "fields")
+    @Operation(summary = "Получить всех пользователей с выбранными полями",
+            description = "Возвращает список пользователей, в котором у каждого элемента только перечисленные поля")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Успешное получение списка пользователей"),
+        @ApiResponse(responseCode = "400", description = "Неизвестное поле в параметре fields")
+    })
+    public ResponseEntity<ProjectedJson<User>> getAllUsersProjected(
+            @Parameter(description = "Поля через запятую, например id,name,email") @RequestParam String fields) {
+        ProjectionSerializers.Projection<User> projection;
+        try {
+            projection = DtoProjections.USER.compile(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ProjectedJson.ofList(userService.getAllUsers(), projection));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получить пользователя по ID", description = "Возвращает пользователя по указанному ID")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Пользователь найден"),
         @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
-    public ResponseEntity<UserDto> getUserById(
+    public ResponseEntity<User> getUserById(
             @Parameter(description = "ID пользователя") @PathVariable Long id) {
         return userService.getUserById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/{id}", params = "fields")
+    @Operation(summary = "Получить пользователя по ID с выбранными полями",
+            description = "Возвращает пользователя по указанному ID только с перечисленными полями")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Пользователь найден"),
+        @ApiResponse(responseCode = "400", description = "Неизвестное поле в параметре fields"),
+        @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    public ResponseEntity<ProjectedJson<User>> getUserByIdProjected(
+            @Parameter(description = "ID пользователя") @PathVariable Long id,
+            @Parameter(description = "Поля через запятую, например id,name,email") @RequestParam String fields) {
+        ProjectionSerializers.Projection<User> projection;
+        try {
+            projection = DtoProjections.USER.compile(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return userService.getUserById(id)
+                .map(user -> ResponseEntity.ok(ProjectedJson.of(user, projection)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping
-    @Operation(summary = "Создать пользователя", description = "Создает нового пользователя")
-    @ApiResponse(responseCode = "201", description = "Пользователь успешно создан")
-    public ResponseEntity<UserDto> createUser(@RequestBody UserDto userDto) {
-        UserDto created = userService.createUser(userDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    @Operation(summary = "Создать пользователя", description = "Создает нового пользователя. Повтор запроса с тем же "
+            + "заголовком Idempotency-Key возвращает пользователя, созданного первым запросом")
+    @ApiResponses({
+        @ApiResponse(responseCode = "201", description = "Пользователь успешно создан"),
+        @ApiResponse(responseCode = "400", description = "Недопустимый ключ идемпотентности"),
+        @ApiResponse(responseCode = "422", description = "Ключ идемпотентности уже использован с другим телом запроса"),
+        @ApiResponse(responseCode = "403", description = "Превышена квота арендатора на число записей")
+    })
+    public ResponseEntity<User> createUser(
+            @Parameter(description = "Ключ идемпотентности: до 255 видимых ASCII-символов")
+            @RequestHeader(name = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody UserDto userDto) {
+        if (idempotencyKey == null) {
+            User created = userService.createUser(userDto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        }
+        if (!IdempotencyStore.isValidKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+        IdempotencyStore.Result<User> result = userService.createUser(userDto, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyStore.REPLAYED_HEADER, Boolean.toString(result.replayed()))
+                .body(result.value());
     }
 
     @PutMapping("/{id}")
@@ -56,7 +119,7 @@ public class UserController {
         @ApiResponse(responseCode = "200", description = "Пользователь успешно обновлен"),
         @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
-    public ResponseEntity<UserDto> updateUser(
+    public ResponseEntity<User> updateUser(
             @Parameter(description = "ID пользователя") @PathVariable Long id,
             @RequestBody UserDto userDto) {
         return userService.updateUser(id, userDto)
@@ -77,4 +140,19 @@ public class UserController {
         }
         return ResponseEntity.notFound().build();
     }
+
+    @PostMapping("/{id}/restore")
+    @Operation(summary = "Восстановить пользователя",
+            description = "Восстанавливает удаленного пользователя, пока не истек срок хранения tombstone")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Пользователь восстановлен"),
+        @ApiResponse(responseCode = "403", description = "Превышена квота арендатора на число записей"),
+        @ApiResponse(responseCode = "404", description = "Tombstone не найден или уже удален")
+    })
+    public ResponseEntity<User> restoreUser(
+            @Parameter(description = "ID пользователя") @PathVariable Long id) {
+        return userService.restoreUser(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,24 @@
+package com.pipemasters.demoadmink.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для возрастного диапазона пользователей")
+public class AgeBandDto {
+
+    @Schema(description = "Нижняя граница возраста включительно", example = "20")
+    private int from;
+
+    @Schema(description = "Верхняя граница возраста не включительно; null для последнего диапазона", example = "30")
+    private Integer to;
+
+    @Schema(description = "Число пользователей в диапазоне", example = "42")
+    private long userCount;
+}
@@ -0,0 +1,32 @@
+package com.pipemasters.demoadmink.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для ценового диапазона в отчете о стоимости склада")
+public class PriceBandDto {
+
+    @Schema(description = "Нижняя граница цены включительно", example = "100")
+    private BigDecimal from;
+
+    @Schema(description = "Верхняя граница цены не включительно; null для последнего диапазона", example = "500")
+    private BigDecimal to;
+
+    @Schema(description = "Число продуктов в диапазоне", example = "12")
+    private long productCount;
+
+    @Schema(description = "Суммарное количество на складе", example = "340")
+    private long totalQuantity;
+
+    @Schema(description = "Суммарная стоимость остатков", example = "45210.50")
+    private BigDecimal totalValue;
+}
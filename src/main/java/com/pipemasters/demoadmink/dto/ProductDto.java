@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Data
 @Builder
@@ -29,4 +30,7 @@ public class ProductDto {
 
     @Schema(description = "Количество на складе", example = "50")
     private Integer quantity;
+
+    @Schema(description = "Момент истечения срока жизни продукта, null — бессрочно", example = "2030-01-01T00:00:00Z")
+    private Instant expiresAt;
 }
@@ -0,0 +1,39 @@
+package com.pipemasters.demoadmink.dto;
+
+import com.pipemasters.demoadmink.timeseries.Aggregation;
+import com.pipemasters.demoadmink.timeseries.TimeSeriesPoint;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для прореженного временного ряда")
+public class TimeSeriesDto {
+
+    @Schema(description = "Имя ряда", example = "product:1:quantity")
+    private String series;
+
+    @Schema(description = "Начало диапазона включительно", example = "2026-01-01T00:00:00Z")
+    private Instant from;
+
+    @Schema(description = "Конец диапазона не включительно", example = "2026-02-01T00:00:00Z")
+    private Instant to;
+
+    @Schema(description = "Шаг прореживания", example = "PT1H")
+    private Duration step;
+
+    @Schema(description = "Функция свертки точек интервала", example = "LAST")
+    private Aggregation aggregation;
+
+    @Schema(description = "Непустые интервалы: начало интервала в мс от эпохи и значение")
+    private List<TimeSeriesPoint> points;
+}
@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -24,4 +26,7 @@ public class UserDto {
 
     @Schema(description = "Возраст пользователя", example = "25")
     private Integer age;
+
+    @Schema(description = "Момент истечения срока жизни пользователя, null — бессрочно", example = "2030-01-01T00:00:00Z")
+    private Instant expiresAt;
 }
@@ -0,0 +1,225 @@
+package com.pipemasters.demoadmink.grpc;
+
+import com.pipemasters.demoadmink.grpc.proto.UpsertSummary;
+import com.pipemasters.demoadmink.support.IdempotencyKeyReusedException;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
+import com.pipemasters.demoadmink.support.WriteBehindOverloadedException;
+import com.pipemasters.demoadmink.tenant.TenantQuotaExceededException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Общая обвязка вызовов gRPC поверх синхронных сервисов: ошибки сервисов переводятся в статусы gRPC,
+ * потоковые вызовы учитывают управление потоком HTTP/2, чтобы ни сервер, ни клиент не копили
+ * в памяти больше, чем успевает обработать другая сторона.
+ */
+@Slf4j
+final class GrpcCalls {
+
+    // Около 1 МБ для продуктов, с запасом до лимита сообщения gRPC в 4 МБ
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    private GrpcCalls() {
+    }
+
+    /**
+     * Чтение сущности по id; отсутствующая сущность — {@code NOT_FOUND}.
+     */
+    static <T, R> void getById(StreamObserver<R> responseObserver, String entity, long id,
+                               LongFunction<Optional<T>> lookup, Function<T, R> mapper) {
+        unary(responseObserver, () -> lookup.apply(id)
+                .map(mapper)
+                .orElseThrow(() -> Status.NOT_FOUND
+                        .withDescription(entity + " " + id + " not found")
+                        .asRuntimeException()));
+    }
+
+    /**
+     * Создание сущности; с непустым ключом идемпотентности повтор запроса возвращает ранее созданную.
+     */
+    static <D, T> T create(D dto, String idempotencyKey, Function<D, T> create,
+                           BiFunction<D, String, IdempotencyStore.Result<T>> idempotentCreate) {
+        if (idempotencyKey.isEmpty()) {
+            return create.apply(dto);
+        }
+        if (!IdempotencyStore.isValidKey(idempotencyKey)) {
+            throw new IllegalArgumentException("Invalid idempotency key");
+        }
+        return idempotentCreate.apply(dto, idempotencyKey).value();
+    }
+
+    /**
+     * Потоковое чтение снимка пачками запрошенного размера, см. {@link #serverStream}.
+     */
+    static <T, R> void list(StreamObserver<R> responseObserver, int requestedBatchSize, int defaultBatchSize,
+                            Supplier<List<T>> source, Function<List<T>, R> batchMapper) {
+        int batchSize;
+        try {
+            batchSize = batchSize(requestedBatchSize, defaultBatchSize);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(toStatus(e));
+            return;
+        }
+        serverStream(responseObserver, source, batchSize, batchMapper);
+    }
+
+    /**
+     * Одно сообщение пакетной загрузки: без {@code id} сущность создается, с {@code id} — обновляется.
+     */
+    static <D> UpsertOutcome upsert(D dto, Long id, Consumer<D> create, BiFunction<Long, D, Optional<?>> update) {
+        if (id == null) {
+            create.accept(dto);
+            return UpsertOutcome.CREATED;
+        }
+        return update.apply(id, dto).isPresent() ? UpsertOutcome.UPDATED : UpsertOutcome.NOT_FOUND;
+    }
+
+    static <R> void unary(StreamObserver<R> responseObserver, Supplier<R> call) {
+        R response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Отправляет снимок пачками по {@code batchSize} элементов, пока транспорт готов их принять,
+     * и продолжает по сигналу готовности, поэтому медленный клиент не заставляет сервер
+     * буферизовать весь список.
+     */
+    private static <T, R> void serverStream(StreamObserver<R> responseObserver, Supplier<List<T>> source, int batchSize,
+                                    Function<List<T>, R> batchMapper) {
+        ServerCallStreamObserver<R> call = (ServerCallStreamObserver<R>) responseObserver;
+        List<T> items;
+        try {
+            items = source.get();
+        } catch (RuntimeException e) {
+            call.onError(toStatus(e));
+            return;
+        }
+        Runnable drain = new Runnable() {
+
+            private int sent;
+            private boolean done;
+
+            @Override
+            public void run() {
+                // Обработчики вызываются последовательно, синхронизация не нужна
+                while (!done && call.isReady() && sent < items.size()) {
+                    int end = Math.min(sent + batchSize, items.size());
+                    call.onNext(batchMapper.apply(items.subList(sent, end)));
+                    sent = end;
+                }
+                if (!done && sent == items.size()) {
+                    done = true;
+                    call.onCompleted();
+                }
+            }
+        };
+        call.setOnCancelHandler(() -> log.debug("Клиент отменил потоковое чтение"));
+        call.setOnReadyHandler(drain);
+        drain.run();
+    }
+
+    /**
+     * Размер пачки из запроса: 0 — по умолчанию, больше {@link #MAX_BATCH_SIZE} — ограничивается.
+     */
+    private static int batchSize(int requested, int defaultSize) {
+        if (requested < 0) {
+            throw new IllegalArgumentException("batch_size must not be negative");
+        }
+        return requested == 0 ? defaultSize : Math.min(requested, MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Применяет сообщения клиентского потока по одному и запрашивает следующее только после обработки;
+     * сервер держит не больше {@code window} непрочитанных сообщений, дальше клиента сдерживает
+     * окно HTTP/2. При первой ошибке вызов завершается ее статусом, примененные изменения остаются.
+     */
+    static <T> StreamObserver<T> upsertStream(StreamObserver<UpsertSummary> responseObserver, int window,
+                                              Function<T, UpsertOutcome> upsert) {
+        ServerCallStreamObserver<UpsertSummary> call = (ServerCallStreamObserver<UpsertSummary>) responseObserver;
+        call.disableAutoRequest();
+        call.request(window);
+        return new StreamObserver<>() {
+
+            private final UpsertSummary.Builder summary = UpsertSummary.newBuilder();
+            private boolean failed;
+
+            @Override
+            public void onNext(T item) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    switch (upsert.apply(item)) {
+                        case CREATED -> summary.setCreated(summary.getCreated() + 1);
+                        case UPDATED -> summary.setUpdated(summary.getUpdated() + 1);
+                        case NOT_FOUND -> summary.setNotFound(summary.getNotFound() + 1);
+                    }
+                } catch (RuntimeException e) {
+                    failed = true;
+                    StatusRuntimeException status = toStatus(e);
+                    call.onError(status.getStatus()
+                            .augmentDescription("applied before failure: created=" + summary.getCreated()
+                                    + ", updated=" + summary.getUpdated())
+                            .asRuntimeException());
+                    return;
+                }
+                call.request(1);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("Клиент прервал пакетную загрузку: {}", t.toString());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    call.onNext(summary.build());
+                    call.onCompleted();
+                }
+            }
+        };
+    }
+
+    static StatusRuntimeException toStatus(RuntimeException e) {
+        if (e instanceof StatusRuntimeException status) {
+            return status;
+        }
+        Status status;
+        if (e instanceof TenantQuotaExceededException) {
+            status = Status.RESOURCE_EXHAUSTED;
+        } else if (e instanceof WriteBehindOverloadedException) {
+            status = Status.UNAVAILABLE;
+        } else if (e instanceof IdempotencyKeyReusedException) {
+            status = Status.FAILED_PRECONDITION;
+        } else if (e instanceof IllegalArgumentException) {
+            status = Status.INVALID_ARGUMENT;
+        } else {
+            log.error("Ошибка обработки вызова gRPC", e);
+            return Status.INTERNAL.withDescription("Internal error").asRuntimeException();
+        }
+        return status.withDescription(e.getMessage()).asRuntimeException();
+    }
+
+    enum UpsertOutcome {
+        CREATED, UPDATED, NOT_FOUND
+    }
+}
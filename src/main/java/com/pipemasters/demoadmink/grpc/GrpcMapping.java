@@ -0,0 +1,113 @@
+package com.pipemasters.demoadmink.grpc;
+
+import com.google.protobuf.Timestamp;
+import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.dto.UserDto;
+import com.pipemasters.demoadmink.grpc.proto.ProductBatch;
+import com.pipemasters.demoadmink.grpc.proto.ProductInput;
+import com.pipemasters.demoadmink.grpc.proto.UserBatch;
+import com.pipemasters.demoadmink.grpc.proto.UserInput;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.model.User;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Преобразование сообщений gRPC в DTO сервисов и сущностей в сообщения. Отсутствующие
+ * optional-поля соответствуют {@code null} в DTO и сущностях.
+ */
+final class GrpcMapping {
+
+    private GrpcMapping() {
+    }
+
+    /**
+     * @throws IllegalArgumentException если цена не десятичное число
+     */
+    static ProductDto toDto(ProductInput input) {
+        return ProductDto.builder()
+                .name(input.getName())
+                .description(input.hasDescription() ? input.getDescription() : null)
+                .price(input.hasPrice() ? new BigDecimal(input.getPrice()) : null)
+                .quantity(input.hasQuantity() ? input.getQuantity() : null)
+                .expiresAt(input.hasExpiresAt() ? toInstant(input.getExpiresAt()) : null)
+                .build();
+    }
+
+    static UserDto toDto(UserInput input) {
+        return UserDto.builder()
+                .name(input.getName())
+                .email(input.hasEmail() ? input.getEmail() : null)
+                .age(input.hasAge() ? input.getAge() : null)
+                .expiresAt(input.hasExpiresAt() ? toInstant(input.getExpiresAt()) : null)
+                .build();
+    }
+
+    static com.pipemasters.demoadmink.grpc.proto.Product toMessage(Product product) {
+        com.pipemasters.demoadmink.grpc.proto.Product.Builder message =
+                com.pipemasters.demoadmink.grpc.proto.Product.newBuilder().setId(product.id());
+        if (product.name() != null) {
+            message.setName(product.name());
+        }
+        if (product.description() != null) {
+            message.setDescription(product.description());
+        }
+        if (product.price() != null) {
+            message.setPrice(product.price().toPlainString());
+        }
+        if (product.quantity() != null) {
+            message.setQuantity(product.quantity());
+        }
+        if (product.expiresAt() != null) {
+            message.setExpiresAt(toTimestamp(product.expiresAt()));
+        }
+        return message.build();
+    }
+
+    static com.pipemasters.demoadmink.grpc.proto.User toMessage(User user) {
+        com.pipemasters.demoadmink.grpc.proto.User.Builder message =
+                com.pipemasters.demoadmink.grpc.proto.User.newBuilder().setId(user.id());
+        if (user.name() != null) {
+            message.setName(user.name());
+        }
+        if (user.email() != null) {
+            message.setEmail(user.email());
+        }
+        if (user.age() != null) {
+            message.setAge(user.age());
+        }
+        if (user.expiresAt() != null) {
+            message.setExpiresAt(toTimestamp(user.expiresAt()));
+        }
+        return message.build();
+    }
+
+    static ProductBatch toProductBatch(List<Product> products) {
+        ProductBatch.Builder batch = ProductBatch.newBuilder();
+        for (Product product : products) {
+            batch.addProducts(toMessage(product));
+        }
+        return batch.build();
+    }
+
+    static UserBatch toUserBatch(List<User> users) {
+        UserBatch.Builder batch = UserBatch.newBuilder();
+        for (User user : users) {
+            batch.addUsers(toMessage(user));
+        }
+        return batch.build();
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.pipemasters.demoadmink.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервер gRPC рядом с HTTP-сервером: запускается после создания контекста и останавливается первым,
+ * дожидаясь текущих вызовов не дольше {@code shutdownTimeout}. Вызовы обрабатываются в пуле
+ * фиксированного размера, чтобы всплеск вызовов не плодил потоки.
+ */
+@Slf4j
+public class GrpcServer implements SmartLifecycle {
+
+    private final Server server;
+    private final ExecutorService executor;
+    private final Duration shutdownTimeout;
+    private volatile boolean running;
+
+    /**
+     * @param interceptors общие для всех сервисов; первым вызывается последний в списке
+     */
+    public GrpcServer(ServerBuilder<?> builder, List<BindableService> services, List<ServerInterceptor> interceptors,
+                      int threads, Duration shutdownTimeout) {
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory());
+        this.shutdownTimeout = shutdownTimeout;
+        builder.executor(executor);
+        services.forEach(builder::addService);
+        interceptors.forEach(builder::intercept);
+        this.server = builder.build();
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить gRPC сервер", e);
+        }
+        running = true;
+        log.info("gRPC сервер слушает порт {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("gRPC вызовы не завершились за {}, прерываем", shutdownTimeout);
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.shutdownNow();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Фактический порт; при {@code app.grpc.port=0} выбирается свободный.
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "grpc-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.pipemasters.demoadmink.grpc;
+
+import com.pipemasters.demoadmink.grpc.proto.CreateProductRequest;
+import com.pipemasters.demoadmink.grpc.proto.GetProductRequest;
+import com.pipemasters.demoadmink.grpc.proto.ListProductsRequest;
+import com.pipemasters.demoadmink.grpc.proto.Product;
+import com.pipemasters.demoadmink.grpc.proto.ProductBatch;
+import com.pipemasters.demoadmink.grpc.proto.ProductCatalogGrpc;
+import com.pipemasters.demoadmink.grpc.proto.ProductUpsert;
+import com.pipemasters.demoadmink.grpc.proto.UpsertSummary;
+import com.pipemasters.demoadmink.service.ProductService;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * gRPC API продуктов поверх {@link ProductService}; арендатора выставляет {@code TenantServerInterceptor}.
+ */
+public class ProductGrpcService extends ProductCatalogGrpc.ProductCatalogImplBase {
+
+    private final ProductService productService;
+    private final int listBatchSize;
+    private final int upsertWindow;
+
+    public ProductGrpcService(ProductService productService, int listBatchSize, int upsertWindow) {
+        this.productService = productService;
+        this.listBatchSize = listBatchSize;
+        this.upsertWindow = upsertWindow;
+    }
+
+    @Override
+    public void getProduct(GetProductRequest request, StreamObserver<Product> responseObserver) {
+        GrpcCalls.getById(responseObserver, "Product", request.getId(), productService::getProductById, GrpcMapping::toMessage);
+    }
+
+    @Override
+    public void createProduct(CreateProductRequest request, StreamObserver<Product> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> {
+            com.pipemasters.demoadmink.model.Product product = GrpcCalls.create(GrpcMapping.toDto(request.getProduct()),
+                    request.getIdempotencyKey(), productService::createProduct, productService::createProduct);
+            return GrpcMapping.toMessage(product);
+        });
+    }
+
+    @Override
+    public void listProducts(ListProductsRequest request, StreamObserver<ProductBatch> responseObserver) {
+        GrpcCalls.list(responseObserver, request.getBatchSize(), listBatchSize, productService::getAllProducts,
+                GrpcMapping::toProductBatch);
+    }
+
+    @Override
+    public StreamObserver<ProductUpsert> upsertProducts(StreamObserver<UpsertSummary> responseObserver) {
+        return GrpcCalls.upsertStream(responseObserver, upsertWindow, upsert -> GrpcCalls.upsert(
+                GrpcMapping.toDto(upsert.getProduct()), upsert.hasId() ? upsert.getId() : null,
+                productService::createProduct, productService::updateProduct));
+    }
+}
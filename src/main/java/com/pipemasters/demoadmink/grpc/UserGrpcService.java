@@ -0,0 +1,55 @@
+package com.pipemasters.demoadmink.grpc;
+
+import com.pipemasters.demoadmink.grpc.proto.CreateUserRequest;
+import com.pipemasters.demoadmink.grpc.proto.GetUserRequest;
+import com.pipemasters.demoadmink.grpc.proto.ListUsersRequest;
+import com.pipemasters.demoadmink.grpc.proto.UpsertSummary;
+import com.pipemasters.demoadmink.grpc.proto.User;
+import com.pipemasters.demoadmink.grpc.proto.UserBatch;
+import com.pipemasters.demoadmink.grpc.proto.UserDirectoryGrpc;
+import com.pipemasters.demoadmink.grpc.proto.UserUpsert;
+import com.pipemasters.demoadmink.service.UserService;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * gRPC API пользователей поверх {@link UserService}; арендатора выставляет {@code TenantServerInterceptor}.
+ */
+public class UserGrpcService extends UserDirectoryGrpc.UserDirectoryImplBase {
+
+    private final UserService userService;
+    private final int listBatchSize;
+    private final int upsertWindow;
+
+    public UserGrpcService(UserService userService, int listBatchSize, int upsertWindow) {
+        this.userService = userService;
+        this.listBatchSize = listBatchSize;
+        this.upsertWindow = upsertWindow;
+    }
+
+    @Override
+    public void getUser(GetUserRequest request, StreamObserver<User> responseObserver) {
+        GrpcCalls.getById(responseObserver, "User", request.getId(), userService::getUserById, GrpcMapping::toMessage);
+    }
+
+    @Override
+    public void createUser(CreateUserRequest request, StreamObserver<User> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> {
+            com.pipemasters.demoadmink.model.User user = GrpcCalls.create(GrpcMapping.toDto(request.getUser()),
+                    request.getIdempotencyKey(), userService::createUser, userService::createUser);
+            return GrpcMapping.toMessage(user);
+        });
+    }
+
+    @Override
+    public void listUsers(ListUsersRequest request, StreamObserver<UserBatch> responseObserver) {
+        GrpcCalls.list(responseObserver, request.getBatchSize(), listBatchSize, userService::getAllUsers,
+                GrpcMapping::toUserBatch);
+    }
+
+    @Override
+    public StreamObserver<UserUpsert> upsertUsers(StreamObserver<UpsertSummary> responseObserver) {
+        return GrpcCalls.upsertStream(responseObserver, upsertWindow, upsert -> GrpcCalls.upsert(
+                GrpcMapping.toDto(upsert.getUser()), upsert.hasId() ? upsert.getId() : null,
+                userService::createUser, userService::updateUser));
+    }
+}
@@ -0,0 +1,25 @@
+package com.pipemasters.demoadmink.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Хранимое состояние продукта. В отличие от {@code ProductDto}, в который десериализуется
+ * запрос, запись неизменяема: один экземпляр отдается всем читателям и сериализатору без копий.
+ * Продукт с {@code expiresAt} удаляется фоновым reaper после этого момента.
+ */
+@Schema(description = "Продукт")
+public record Product(
+        @Schema(description = "Уникальный идентификатор продукта", example = "1") Long id,
+        @Schema(description = "Название продукта", example = "Laptop") String name,
+        @Schema(description = "Описание продукта", example = "High-performance laptop") String description,
+        @Schema(description = "Цена продукта", example = "999.99") BigDecimal price,
+        @Schema(description = "Количество на складе", example = "50") Integer quantity,
+        @Schema(description = "Момент истечения срока жизни продукта, null — бессрочно") Instant expiresAt) {
+
+    public Product(Long id, String name, String description, BigDecimal price, Integer quantity) {
+        this(id, name, description, price, quantity, null);
+    }
+}
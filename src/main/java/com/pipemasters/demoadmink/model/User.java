@@ -0,0 +1,22 @@
+package com.pipemasters.demoadmink.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Хранимое состояние пользователя; неизменяемо, как и {@link Product}.
+ * Пользователь с {@code expiresAt} (например, гостевой) удаляется фоновым reaper после этого момента.
+ */
+@Schema(description = "Пользователь")
+public record User(
+        @Schema(description = "Уникальный идентификатор пользователя", example = "1") Long id,
+        @Schema(description = "Имя пользователя", example = "John Doe") String name,
+        @Schema(description = "Email пользователя", example = "john.doe@example.com") String email,
+        @Schema(description = "Возраст пользователя", example = "25") Integer age,
+        @Schema(description = "Момент истечения срока жизни пользователя, null — бессрочно") Instant expiresAt) {
+
+    public User(Long id, String name, String email, Integer age) {
+        this(id, name, email, age, null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusOutputFormat;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/prometheus}, отдающий готовый текст выгрузки из кэша.
+ * <p>
+ * Для каждого формата хранится последний отрисованный ответ. Фоновый поток перерисовывает
+ * запрошенные форматы раз в {@code refreshInterval}, поэтому scrape обычно сводится к чтению
+ * из map и не зависит от числа метрик. Если кэш старше {@code maxStaleness} (фоновый поток
+ * отстал или формат запрошен впервые), ответ отрисовывается синхронно, одновременные запросы
+ * того же формата ждут одну отрисовку. Запросы с фильтром {@code includedNames} идут мимо кэша.
+ */
+@Slf4j
+@WebEndpoint(id = "prometheus")
+public class CachingPrometheusScrapeEndpoint extends PrometheusScrapeEndpoint implements AutoCloseable {
+
+    private final Map<PrometheusOutputFormat, CachedScrape> cache = new ConcurrentHashMap<>();
+    private final long maxStalenessNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer renderTimer;
+
+    public CachingPrometheusScrapeEndpoint(PrometheusRegistry prometheusRegistry, Properties exporterProperties,
+                                           Duration refreshInterval, Duration maxStaleness,
+                                           MeterRegistry meterRegistry) {
+        super(prometheusRegistry, exporterProperties);
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.hitCounter = Counter.builder("prometheus_scrape_cache_requests_total")
+                .description("Number of Prometheus scrapes served by the scrape cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("prometheus_scrape_cache_requests_total")
+                .description("Number of Prometheus scrapes served by the scrape cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("prometheus_scrape_render_duration")
+                .description("Duration of rendering the Prometheus exposition output")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "prometheus-scrape-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = refreshInterval.toNanos();
+        scheduler.scheduleWithFixedDelay(this::refreshAll, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @ReadOperation(producesFrom = PrometheusOutputFormat.class)
+    public WebEndpointResponse<byte[]> scrape(PrometheusOutputFormat format, @Nullable Set<String> includedNames) {
+        if (includedNames != null && !includedNames.isEmpty()) {
+            return super.scrape(format, includedNames);
+        }
+        CachedScrape cached = cache.get(format);
+        if (isFresh(cached)) {
+            hitCounter.increment();
+            return cached.response();
+        }
+        missCounter.increment();
+        return cache.compute(format, (key, current) -> isFresh(current) ? current : render(key)).response();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void refreshAll() {
+        for (PrometheusOutputFormat format : cache.keySet()) {
+            try {
+                cache.put(format, render(format));
+            } catch (RuntimeException e) {
+                // Оставляем предыдущий ответ, иначе исключение остановит планировщик
+                log.warn("Не удалось обновить кэш выгрузки Prometheus в формате {}", format, e);
+            }
+        }
+    }
+
+    private CachedScrape render(PrometheusOutputFormat format) {
+        WebEndpointResponse<byte[]> response = renderTimer.record(() -> super.scrape(format, null));
+        return new CachedScrape(response, System.nanoTime());
+    }
+
+    private boolean isFresh(CachedScrape cached) {
+        return cached != null && System.nanoTime() - cached.renderedAt() <= maxStalenessNanos;
+    }
+
+    private record CachedScrape(WebEndpointResponse<byte[]> response, long renderedAt) {
+    }
+}
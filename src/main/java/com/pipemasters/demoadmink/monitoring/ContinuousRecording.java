@@ -0,0 +1,112 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Непрерывная запись JFR с кольцевым буфером на диске: данные старше {@code maxAge}
+ * или сверх {@code maxSize} отбрасываются. {@link #dump(Duration)} выгружает последние минуты
+ * в отдельный файл, не останавливая запись; хранятся только {@code keepDumps} последних выгрузок.
+ * <p>
+ * Переменные окружения и системные свойства в запись не попадают: в них бывают пароли и токены.
+ */
+@Slf4j
+public class ContinuousRecording implements AutoCloseable {
+
+    private static final String DUMP_PREFIX = "demo-admink-";
+    private static final String DUMP_SUFFIX = ".jfr";
+    // Фиксированная ширина: имена выгрузок сортируются по времени создания
+    private static final DateTimeFormatter DUMP_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS'Z'").withZone(ZoneOffset.UTC);
+    static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+    private final Recording recording;
+    private final Path dumpDirectory;
+    private final int keepDumps;
+
+    public ContinuousRecording(String settings, Duration maxAge, long maxSizeBytes, Duration operationThreshold,
+                               Path dumpDirectory, int keepDumps) throws IOException, ParseException {
+        this.dumpDirectory = dumpDirectory != null ? dumpDirectory : Files.createTempDirectory("demo-admink-jfr");
+        this.keepDumps = keepDumps;
+        Files.createDirectories(this.dumpDirectory);
+        this.recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("demo-admink-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.enable(EntityOperationEvent.class).withThreshold(operationThreshold);
+        for (String event : SENSITIVE_EVENTS) {
+            recording.disable(event);
+        }
+        recording.start();
+        log.info("Запущена непрерывная запись JFR (настройки {}, хранение {}, выгрузки в {})",
+                settings, maxAge, this.dumpDirectory);
+    }
+
+    /**
+     * Выгружает данные записи за последние {@code last} в новый файл.
+     */
+    public synchronized Path dump(Duration last) throws IOException {
+        Path file = dumpDirectory.resolve(DUMP_PREFIX + DUMP_TIMESTAMP.format(Instant.now()) + DUMP_SUFFIX);
+        // Public API JFR в JDK 17 выгружает запись только целиком; отбор по времени есть у JFR.dump
+        String[] arguments = {
+                "name=" + recording.getId(),
+                "begin=-" + Math.max(1, last.toSeconds()) + "s",
+                "filename=" + file.toAbsolutePath()
+        };
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"), "jfrDump",
+                    new Object[]{arguments}, new String[]{String[].class.getName()});
+        } catch (JMException e) {
+            throw new IOException("JFR dump failed", e);
+        }
+        if (!Files.exists(file)) {
+            throw new IOException("JFR dump produced no data");
+        }
+        log.info("Выгрузка JFR за последние {}: {} ({} байт)", last, file, Files.size(file));
+        pruneDumps();
+        return file;
+    }
+
+    public Duration getMaxAge() {
+        return recording.getMaxAge();
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+
+    private void pruneDumps() throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(dumpDirectory)) {
+            dumps = files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(DUMP_PREFIX) && name.endsWith(DUMP_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .toList();
+        }
+        for (Path old : dumps.subList(Math.min(keepDumps, dumps.size()), dumps.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+}
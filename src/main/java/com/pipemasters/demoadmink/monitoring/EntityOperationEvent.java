@@ -0,0 +1,71 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Событие JFR для операции сервиса продуктов или пользователей. Пока событие не включено
+ * в записи, {@link #record} сводится к проверке флага; порог длительности задает запись
+ * (см. {@link ContinuousRecording}), поэтому быстрые операции в нее не попадают.
+ */
+@Name(EntityOperationEvent.NAME)
+@Label("Entity Operation")
+@Category({"Demo Admink", "Services"})
+@Description("Operation of ProductService or UserService")
+@StackTrace(false)
+public class EntityOperationEvent extends Event {
+
+    public static final String NAME = "com.pipemasters.demoadmink.EntityOperation";
+
+    @Label("Entity")
+    String entity;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Tenant")
+    String tenant;
+
+    @Label("Id")
+    @Description("Entity id, 0 if unknown before the operation (get_all, create)")
+    long id;
+
+    @Label("Result Size")
+    @Description("Number of entities returned or changed")
+    int resultSize;
+
+    /**
+     * Выполняет операцию и, если она длилась не меньше порога записи, фиксирует событие.
+     */
+    public static <T> T record(String entity, String operation, String tenant, long id,
+                               Supplier<T> body, ToIntFunction<? super T> resultSize) {
+        EntityOperationEvent event = new EntityOperationEvent();
+        if (!event.isEnabled()) {
+            return body.get();
+        }
+        event.begin();
+        T result = body.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.entity = entity;
+            event.operation = operation;
+            event.tenant = tenant;
+            event.id = id;
+            event.resultSize = resultSize.applyAsInt(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    public static int sizeOf(Optional<?> result) {
+        return result.isPresent() ? 1 : 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * {@code GET /actuator/jfr?minutes=N}: файл JFR с последними N минутами непрерывной записи.
+ */
+@Slf4j
+@WebEndpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final int DEFAULT_MINUTES = 5;
+
+    private final ContinuousRecording recording;
+
+    public FlightRecordingEndpoint(ContinuousRecording recording) {
+        this.recording = recording;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) {
+        int requested = minutes != null ? minutes : DEFAULT_MINUTES;
+        if (requested < 1 || requested > Math.max(1, recording.getMaxAge().toMinutes())) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        try {
+            return new WebEndpointResponse<>(new FileSystemResource(recording.dump(Duration.ofMinutes(requested))));
+        } catch (IOException e) {
+            log.error("Не удалось выгрузить запись JFR", e);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+}
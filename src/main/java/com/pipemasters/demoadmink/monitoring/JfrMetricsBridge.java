@@ -0,0 +1,97 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Переносит в Micrometer метрики, которых нет у стандартных JVM-метрик, из потока событий JFR:
+ * <ul>
+ *     <li>{@code jfr_allocation_sampled_bytes_total{threads}} — оценка выделенной памяти по выборке
+ *     {@code jdk.ObjectAllocationSample}; {@code threads="request"} для потоков обработки запросов,
+ *     так что выделение на запрос считается как
+ *     {@code rate(jfr_allocation_sampled_bytes_total{threads="request"}) / rate(http_server_requests_seconds_count)};</li>
+ *     <li>{@code jfr_monitor_contention_duration{monitor}} — ожидание входа в {@code synchronized}
+ *     ({@code jdk.JavaMonitorEnter}) дольше порога;</li>
+ *     <li>{@code jfr_lock_contention_duration{lock}} — ожидание захваченных блокировок
+ *     {@code java.util.concurrent} ({@code jdk.ThreadPark} на {@code *Sync}) дольше порога.</li>
+ * </ul>
+ */
+@Slf4j
+public class JfrMetricsBridge implements AutoCloseable {
+
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final String THREAD_PARK = "jdk.ThreadPark";
+
+    private final MeterRegistry meterRegistry;
+    private final RecordingStream stream;
+    private final Counter requestAllocations;
+    private final Counter backgroundAllocations;
+
+    public JfrMetricsBridge(Duration contentionThreshold, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.requestAllocations = allocationCounter("request");
+        this.backgroundAllocations = allocationCounter("background");
+        this.stream = new RecordingStream();
+        stream.setMaxAge(Duration.ofSeconds(30));
+        stream.enable(ALLOCATION_SAMPLE).with("throttle", "150/s");
+        stream.enable(MONITOR_ENTER).withThreshold(contentionThreshold).withoutStackTrace();
+        stream.enable(THREAD_PARK).withThreshold(contentionThreshold).withoutStackTrace();
+        stream.onEvent(ALLOCATION_SAMPLE, this::onAllocation);
+        stream.onEvent(MONITOR_ENTER, event -> contentionTimer("jfr_monitor_contention_duration", "monitor",
+                "Time threads waited to enter a contended monitor", event.getClass("monitorClass"))
+                .record(event.getDuration()));
+        stream.onEvent(THREAD_PARK, this::onThreadPark);
+        stream.onError(error -> log.warn("Ошибка обработки событий JFR", error));
+        stream.startAsync();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private void onAllocation(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        boolean request = thread != null && isRequestThread(thread.getJavaName());
+        (request ? requestAllocations : backgroundAllocations).increment(event.getLong("weight"));
+    }
+
+    private void onThreadPark(RecordedEvent event) {
+        RecordedClass parked = event.getClass("parkedClass");
+        // Ожидание на Condition и собственные паузы потоков (очереди, reaper) — простой, а не конкуренция
+        if (parked != null && parked.getName().endsWith("Sync")) {
+            contentionTimer("jfr_lock_contention_duration", "lock",
+                    "Time threads waited for contended java.util.concurrent locks", parked)
+                    .record(event.getDuration());
+        }
+    }
+
+    private static boolean isRequestThread(String name) {
+        // Потоки Tomcat: http-nio-8080-exec-N, потоки HTTP/2 выполняются на них же
+        return name != null && name.startsWith("http-") && name.contains("-exec-");
+    }
+
+    private Counter allocationCounter(String threads) {
+        return Counter.builder("jfr_allocation_sampled_bytes_total")
+                .description("Bytes allocated, estimated from JFR allocation samples")
+                .tag("threads", threads)
+                .register(meterRegistry);
+    }
+
+    private Timer contentionTimer(String name, String tag, String description, RecordedClass type) {
+        // Теги по классу блокировки: их число ограничено классами приложения и JDK
+        return Timer.builder(name)
+                .description(description)
+                .tag(tag, type != null ? type.getName() : "unknown")
+                .register(meterRegistry);
+    }
+}
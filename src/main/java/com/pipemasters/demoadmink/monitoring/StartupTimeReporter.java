@@ -0,0 +1,59 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Измеряет время от старта JVM до готовности приложения и до обработки первого HTTP-запроса.
+ */
+@Slf4j
+@Component
+public class StartupTimeReporter {
+
+    private final AtomicLong readyMillis = new AtomicLong(-1);
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public StartupTimeReporter(MeterRegistry meterRegistry) {
+        Gauge.builder("application_jvm_ready_seconds", readyMillis, StartupTimeReporter::toSeconds)
+                .description("Time from JVM start until the application is ready")
+                .register(meterRegistry);
+        Gauge.builder("application_first_request_seconds", firstRequestMillis, StartupTimeReporter::toSeconds)
+                .description("Time from JVM start until the first HTTP request is handled")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        long uptime = jvmUptime();
+        readyMillis.set(uptime);
+        log.info("Приложение готово через {} мс после старта JVM", uptime);
+    }
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestMillis.get() >= 0) {
+            return;
+        }
+        long uptime = jvmUptime();
+        if (firstRequestMillis.compareAndSet(-1, uptime)) {
+            log.info("Первый запрос {} обработан через {} мс после старта JVM", event.getRequestUrl(), uptime);
+        }
+    }
+
+    private static long jvmUptime() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    private static double toSeconds(AtomicLong millis) {
+        long value = millis.get();
+        return value < 0 ? Double.NaN : value / 1000.0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pipemasters.demoadmink.mutation;
+
+import java.time.Instant;
+
+/**
+ * Изменение одной сущности: тип операции, арендатор, идентификатор (уникален в пределах арендатора),
+ * версия и новое состояние ({@code null} для удаления).
+ * <p>
+ * Версию сервис выдает под блокировкой ключа сущности, а в хранилище изменение передается уже после
+ * ее снятия. Поэтому изменения одной сущности могут прийти в хранилище не в порядке применения,
+ * и хранилище, которому важен порядок, отбрасывает изменение с версией меньше уже известной.
+ */
+public record Mutation<T>(MutationType type, String tenant, Long id, long version, T payload, Instant timestamp) {
+
+    public static <T> Mutation<T> create(String tenant, Long id, long version, T payload) {
+        return new Mutation<>(MutationType.CREATE, tenant, id, version, payload, Instant.now());
+    }
+
+    public static <T> Mutation<T> update(String tenant, Long id, long version, T payload) {
+        return new Mutation<>(MutationType.UPDATE, tenant, id, version, payload, Instant.now());
+    }
+
+    public static <T> Mutation<T> delete(String tenant, Long id, long version) {
+        return new Mutation<>(MutationType.DELETE, tenant, id, version, null, Instant.now());
+    }
+
+    /**
+     * Новее ли это изменение, чем {@code other} той же сущности.
+     */
+    public boolean supersedes(Mutation<?> other) {
+        return version > other.version;
+    }
+}
@@ -0,0 +1,30 @@
+package com.pipemasters.demoadmink.mutation;
+
+import java.util.List;
+
+/**
+ * Долговременное хранилище изменений. Пакет записывается одной операцией (group commit).
+ */
+@FunctionalInterface
+public interface MutationStore<T> {
+
+    void commit(List<Mutation<T>> batch);
+
+    /**
+     * Хранилище, которое записывает пачку сначала в это хранилище, затем в {@code next}.
+     */
+    default MutationStore<T> andThen(MutationStore<T> next) {
+        return batch -> {
+            commit(batch);
+            next.commit(batch);
+        };
+    }
+
+    /**
+     * Хранилище без долговременной записи: состояние живет только в памяти сервиса.
+     */
+    static <T> MutationStore<T> inMemory() {
+        return batch -> {
+        };
+    }
+}
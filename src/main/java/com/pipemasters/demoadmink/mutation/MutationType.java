@@ -0,0 +1,7 @@
+package com.pipemasters.demoadmink.mutation;
+
+public enum MutationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,68 @@
+package com.pipemasters.demoadmink.projection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.model.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Проецируемые поля DTO. Имена и порядок совпадают с полной сериализацией Jackson.
+ */
+public final class DtoProjections {
+
+    public static final ProjectionSerializers<Product> PRODUCT = ProjectionSerializers.<Product>builder()
+            .field("id", (p, g) -> writeNumber(g, "id", p.id()))
+            .field("name", (p, g) -> g.writeStringField("name", p.name()))
+            .field("description", (p, g) -> g.writeStringField("description", p.description()))
+            .field("price", (p, g) -> writeDecimal(g, "price", p.price()))
+            .field("quantity", (p, g) -> writeNumber(g, "quantity", p.quantity()))
+            .field("expiresAt", (p, g) -> writeInstant(g, "expiresAt", p.expiresAt()))
+            .build();
+
+    public static final ProjectionSerializers<User> USER = ProjectionSerializers.<User>builder()
+            .field("id", (u, g) -> writeNumber(g, "id", u.id()))
+            .field("name", (u, g) -> g.writeStringField("name", u.name()))
+            .field("email", (u, g) -> g.writeStringField("email", u.email()))
+            .field("age", (u, g) -> writeNumber(g, "age", u.age()))
+            .field("expiresAt", (u, g) -> writeInstant(g, "expiresAt", u.expiresAt()))
+            .build();
+
+    private DtoProjections() {
+    }
+
+    private static void writeNumber(JsonGenerator generator, String name, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, String name, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    private static void writeInstant(JsonGenerator generator, String name, Instant value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            // Тот же формат ISO-8601, что у Jackson с выключенным WRITE_DATES_AS_TIMESTAMPS
+            generator.writeStringField(name, value.toString());
+        }
+    }
+
+    private static void writeDecimal(JsonGenerator generator, String name, BigDecimal value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+}
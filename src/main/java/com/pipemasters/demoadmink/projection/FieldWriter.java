@@ -0,0 +1,14 @@
+package com.pipemasters.demoadmink.projection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Пишет одно поле объекта в JSON без рефлексии.
+ */
+@FunctionalInterface
+public interface FieldWriter<T> {
+
+    void write(T value, JsonGenerator generator) throws IOException;
+}
@@ -0,0 +1,52 @@
+package com.pipemasters.demoadmink.projection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Ответ с разреженным представлением: Jackson делегирует запись скомпилированной проекции.
+ */
+public final class ProjectedJson<T> implements JsonSerializable {
+
+    private final ProjectionSerializers.Projection<T> projection;
+    private final T single;
+    private final Collection<T> many;
+
+    private ProjectedJson(ProjectionSerializers.Projection<T> projection, T single, Collection<T> many) {
+        this.projection = projection;
+        this.single = single;
+        this.many = many;
+    }
+
+    public static <T> ProjectedJson<T> of(T value, ProjectionSerializers.Projection<T> projection) {
+        return new ProjectedJson<>(projection, value, null);
+    }
+
+    public static <T> ProjectedJson<T> ofList(Collection<T> values, ProjectionSerializers.Projection<T> projection) {
+        return new ProjectedJson<>(projection, null, values);
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        if (many == null) {
+            projection.write(single, generator);
+            return;
+        }
+        generator.writeStartArray();
+        for (T value : many) {
+            projection.write(value, generator);
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(generator, serializers);
+    }
+}
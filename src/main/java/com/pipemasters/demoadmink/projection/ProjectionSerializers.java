@@ -0,0 +1,119 @@
+package com.pipemasters.demoadmink.projection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Набор сериализаторов проекций одного типа. Для каждого подмножества полей сериализатор
+ * собирается один раз и кешируется по битовой маске полей, так что запрос с {@code fields=}
+ * стоит лишь разбора строки параметра и записи выбранных полей.
+ */
+public class ProjectionSerializers<T> {
+
+    private static final int MAX_FIELDS = 16;
+
+    private final String[] names;
+    private final FieldWriter<T>[] writers;
+    private final Map<String, Integer> indexes = new LinkedHashMap<>();
+    private final AtomicReferenceArray<Projection<T>> compiled;
+
+    @SuppressWarnings("unchecked")
+    private ProjectionSerializers(Map<String, FieldWriter<T>> fields) {
+        if (fields.isEmpty() || fields.size() > MAX_FIELDS) {
+            throw new IllegalArgumentException("Unsupported number of projectable fields: " + fields.size());
+        }
+        this.names = fields.keySet().toArray(String[]::new);
+        this.writers = fields.values().toArray(FieldWriter[]::new);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+        this.compiled = new AtomicReferenceArray<>(1 << names.length);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Возвращает сериализатор для списка полей через запятую, например {@code "id,price"}.
+     * Порядок полей в ответе совпадает с порядком полей DTO.
+     *
+     * @throws IllegalArgumentException если список пуст или содержит неизвестное поле
+     */
+    public Projection<T> compile(String fields) {
+        int mask = 0;
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Integer index = indexes.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected one of " + indexes.keySet());
+            }
+            mask |= 1 << index;
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("No fields requested");
+        }
+        Projection<T> projection = compiled.get(mask);
+        if (projection == null) {
+            projection = build(mask);
+            if (!compiled.compareAndSet(mask, null, projection)) {
+                projection = compiled.get(mask);
+            }
+        }
+        return projection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Projection<T> build(int mask) {
+        List<FieldWriter<T>> selected = new ArrayList<>();
+        for (int i = 0; i < writers.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                selected.add(writers[i]);
+            }
+        }
+        return new Projection<>(selected.toArray(FieldWriter[]::new));
+    }
+
+    /**
+     * Скомпилированная проекция: упорядоченный массив писателей выбранных полей.
+     */
+    public static final class Projection<T> {
+
+        private final FieldWriter<T>[] writers;
+
+        private Projection(FieldWriter<T>[] writers) {
+            this.writers = writers;
+        }
+
+        public void write(T value, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            for (FieldWriter<T> writer : writers) {
+                writer.write(value, generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final Map<String, FieldWriter<T>> fields = new LinkedHashMap<>();
+
+        public Builder<T> field(String name, FieldWriter<T> writer) {
+            fields.put(name, writer);
+            return this;
+        }
+
+        public ProjectionSerializers<T> build() {
+            return new ProjectionSerializers<>(fields);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pipemasters.demoadmink.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.function.BooleanSupplier;
+
+/**
+ * REST API на follower: изменения перенаправляются лидеру ответом 307 (метод и тело сохраняются),
+ * чтение обслуживается локально, пока данные не устарели больше допустимого; иначе 503.
+ */
+public class FollowerReadFilter extends OncePerRequestFilter {
+
+    private final URI leaderUrl;
+    private final BooleanSupplier stale;
+    private final String retryAfterSeconds;
+
+    public FollowerReadFilter(URI leaderUrl, BooleanSupplier stale, long retryAfterSeconds) {
+        this.leaderUrl = leaderUrl;
+        this.stale = stale;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfterSeconds));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            String query = request.getQueryString();
+            String location = leaderUrl.resolve(request.getRequestURI()) + (query != null ? "?" + query : "");
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, location);
+            return;
+        }
+        if (stale.getAsBoolean()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Replica is behind the leader");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
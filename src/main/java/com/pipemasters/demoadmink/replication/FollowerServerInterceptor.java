@@ -0,0 +1,45 @@
+package com.pipemasters.demoadmink.replication;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.net.URI;
+import java.util.function.BooleanSupplier;
+
+/**
+ * То же, что {@link FollowerReadFilter}, для gRPC. Перенаправлений в gRPC нет, поэтому вызовы с побочными
+ * эффектами (без {@code idempotency_level = NO_SIDE_EFFECTS} в proto) отклоняются с адресом лидера
+ * в описании статуса; чтение при устаревших данных отклоняется как UNAVAILABLE, чтобы клиент повторил его.
+ */
+public class FollowerServerInterceptor implements ServerInterceptor {
+
+    private final URI leaderUrl;
+    private final BooleanSupplier stale;
+
+    public FollowerServerInterceptor(URI leaderUrl, BooleanSupplier stale) {
+        this.leaderUrl = leaderUrl;
+        this.stale = stale;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!call.getMethodDescriptor().isSafe()) {
+            return reject(call, Status.FAILED_PRECONDITION
+                    .withDescription("Replica is read-only, send writes to the leader " + leaderUrl.getHost()));
+        }
+        if (stale.getAsBoolean()) {
+            return reject(call, Status.UNAVAILABLE.withDescription("Replica is behind the leader"));
+        }
+        return next.startCall(call, headers);
+    }
+
+    private static <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, Status status) {
+        call.close(status, new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.pipemasters.demoadmink.replication;
+
+import java.util.List;
+
+/**
+ * Ответ лидера на запрос журнала.
+ *
+ * @param epoch          идентификатор журнала лидера; после перезапуска или смены лидера нумерация
+ *                       записей начинается заново, и журнал получает новый идентификатор
+ * @param leaderSequence номер последней записи, которая была в журнале на момент ответа
+ * @param purgedThrough  номер последней удаленной из журнала записи об удалении
+ * @param reset          follower должен очистить свое состояние: записи отдаются с начала журнала
+ */
+public record ReplicationBatch(String epoch, long leaderSequence, long purgedThrough, boolean reset,
+                               List<ReplicationEntry> entries) {
+}
@@ -0,0 +1,9 @@
+package com.pipemasters.demoadmink.replication;
+
+import com.pipemasters.demoadmink.mutation.Mutation;
+
+/**
+ * Запись журнала репликации: изменение сущности {@code entity} с порядковым номером в журнале лидера.
+ */
+public record ReplicationEntry(long sequence, String entity, Mutation<?> mutation) {
+}
@@ -0,0 +1,215 @@
+package com.pipemasters.demoadmink.replication;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.model.User;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.service.ProductService;
+import com.pipemasters.demoadmink.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follower репликации: фоновый поток забирает журнал лидера long-poll запросами
+ * ({@code GET /internal/replication/log}) и применяет записи к {@link ProductService} и {@link UserService}.
+ * <p>
+ * Устаревание оценивается сверху: follower считается синхронным на момент отправки запроса,
+ * ответ на который дочитан до конца журнала лидера.
+ */
+@Slf4j
+public class ReplicationFollower implements AutoCloseable {
+
+    static final String LOG_PATH = "/internal/replication/log";
+
+    private final URI logUri;
+    private final String token;
+    private final int batchSize;
+    private final Duration pollWait;
+    private final Duration retryBackoff;
+    private final Duration maxStaleness;
+    private final ProductService productService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final JavaType productMutation;
+    private final JavaType userMutation;
+    private final HttpClient client;
+    private final Thread poller;
+    private final Counter appliedCounter;
+    private final Counter resetCounter;
+    private final Counter failureCounter;
+    private volatile String epoch;
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile long knownPurged;
+    private volatile long lastSyncedNanos;
+    private volatile boolean synced;
+    private volatile boolean running = true;
+
+    public ReplicationFollower(AppProperties.Replication properties, ProductService productService,
+                               UserService userService, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (properties.getLeaderUrl() == null) {
+            throw new IllegalStateException("app.replication.leader-url is required for a follower");
+        }
+        this.logUri = properties.getLeaderUrl().resolve(LOG_PATH);
+        this.token = properties.requireToken();
+        this.batchSize = properties.getBatchSize();
+        this.pollWait = properties.getPollWait();
+        this.retryBackoff = properties.getRetryBackoff();
+        this.maxStaleness = properties.getMaxStaleness();
+        this.productService = productService;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.productMutation = objectMapper.getTypeFactory().constructParametricType(Mutation.class, Product.class);
+        this.userMutation = objectMapper.getTypeFactory().constructParametricType(Mutation.class, User.class);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(retryBackoff.plusSeconds(1))
+                .build();
+
+        this.appliedCounter = Counter.builder("replication_entries_applied_total")
+                .description("Number of replication log entries applied by the follower")
+                .register(meterRegistry);
+        this.resetCounter = Counter.builder("replication_resets_total")
+                .description("Number of times the follower re-read the replication log from the beginning")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("replication_poll_failures_total")
+                .description("Number of failed replication log requests")
+                .register(meterRegistry);
+        Gauge.builder("replication_lag_seconds", this, follower -> follower.getStaleness().toMillis() / 1000.0)
+                .description("Upper bound of follower data staleness relative to the leader")
+                .register(meterRegistry);
+        Gauge.builder("replication_lag_entries", this, follower -> follower.leaderSequence - follower.appliedSequence)
+                .description("Number of leader log sequence numbers not yet applied by the follower")
+                .register(meterRegistry);
+        Gauge.builder("replication_applied_sequence", this, follower -> follower.appliedSequence)
+                .description("Last leader log sequence number applied by the follower")
+                .register(meterRegistry);
+
+        this.poller = new Thread(this::pollLoop, "replication-follower");
+        this.poller.setDaemon(true);
+        this.poller.start();
+    }
+
+    /**
+     * Сколько времени прошло с момента, на который данные follower гарантированно совпадали с лидером.
+     * До первой синхронизации возвращает {@code Duration.ofSeconds(Long.MAX_VALUE)}.
+     */
+    public Duration getStaleness() {
+        return synced ? Duration.ofNanos(System.nanoTime() - lastSyncedNanos) : Duration.ofSeconds(Long.MAX_VALUE);
+    }
+
+    public boolean isStale() {
+        return getStaleness().compareTo(maxStaleness) > 0;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        poller.interrupt();
+        try {
+            poller.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void pollLoop() {
+        log.info("Репликация журнала лидера {}", logUri);
+        while (running) {
+            try {
+                poll();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                failureCounter.increment();
+                log.warn("Не удалось получить журнал репликации от {}: {}", logUri, e.toString());
+                try {
+                    Thread.sleep(retryBackoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void poll() throws IOException, InterruptedException {
+        long requestedAt = System.nanoTime();
+        String query = "?after=" + appliedSequence + "&purged=" + knownPurged
+                + "&limit=" + batchSize + "&waitMs=" + pollWait.toMillis();
+        URI uri = URI.create(logUri + (epoch != null ? query + "&epoch=" + epoch : query));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(pollWait.plus(retryBackoff).plusSeconds(5))
+                .header(ReplicationTokenFilter.HEADER, token)
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        JsonNode batch;
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Leader responded with status " + response.statusCode());
+            }
+            batch = objectMapper.readTree(body);
+        }
+
+        String leaderEpoch = batch.path("epoch").asText();
+        if (batch.path("reset").asBoolean()) {
+            if (leaderEpoch.equals(epoch)) {
+                log.warn("Журнал лидера не содержит всех удалений после {}, перечитываем его с начала", appliedSequence);
+            } else {
+                log.warn("Журнал лидера сменился ({} -> {}), перечитываем его с начала", epoch, leaderEpoch);
+            }
+            resetCounter.increment();
+            // Пока журнал не перечитан до конца, данные неполны: чтение получает 503
+            synced = false;
+            productService.clearReplicated();
+            userService.clearReplicated();
+            appliedSequence = 0;
+        }
+        epoch = leaderEpoch;
+        JsonNode entries = batch.path("entries");
+        for (JsonNode entry : entries) {
+            apply(entry.path("entity").asText(), entry.path("mutation"));
+            appliedSequence = entry.path("sequence").asLong();
+            appliedCounter.increment();
+        }
+        long sequence = batch.path("leaderSequence").asLong();
+        knownPurged = batch.path("purgedThrough").asLong();
+        leaderSequence = sequence;
+        if (entries.size() < batchSize) {
+            // Журнал прочитан до конца: пропущенные номера относятся к сжатым записям
+            appliedSequence = Math.max(appliedSequence, sequence);
+            lastSyncedNanos = requestedAt;
+            synced = true;
+        }
+    }
+
+    private void apply(String entity, JsonNode mutation) throws IOException {
+        switch (entity) {
+            case ReplicationLog.PRODUCTS -> productService.applyReplicated(
+                    objectMapper.readerFor(productMutation).readValue(mutation));
+            case ReplicationLog.USERS -> userService.applyReplicated(
+                    objectMapper.readerFor(userMutation).readValue(mutation));
+            default -> throw new IOException("Unknown replicated entity: " + entity);
+        }
+    }
+}
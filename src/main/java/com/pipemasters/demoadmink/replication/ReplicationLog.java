@@ -0,0 +1,133 @@
+package com.pipemasters.demoadmink.replication;
+
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.mutation.MutationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Упорядоченный журнал изменений лидера со сжатием по ключу: для каждой сущности хранится только
+ * последняя запись, поэтому журнал целиком заменяет снимок состояния и занимает память порядка
+ * числа живых сущностей (записи ссылаются на те же неизменяемые объекты, что и сервисы).
+ * <p>
+ * Записи об удалении хранятся {@code tombstoneRetention}. Follower, который отстал сильнее и мог
+ * пропустить удаленную из журнала запись об удалении, получает признак {@code reset} и перечитывает
+ * журнал с начала. То же происходит, если follower читал журнал с другим {@code epoch}: у каждого
+ * экземпляра журнала своя нумерация, и после перезапуска или смены лидера номера follower ничего не значат.
+ * <p>
+ * Изменения одной сущности могут прийти не в порядке версий (см. {@link Mutation}); изменение
+ * не новее уже записанного пропускается, поэтому повтор пачки не дублирует записи.
+ */
+public class ReplicationLog {
+
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final ConcurrentSkipListMap<Long, ReplicationEntry> entries = new ConcurrentSkipListMap<>();
+    private final Map<EntryKey, Long> latest = new HashMap<>();
+    private final ArrayDeque<ReplicationEntry> tombstones = new ArrayDeque<>();
+    private final Duration tombstoneRetention;
+    private long sequence;
+    private volatile long committed;
+    private volatile long purgedThrough;
+
+    public ReplicationLog(Duration tombstoneRetention, MeterRegistry meterRegistry) {
+        this.tombstoneRetention = tombstoneRetention;
+        Gauge.builder("replication_log_sequence", this, log -> log.committed)
+                .description("Sequence number of the last entry in the replication log")
+                .register(meterRegistry);
+        Gauge.builder("replication_log_entries", entries, Map::size)
+                .description("Number of entries retained in the compacted replication log")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Хранилище изменений, которое добавляет пачку в журнал как изменения сущности {@code entity}.
+     */
+    public <T> MutationStore<T> store(String entity) {
+        return batch -> append(entity, batch);
+    }
+
+    public synchronized void append(String entity, List<? extends Mutation<?>> batch) {
+        for (Mutation<?> mutation : batch) {
+            EntryKey key = new EntryKey(entity, mutation.tenant(), mutation.id());
+            Long previous = latest.get(key);
+            if (previous != null && !mutation.supersedes(entries.get(previous).mutation())) {
+                // Более новое изменение этой сущности пришло раньше или пачку повторили
+                continue;
+            }
+            ReplicationEntry entry = new ReplicationEntry(++sequence, entity, mutation);
+            latest.put(key, entry.sequence());
+            if (previous != null) {
+                entries.remove(previous);
+            }
+            entries.put(entry.sequence(), entry);
+            if (mutation.type() == MutationType.DELETE) {
+                tombstones.add(entry);
+            }
+        }
+        purgeTombstones(Instant.now().minus(tombstoneRetention));
+        // Читатели видят только записи не дальше committed, поэтому в ответ не попадет журнал с пропуском
+        committed = sequence;
+        notifyAll();
+    }
+
+    /**
+     * Возвращает до {@code limit} записей после {@code after}, ожидая появления новых записей не дольше
+     * {@code wait}. {@code knownEpoch} и {@code knownPurged} — значения {@code epoch} и {@code purgedThrough}
+     * из предыдущего ответа follower ({@code null} и 0, если он еще ничего не применил).
+     */
+    public ReplicationBatch read(String knownEpoch, long after, long knownPurged, int limit, Duration wait)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        synchronized (this) {
+            long remaining;
+            while (committed <= after && (remaining = deadline - System.nanoTime()) > 0) {
+                long millis = Math.max(1, remaining / 1_000_000);
+                wait(millis);
+            }
+        }
+        long leaderSequence = committed;
+        long purged = purgedThrough;
+        boolean reset = after > 0 && !epoch.equals(knownEpoch) || purged > after && purged > knownPurged;
+        List<ReplicationEntry> page = entries.subMap(reset ? 0 : after, false, leaderSequence, true)
+                .values().stream()
+                .limit(limit)
+                .toList();
+        return new ReplicationBatch(epoch, leaderSequence, purged, reset, page);
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getSequence() {
+        return committed;
+    }
+
+    private void purgeTombstones(Instant cutoff) {
+        while (!tombstones.isEmpty() && tombstones.peekFirst().mutation().timestamp().isBefore(cutoff)) {
+            ReplicationEntry tombstone = tombstones.pollFirst();
+            Mutation<?> mutation = tombstone.mutation();
+            EntryKey key = new EntryKey(tombstone.entity(), mutation.tenant(), mutation.id());
+            if (latest.remove(key, tombstone.sequence())) {
+                entries.remove(tombstone.sequence());
+            }
+            purgedThrough = tombstone.sequence();
+        }
+    }
+
+    private record EntryKey(String entity, String tenant, Long id) {
+    }
+}
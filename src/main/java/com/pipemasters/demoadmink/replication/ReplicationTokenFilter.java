@@ -0,0 +1,40 @@
+package com.pipemasters.demoadmink.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Доступ к журналу репликации лидера только по общему с follower секрету в заголовке {@link #HEADER}.
+ * Журнал содержит данные всех арендаторов, поэтому он закрыт для клиентов REST API, включая
+ * запросы без заголовка арендатора.
+ */
+public class ReplicationTokenFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Replication-Token";
+
+    private final byte[] token;
+
+    public ReplicationTokenFilter(String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        // Сравнение за постоянное время, чтобы секрет нельзя было подобрать по времени ответа
+        if (presented == null || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Replication token required");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
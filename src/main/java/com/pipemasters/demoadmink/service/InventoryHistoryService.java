@@ -0,0 +1,175 @@
+package com.pipemasters.demoadmink.service;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import com.pipemasters.demoadmink.timeseries.Aggregation;
+import com.pipemasters.demoadmink.timeseries.TimeSeriesPoint;
+import com.pipemasters.demoadmink.timeseries.TimeSeriesStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * История остатков продуктов: получает пачки изменений продуктов (через {@link MutationStore},
+ * см. {@code MutationStoreConfiguration}) и пишет во временные ряды количество каждого продукта,
+ * а также общее количество и стоимость склада.
+ * Итоги ведутся инкрементально, поэтому запись изменения не обходит все продукты.
+ * Ряды и итоги ведутся отдельно для каждого арендатора; ряды арендатора по умолчанию
+ * хранятся без префикса, остальных — с префиксом {@code tenant:<id>:}. Ряд удаленного продукта
+ * удаляется вместе с ним; срок хранения и бюджет памяти задают {@code app.time-series.retention}
+ * и {@code app.time-series.max-size}.
+ * <p>
+ * Изменения разных арендаторов записываются параллельно: блокировка берется на итоги арендатора.
+ * <p>
+ * Изменение не новее последнего учтенного для продукта пропускается: изменения одного продукта
+ * могут прийти не в порядке версий, а пачку после ошибки хранилище получает повторно. Версии
+ * удаленных продуктов помнятся для последних {@value #DELETED_VERSIONS} удалений арендатора.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.time-series.enabled", havingValue = "true")
+public class InventoryHistoryService {
+
+    public static final String TOTAL_QUANTITY_SERIES = "inventory:total_quantity";
+    public static final String TOTAL_VALUE_SERIES = "inventory:total_value";
+
+    static final int DELETED_VERSIONS = 10_000;
+
+    private final TimeSeriesStore store;
+    private final Map<String, Inventory> inventories = new ConcurrentHashMap<>();
+
+    public InventoryHistoryService(MeterRegistry meterRegistry, AppProperties properties) {
+        AppProperties.TimeSeries timeSeries = properties.getTimeSeries();
+        this.store = new TimeSeriesStore("inventory", timeSeries.getDirectory(), timeSeries.getPointsPerChunk(),
+                (int) timeSeries.getSegmentSize().toBytes(), timeSeries.getRetention(),
+                timeSeries.getMaxSize().toBytes(), meterRegistry);
+    }
+
+    public void record(List<Mutation<Product>> batch) {
+        for (Mutation<Product> mutation : batch) {
+            Inventory inventory = inventories.computeIfAbsent(mutation.tenant(), t -> new Inventory());
+            synchronized (inventory) {
+                record(inventory, mutation);
+            }
+        }
+    }
+
+    private void record(Inventory inventory, Mutation<Product> mutation) {
+        if (!inventory.accept(mutation)) {
+            return;
+        }
+        String tenant = mutation.tenant();
+        long timestamp = mutation.timestamp().toEpochMilli();
+        StockLevel level = mutation.payload() != null ? StockLevel.of(mutation.payload()) : StockLevel.EMPTY;
+        StockLevel previous = level == StockLevel.EMPTY
+                ? inventory.levels.remove(mutation.id())
+                : inventory.levels.put(mutation.id(), level);
+        if (previous == null) {
+            previous = StockLevel.EMPTY;
+        }
+        inventory.totalQuantity += level.quantity() - previous.quantity();
+        inventory.totalValue += level.value() - previous.value();
+        String productSeries = tenantSeries(tenant, productQuantitySeries(mutation.id()));
+        if (mutation.payload() != null) {
+            store.append(productSeries, timestamp, level.quantity());
+        } else {
+            store.remove(productSeries);
+        }
+        store.append(tenantSeries(tenant, TOTAL_QUANTITY_SERIES), timestamp, inventory.totalQuantity);
+        store.append(tenantSeries(tenant, TOTAL_VALUE_SERIES), timestamp, inventory.totalValue);
+    }
+
+    public List<TimeSeriesPoint> getProductQuantity(Long id, Instant from, Instant to, Duration step,
+                                                    Aggregation aggregation) {
+        log.info("История количества продукта {} с {} по {} с шагом {}", id, from, to, step);
+        return store.query(currentTenantSeries(productQuantitySeries(id)), from.toEpochMilli(), to.toEpochMilli(), step, aggregation);
+    }
+
+    public List<TimeSeriesPoint> getTotalQuantity(Instant from, Instant to, Duration step, Aggregation aggregation) {
+        log.info("История общего количества с {} по {} с шагом {}", from, to, step);
+        return store.query(currentTenantSeries(TOTAL_QUANTITY_SERIES), from.toEpochMilli(), to.toEpochMilli(), step, aggregation);
+    }
+
+    public List<TimeSeriesPoint> getTotalValue(Instant from, Instant to, Duration step, Aggregation aggregation) {
+        log.info("История общей стоимости с {} по {} с шагом {}", from, to, step);
+        return store.query(currentTenantSeries(TOTAL_VALUE_SERIES), from.toEpochMilli(), to.toEpochMilli(), step, aggregation);
+    }
+
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    public static String productQuantitySeries(Long id) {
+        return "product:" + id + ":quantity";
+    }
+
+    public static String tenantSeries(String tenant, String series) {
+        return TenantContext.DEFAULT_TENANT.equals(tenant) ? series : "tenant:" + tenant + ":" + series;
+    }
+
+    private static String currentTenantSeries(String series) {
+        return tenantSeries(TenantContext.current(), series);
+    }
+
+    private static final class Inventory {
+
+        private final Map<Long, StockLevel> levels = new HashMap<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+        private final Map<Long, Long> deletedVersions = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > DELETED_VERSIONS;
+            }
+        };
+        private long totalQuantity;
+        private double totalValue;
+
+        /**
+         * Запоминает версию изменения, если оно новее известного для продукта.
+         */
+        private boolean accept(Mutation<Product> mutation) {
+            Long id = mutation.id();
+            Long known = versions.get(id);
+            if (known == null) {
+                known = deletedVersions.get(id);
+            }
+            if (known != null && mutation.version() <= known) {
+                return false;
+            }
+            if (mutation.payload() == null) {
+                versions.remove(id);
+                deletedVersions.put(id, mutation.version());
+            } else {
+                versions.put(id, mutation.version());
+                deletedVersions.remove(id);
+            }
+            return true;
+        }
+    }
+
+    private record StockLevel(int quantity, double value) {
+
+        private static final StockLevel EMPTY = new StockLevel(0, 0.0);
+
+        private static StockLevel of(Product product) {
+            int quantity = product.quantity() != null ? product.quantity() : 0;
+            BigDecimal price = product.price() != null ? product.price() : BigDecimal.ZERO;
+            return new StockLevel(quantity, price.multiply(BigDecimal.valueOf(quantity)).doubleValue());
+        }
+    }
+}
@@ -1,62 +1,141 @@
 package com.pipemasters.demoadmink.service;
 
+import com.pipemasters.demoadmink.config.AppProperties;
 import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.monitoring.EntityOperationEvent;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.mutation.MutationType;
+import com.pipemasters.demoadmink.support.ExpiryReaper;
+import com.pipemasters.demoadmink.support.GaugeSampler;
+import com.pipemasters.demoadmink.support.IdempotencyKeyReusedException;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
+import com.pipemasters.demoadmink.support.SingleFlight;
+import com.pipemasters.demoadmink.support.WriteBehindOverloadedException;
+import com.pipemasters.demoadmink.support.WriteBehindPipeline;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import com.pipemasters.demoadmink.tenant.TenantQuotaExceededException;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
+/**
+ * Продукты, разделенные по арендаторам: у каждого арендатора ({@link TenantContext#current()})
+ * свой раздел с отдельной нумерацией, снимком списка, квотой и метриками с тегом {@code tenant}.
+ * Под блокировкой ключа в карте продуктов изменение получает версию и ставится в ограниченную очередь
+ * отложенной записи; если очередь заполнена, {@link WriteBehindOverloadedException} выходит из
+ * {@code compute}, и карта остается прежней. Само хранилище (и журнал репликации) внутри {@code compute}
+ * не выполняется: без отложенной записи изменение передается в него после снятия блокировки. Если так
+ * передать создание не удалось, сущность убирается из карты; неудавшееся обновление или удаление
+ * остается примененным в памяти, а ошибка уходит вызывающему.
+ * <p>
+ * Удаленный продукт хранится в tombstone {@code tombstone-retention} и может быть восстановлен;
+ * tombstone и продукты с истекшим {@code expiresAt} удаляет {@link ExpiryReaper}.
+ */
 @Slf4j
 @Service
 public class ProductService {
 
-    private final Map<Long, ProductDto> products = new ConcurrentHashMap<>();
-    private final AtomicLong idGenerator = new AtomicLong(1);
-    private final Counter productCreatedCounter;
-    private final Counter productDeletedCounter;
-    private final Counter productUpdatedCounter;
-    private final Counter productViewsCounter;
-    private final Timer productOperationTimer;
+    private static final String ENTITY = "products";
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong mutationVersions = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final GaugeSampler gaugeSampler;
+    private final AppProperties.Tenancy tenancy;
+    private final SingleFlight<TenantKey, Optional<Product>> productByIdReads;
+    private final SingleFlight<String, List<Product>> allProductsReads;
+    private final MutationStore<Product> mutationStore;
+    private final WriteBehindPipeline<Mutation<Product>> writeBehind;
+    private final ExpiryReaper<ExpiryTimer> reaper;
+    private final long tombstoneRetentionMillis;
+    private final boolean expiryEnabled;
+    private final Clock clock;
+    private final IdempotencyStore<Product> idempotentCreates;
 
     public ProductService(MeterRegistry meterRegistry) {
-        this.productCreatedCounter = Counter.builder("products_created_total")
-                .description("Total number of products created")
-                .register(meterRegistry);
-        this.productDeletedCounter = Counter.builder("products_deleted_total")
-                .description("Total number of products deleted")
-                .register(meterRegistry);
-        this.productUpdatedCounter = Counter.builder("products_updated_total")
-                .description("Total number of products updated")
-                .register(meterRegistry);
-        this.productViewsCounter = Counter.builder("products_views_total")
-                .description("Total number of product views")
-                .register(meterRegistry);
-        this.productOperationTimer = Timer.builder("products_operation_duration")
-                .description("Duration of product operations")
-                .register(meterRegistry);
-
-        Gauge.builder("products_total", products, Map::size)
-                .description("Current total number of products")
-                .register(meterRegistry);
-
-        Gauge.builder("products_total_quantity", this, ProductService::getTotalQuantity)
-                .description("Total quantity of all products in stock")
-                .register(meterRegistry);
-
-        Gauge.builder("products_total_value", this, ProductService::getTotalValue)
-                .description("Total value of all products in stock")
-                .register(meterRegistry);
+        this(meterRegistry, new AppProperties());
+    }
+
+    public ProductService(MeterRegistry meterRegistry, AppProperties properties) {
+        this(meterRegistry, properties, MutationStore.inMemory(), GaugeSampler.direct());
+    }
+
+    @Autowired
+    public ProductService(MeterRegistry meterRegistry, AppProperties properties, MutationStore<Product> mutationStore,
+                       GaugeSampler gaugeSampler) {
+        this(meterRegistry, properties, mutationStore, gaugeSampler, Clock.systemUTC(), true);
+    }
+
+    /**
+     * Без фонового потока reaper ({@code backgroundReaper = false}) истекших продукты удаляет
+     * только {@link #reapExpired()}; вместе с {@code clock} это позволяет управлять сроками в тестах.
+     */
+    ProductService(MeterRegistry meterRegistry, AppProperties properties, MutationStore<Product> mutationStore,
+                   GaugeSampler gaugeSampler, Clock clock, boolean backgroundReaper) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.gaugeSampler = gaugeSampler;
+        this.tenancy = properties.getTenancy();
+        this.mutationStore = mutationStore;
+
+        AppProperties.Coalescing coalescing = properties.getCoalescing();
+        this.productByIdReads = new SingleFlight<>("products", "get_by_id",
+                coalescing.isEnabled(), coalescing.getWindow(), meterRegistry);
+        this.allProductsReads = new SingleFlight<>("products", "get_all",
+                coalescing.isEnabled(), coalescing.getWindow(), meterRegistry);
+
+        AppProperties.Idempotency idempotency = properties.getIdempotency();
+        this.idempotentCreates = new IdempotencyStore<>("products", "create",
+                idempotency.getMaxKeys(), idempotency.getTtl(), meterRegistry);
+
+        AppProperties.WriteBehind writeBehindProperties = properties.getWriteBehind();
+        this.writeBehind = writeBehindProperties.isEnabled()
+                ? new WriteBehindPipeline<>("products", writeBehindProperties.getQueueCapacity(),
+                        writeBehindProperties.getBatchSize(), writeBehindProperties.getLinger(),
+                        writeBehindProperties.getRetryBackoff(), writeBehindProperties.getMaxRetryBackoff(),
+                        this::commitMutations, meterRegistry)
+                : null;
+
+        AppProperties.Expiry expiry = properties.getExpiry();
+        this.tombstoneRetentionMillis = expiry.getTombstoneRetention().toMillis();
+        this.expiryEnabled = expiry.isEnabled();
+        // На follower продукты удаляются только по журналу лидера
+        this.reaper = expiry.isEnabled() && !properties.getReplication().isFollower()
+                ? new ExpiryReaper<>("products", expiry.getTick(), expiry.getBatchSize(), this::reap, clock,
+                        backgroundReaper, meterRegistry)
+                : null;
+
+        // Follower получает тестовые данные вместе с остальным журналом лидера
+        if (properties.getSeedData().isEnabled() && !properties.getReplication().isFollower()) {
+            TenantContext.runAs(TenantContext.DEFAULT_TENANT, this::seedData);
+        }
+    }
 
+    private void seedData() {
         // Инициализация тестовых данных
         createProduct(ProductDto.builder()
                 .name("Laptop")
@@ -72,69 +151,543 @@ public class ProductService {
                 .build());
     }
 
-    public List<ProductDto> getAllProducts() {
-        return productOperationTimer.record(() -> {
-            log.info("Получение всех продуктов");
-            productViewsCounter.increment(products.size());
-            return new ArrayList<>(products.values());
-        });
+    /**
+     * Неизменяемый снимок всех продуктов арендатора. Снимок переиспользуется всеми читателями,
+     * пока продукты не изменятся, поэтому повторные запросы не копируют хранилище.
+     */
+    public List<Product> getAllProducts() {
+        Partition partition = partition();
+        return EntityOperationEvent.record(ENTITY, "get_all", partition.tenant, 0, () -> {
+            Snapshot snapshot = partition.allProducts;
+            List<Product> result = snapshot != null && snapshot.epoch() == partition.mutationEpoch.get()
+                    && clock.millis() < snapshot.validUntil()
+                    ? snapshot.products()
+                    : allProductsReads.execute(partition.tenant,
+                            () -> partition.operationTimer.record(partition::takeSnapshot));
+            partition.viewsCounter.increment(result.size());
+            return result;
+        }, List::size);
     }
 
-    public Optional<ProductDto> getProductById(Long id) {
-        return productOperationTimer.record(() -> {
-            log.info("Получение продукта с id: {}", id);
-            Optional<ProductDto> product = Optional.ofNullable(products.get(id));
+    public Optional<Product> getProductById(Long id) {
+        Partition partition = partition();
+        return EntityOperationEvent.record(ENTITY, "get_by_id", partition.tenant, id, () -> {
+            Optional<Product> product = productByIdReads.execute(new TenantKey(partition.tenant, id),
+                    () -> partition.operationTimer.record(() -> {
+                        log.info("Получение продукта с id: {}", id);
+                        return Optional.ofNullable(partition.products.get(id)).filter(this::isLive);
+                    }));
             if (product.isPresent()) {
-                productViewsCounter.increment();
+                partition.viewsCounter.increment();
             }
             return product;
-        });
+        }, EntityOperationEvent::sizeOf);
+    }
+
+    /**
+     * @throws TenantQuotaExceededException если у арендатора уже {@code max-products} продуктов
+     */
+    public Product createProduct(ProductDto productDto) {
+        Partition partition = partition();
+        return EntityOperationEvent.record(ENTITY, "create", partition.tenant, 0, () -> {
+            partition.reserve();
+            Long id = partition.idGenerator.getAndIncrement();
+            Product product = toProduct(id, productDto);
+            List<Mutation<Product>> recorded = new ArrayList<>(1);
+            try {
+                // Новый id еще никому не виден, поэтому очередь можно заполнить до вставки в карту
+                enqueueMutation(recorded, Mutation.create(partition.tenant, id, nextVersion(), product));
+            } catch (WriteBehindOverloadedException e) {
+                partition.release();
+                throw e;
+            }
+            partition.products.put(id, product);
+            try {
+                commitSynchronously(recorded);
+            } catch (RuntimeException e) {
+                if (partition.products.remove(id, product)) {
+                    partition.release();
+                }
+                throw e;
+            }
+            invalidateReads(partition, id);
+            scheduleExpiry(partition, product);
+            log.info("Создан продукт: {}", product);
+            return product;
+        }, created -> 1);
     }
 
-    public ProductDto createProduct(ProductDto productDto) {
-        Long id = idGenerator.getAndIncrement();
-        productDto.setId(id);
-        products.put(id, productDto);
-        productCreatedCounter.increment();
-        log.info("Создан продукт: {}", productDto);
-        return productDto;
+    /**
+     * Создает продукт не больше одного раза на ключ идемпотентности арендатора:
+     * повтор с тем же ключом возвращает результат первого запроса, не создавая продукт заново.
+     *
+     * @throws IdempotencyKeyReusedException если ключ уже использован с другим телом запроса
+     * @throws TenantQuotaExceededException если у арендатора уже {@code max-products} продуктов
+     */
+    public IdempotencyStore.Result<Product> createProduct(ProductDto productDto, String idempotencyKey) {
+        return idempotentCreates.execute(TenantContext.current() + ":" + idempotencyKey, productDto,
+                () -> createProduct(productDto));
     }
 
-    public Optional<ProductDto> updateProduct(Long id, ProductDto productDto) {
-        return productOperationTimer.record(() -> {
+    public Optional<Product> updateProduct(Long id, ProductDto productDto) {
+        Partition partition = partition();
+        return traced(partition, "update", id, () -> {
             log.info("Обновление продукта с id: {}", id);
-            if (products.containsKey(id)) {
-                productDto.setId(id);
-                products.put(id, productDto);
-                productUpdatedCounter.increment();
-                return Optional.of(productDto);
+            Product product = toProduct(id, productDto);
+            long now = clock.millis();
+            List<Mutation<Product>> recorded = new ArrayList<>(1);
+            partition.products.computeIfPresent(id, (key, previous) -> {
+                if (!isLive(previous, now)) {
+                    // Истекшая запись для клиентов уже не существует, ее удалит reaper
+                    return previous;
+                }
+                enqueueMutation(recorded, Mutation.update(partition.tenant, id, nextVersion(), product));
+                return product;
+            });
+            if (recorded.isEmpty()) {
+                return Optional.empty();
             }
-            return Optional.empty();
-        });
+            commitSynchronously(recorded);
+            invalidateReads(partition, id);
+            scheduleExpiry(partition, product);
+            return Optional.of(product);
+        }, EntityOperationEvent::sizeOf);
     }
 
+    /**
+     * Удаляет продукт; если включен reaper, продукт остается в tombstone и его можно восстановить
+     * через {@link #restoreProduct(Long)} в течение {@code tombstone-retention}.
+     */
     public boolean deleteProduct(Long id) {
-        return productOperationTimer.record(() -> {
+        Partition partition = partition();
+        return traced(partition, "delete", id, () -> {
             log.info("Удаление продукта с id: {}", id);
-            ProductDto removed = products.remove(id);
-            if (removed != null) {
-                productDeletedCounter.increment();
+            if (removeProduct(partition, id, reaper != null, true) != null) {
+                invalidateReads(partition, id);
                 return true;
             }
             return false;
+        }, deleted -> deleted ? 1 : 0);
+    }
+
+    /**
+     * Восстанавливает удаленный продукт, пока его tombstone не удален.
+     *
+     * @throws TenantQuotaExceededException если у арендатора уже {@code max-products} продуктов
+     */
+    public Optional<Product> restoreProduct(Long id) {
+        Partition partition = partition();
+        return traced(partition, "restore", id, () -> {
+            log.info("Восстановление продукта с id: {}", id);
+            Tombstone tombstone = partition.tombstones.remove(id);
+            if (tombstone == null) {
+                return Optional.empty();
+            }
+            try {
+                partition.reserve();
+            } catch (TenantQuotaExceededException e) {
+                partition.tombstones.putIfAbsent(id, tombstone);
+                throw e;
+            }
+            Product product = tombstone.product();
+            List<Mutation<Product>> recorded = new ArrayList<>(1);
+            try {
+                partition.products.compute(id, (key, previous) -> {
+                    enqueueMutation(recorded, Mutation.create(partition.tenant, id, nextVersion(), product));
+                    return product;
+                });
+            } catch (WriteBehindOverloadedException e) {
+                partition.release();
+                partition.tombstones.putIfAbsent(id, tombstone);
+                throw e;
+            }
+            try {
+                commitSynchronously(recorded);
+            } catch (RuntimeException e) {
+                if (partition.products.remove(id, product)) {
+                    partition.release();
+                }
+                partition.tombstones.putIfAbsent(id, tombstone);
+                throw e;
+            }
+            invalidateReads(partition, id);
+            scheduleExpiry(partition, product);
+            return Optional.of(product);
+        }, EntityOperationEvent::sizeOf);
+    }
+
+    /**
+     * Применяет изменение, полученное от лидера репликации. Идентификатор берется из изменения,
+     * квота арендатора не проверяется: ее уже проверил лидер.
+     */
+    public void applyReplicated(Mutation<Product> mutation) {
+        Partition partition = partitions.computeIfAbsent(mutation.tenant(), Partition::new);
+        Long id = mutation.id();
+        if (mutation.type() == MutationType.DELETE) {
+            removeProduct(partition, id, false, false);
+        } else {
+            Product product = mutation.payload();
+            List<Mutation<Product>> recorded = new ArrayList<>(1);
+            partition.products.compute(id, (key, previous) -> {
+                // Версии свои: после смены лидера его нумерация начинается заново
+                enqueueMutation(recorded, new Mutation<>(mutation.type(), partition.tenant, id, nextVersion(),
+                        product, mutation.timestamp()));
+                if (previous == null) {
+                    partition.stored.incrementAndGet();
+                }
+                return product;
+            });
+            commitSynchronously(recorded);
+            partition.idGenerator.accumulateAndGet(id + 1, Math::max);
+        }
+        invalidateReads(partition, id);
+    }
+
+    /**
+     * Удаляет продукты всех арендаторов перед повторным чтением журнала лидера с начала.
+     */
+    public void clearReplicated() {
+        for (Partition partition : partitions.values()) {
+            for (Long id : partition.products.keySet()) {
+                removeProduct(partition, id, false, false);
+                invalidateReads(partition, id);
+            }
+        }
+    }
+
+    /**
+     * Версия данных арендатора: увеличивается при каждом изменении его продуктов.
+     */
+    public long getMutationEpoch() {
+        return partition().mutationEpoch.get();
+    }
+
+    /**
+     * Параллельный обход продуктов арендатора (кроме истекших) средствами {@link ConcurrentHashMap#forEachValue(long, Consumer)}.
+     * Подзадачи попадают в пул вызывающего потока, если это поток {@code ForkJoinPool}, иначе в общий пул.
+     */
+    public void forEachProductParallel(long parallelismThreshold, Consumer<? super Product> action) {
+        long now = clock.millis();
+        partition().products.forEachValue(parallelismThreshold, product -> isLive(product, now) ? product : null, action);
+    }
+
+    /**
+     * Дописывает ожидающие изменения перед остановкой приложения.
+     */
+    @PreDestroy
+    public void close() {
+        if (reaper != null) {
+            reaper.close();
+        }
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    /**
+     * Ждет записи изменений, поставленных в очередь до вызова; без отложенной записи сразу возвращает true.
+     */
+    public boolean flushMutations(Duration timeout) {
+        return writeBehind == null || writeBehind.flush(timeout);
+    }
+
+    private <T> T traced(Partition partition, String operation, Long id, Supplier<T> body,
+                         ToIntFunction<? super T> resultSize) {
+        return EntityOperationEvent.record(ENTITY, operation, partition.tenant, id,
+                () -> partition.operationTimer.record(body), resultSize);
+    }
+
+    private Partition partition() {
+        return partitions.computeIfAbsent(TenantContext.current(), Partition::new);
+    }
+
+    /**
+     * Один тик reaper, созданного без фонового потока; иначе {@link IllegalStateException}.
+     */
+    void reapExpired() {
+        if (reaper != null) {
+            reaper.tick();
+        }
+    }
+
+    /**
+     * Версия изменения. Вызывается под блокировкой ключа в карте (или до вставки новой сущности),
+     * поэтому версии изменений одной сущности возрастают в порядке их применения к карте.
+     */
+    private long nextVersion() {
+        return mutationVersions.incrementAndGet();
+    }
+
+    /**
+     * Ставит изменение в очередь отложенной записи и добавляет его в {@code recorded}. Вызывается
+     * внутри {@code compute} до изменения карты, чтобы отклоненное изменение не применялось.
+     *
+     * @throws WriteBehindOverloadedException если очередь отложенной записи заполнена
+     */
+    private void enqueueMutation(List<Mutation<Product>> recorded, Mutation<Product> mutation) {
+        if (writeBehind != null) {
+            writeBehind.submit(mutation);
+        }
+        recorded.add(mutation);
+    }
+
+    /**
+     * Без отложенной записи передает изменения в хранилище; вызывается после снятия блокировки ключа.
+     */
+    private void commitSynchronously(List<Mutation<Product>> recorded) {
+        if (writeBehind == null) {
+            commitMutations(recorded);
+        }
+    }
+
+    private void commitMutations(List<Mutation<Product>> batch) {
+        mutationStore.commit(batch);
+        int created = 0;
+        int updated = 0;
+        int deleted = 0;
+        for (Mutation<Product> mutation : batch) {
+            Partition partition = partitions.get(mutation.tenant());
+            switch (mutation.type()) {
+                case CREATE -> {
+                    created++;
+                    partition.createdCounter.increment();
+                }
+                case UPDATE -> {
+                    updated++;
+                    partition.updatedCounter.increment();
+                }
+                case DELETE -> {
+                    deleted++;
+                    partition.deletedCounter.increment();
+                }
+            }
+        }
+        if (writeBehind != null) {
+            log.info("Записана пачка изменений продуктов: создано {}, обновлено {}, удалено {}", created, updated, deleted);
+        }
+    }
+
+    /**
+     * @param liveOnly не удалять истекшую запись: для клиентов ее уже нет, а удалит ее reaper
+     */
+    private Product removeProduct(Partition partition, Long id, boolean keepTombstone, boolean liveOnly) {
+        Product[] removed = new Product[1];
+        List<Mutation<Product>> recorded = new ArrayList<>(1);
+        long now = clock.millis();
+        long purgeAt = now + tombstoneRetentionMillis;
+        partition.products.computeIfPresent(id, (key, previous) -> {
+            if (liveOnly && !isLive(previous, now)) {
+                return previous;
+            }
+            enqueueMutation(recorded, Mutation.delete(partition.tenant, id, nextVersion()));
+            removed[0] = previous;
+            partition.stored.decrementAndGet();
+            if (keepTombstone) {
+                partition.tombstones.put(id, new Tombstone(previous, purgeAt));
+            }
+            return null;
         });
+        if (removed[0] == null) {
+            return null;
+        }
+        if (keepTombstone) {
+            reaper.schedule(new ExpiryTimer(partition.tenant, id, purgeAt, true), purgeAt);
+        }
+        commitSynchronously(recorded);
+        return removed[0];
+    }
+
+    private void scheduleExpiry(Partition partition, Product product) {
+        if (reaper != null && product.expiresAt() != null) {
+            long deadline = product.expiresAt().toEpochMilli();
+            reaper.schedule(new ExpiryTimer(partition.tenant, product.id(), deadline, false), deadline);
+        }
+    }
+
+    /**
+     * Вызывается потоком reaper. Таймер мог устареть: продукт обновлен с другим сроком, восстановлен
+     * или удален повторно, поэтому удаление выполняется, только если срок совпадает с таймером.
+     */
+    private boolean reap(ExpiryTimer timer) {
+        Partition partition = partitions.get(timer.tenant());
+        if (partition == null) {
+            return false;
+        }
+        Long id = timer.id();
+        if (timer.tombstone()) {
+            Tombstone tombstone = partition.tombstones.get(id);
+            return tombstone != null && tombstone.purgeAt() == timer.deadline() && partition.tombstones.remove(id, tombstone);
+        }
+        List<Mutation<Product>> recorded = new ArrayList<>(1);
+        try {
+            partition.products.computeIfPresent(id, (key, product) -> {
+                if (product.expiresAt() == null || product.expiresAt().toEpochMilli() != timer.deadline()) {
+                    return product;
+                }
+                enqueueMutation(recorded, Mutation.delete(partition.tenant, id, nextVersion()));
+                partition.stored.decrementAndGet();
+                return null;
+            });
+        } catch (WriteBehindOverloadedException e) {
+            // Очередь записи заполнена: удаление откладывается до следующего тика
+            reaper.schedule(timer, timer.deadline());
+            return false;
+        }
+        if (recorded.isEmpty()) {
+            return false;
+        }
+        commitSynchronously(recorded);
+        invalidateReads(partition, id);
+        return true;
+    }
+
+    private boolean isLive(Product product) {
+        return isLive(product, clock.millis());
+    }
+
+    private static boolean isLive(Product product, long now) {
+        return product.expiresAt() == null || product.expiresAt().toEpochMilli() > now;
+    }
+
+    /**
+     * Без фонового удаления истекшие записи занимали бы память и квоту навсегда, поэтому срок не сохраняется.
+     */
+    private Instant expiresAt(Instant requested) {
+        return expiryEnabled ? requested : null;
+    }
+
+    private Product toProduct(Long id, ProductDto productDto) {
+        return new Product(id, productDto.getName(), productDto.getDescription(), productDto.getPrice(),
+                productDto.getQuantity(), expiresAt(productDto.getExpiresAt()));
+    }
+
+    private void invalidateReads(Partition partition, Long id) {
+        partition.mutationEpoch.incrementAndGet();
+        productByIdReads.invalidate(new TenantKey(partition.tenant, id));
+        allProductsReads.invalidate(partition.tenant);
+    }
+
+    private final class Partition {
+
+        private final String tenant;
+        private final ConcurrentHashMap<Long, Product> products = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Tombstone> tombstones = new ConcurrentHashMap<>();
+        private final AtomicLong mutationEpoch = new AtomicLong();
+        private final AtomicLong idGenerator = new AtomicLong(1);
+        private final AtomicInteger stored = new AtomicInteger();
+        private final int maxProducts;
+        private final Counter createdCounter;
+        private final Counter deletedCounter;
+        private final Counter updatedCounter;
+        private final Counter viewsCounter;
+        private final Timer operationTimer;
+        private volatile Snapshot allProducts;
+
+        private Partition(String tenant) {
+            this.tenant = tenant;
+            this.maxProducts = tenancy.quotaFor(tenant).getMaxProducts();
+            this.createdCounter = Counter.builder("products_created_total")
+                    .description("Total number of products created")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.deletedCounter = Counter.builder("products_deleted_total")
+                    .description("Total number of products deleted")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.updatedCounter = Counter.builder("products_updated_total")
+                    .description("Total number of products updated")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.viewsCounter = Counter.builder("products_views_total")
+                    .description("Total number of product views")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.operationTimer = Timer.builder("products_operation_duration")
+                    .description("Duration of product operations")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+
+            Gauge.builder("products_total", gaugeSampler.sampled(() -> liveProducts().count()))
+                    .description("Current total number of products")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+
+            Gauge.builder("products_tombstones", tombstones, Map::size)
+                    .description("Number of deleted products that can still be restored")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+
+            Gauge.builder("products_total_quantity", gaugeSampler.sampled(this::getTotalQuantity))
+                    .description("Total quantity of all products in stock")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+
+            Gauge.builder("products_total_value", gaugeSampler.sampled(this::getTotalValue))
+                    .description("Total value of all products in stock")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+        }
+
+        private void reserve() {
+            if (stored.incrementAndGet() > maxProducts && maxProducts > 0) {
+                stored.decrementAndGet();
+                throw new TenantQuotaExceededException(tenant, "products", maxProducts);
+            }
+        }
+
+        private void release() {
+            stored.decrementAndGet();
+        }
+
+        private List<Product> takeSnapshot() {
+            log.info("Получение всех продуктов");
+            // Версия читается до копирования: если запись успеет между ними, снимок сразу устареет
+            long epoch = mutationEpoch.get();
+            long now = clock.millis();
+            // Истечение срока не меняет mutationEpoch, поэтому снимок годен только до ближайшего expiresAt
+            long validUntil = Long.MAX_VALUE;
+            List<Product> live = new ArrayList<>(products.size());
+            for (Product product : products.values()) {
+                if (isLive(product, now)) {
+                    live.add(product);
+                    if (product.expiresAt() != null) {
+                        validUntil = Math.min(validUntil, product.expiresAt().toEpochMilli());
+                    }
+                }
+            }
+            List<Product> snapshot = Collections.unmodifiableList(live);
+            allProducts = new Snapshot(epoch, snapshot, validUntil);
+            return snapshot;
+        }
+
+        private Stream<Product> liveProducts() {
+            long now = clock.millis();
+            return products.values().stream().filter(product -> isLive(product, now));
+        }
+
+        private double getTotalQuantity() {
+            return liveProducts()
+                    .mapToInt(Product::quantity)
+                    .sum();
+        }
+
+        private double getTotalValue() {
+            return liveProducts()
+                    .map(p -> p.price().multiply(BigDecimal.valueOf(p.quantity())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .doubleValue();
+        }
+    }
+
+    private record TenantKey(String tenant, Long id) {
+    }
+
+    private record Snapshot(long epoch, List<Product> products, long validUntil) {
     }
 
-    private double getTotalQuantity() {
-        return products.values().stream()
-                .mapToInt(ProductDto::getQuantity)
-                .sum();
+    private record Tombstone(Product product, long purgeAt) {
     }
 
-    private double getTotalValue() {
-        return products.values().stream()
-                .map(p -> p.getPrice().multiply(BigDecimal.valueOf(p.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .doubleValue();
+    private record ExpiryTimer(String tenant, Long id, long deadline, boolean tombstone) {
     }
 }
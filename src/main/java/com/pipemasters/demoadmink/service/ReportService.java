@@ -0,0 +1,212 @@
+package com.pipemasters.demoadmink.service;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.dto.AgeBandDto;
+import com.pipemasters.demoadmink.dto.PriceBandDto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.support.EpochCache;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Отчеты по складу и пользователям. Отчет считается параллельным обходом хранилища сервиса
+ * в выделенном fork-join пуле, чтобы не занимать потоки запросов и общий пул. Результат
+ * (вместе с незавершенным вычислением) кэшируется до следующего изменения данных.
+ * Отчет строится по данным арендатора, вызвавшего метод, и кэшируется отдельно для каждого арендатора.
+ */
+@Slf4j
+@Service
+public class ReportService {
+
+    private static final String ALL_KEY = "all";
+
+    private final ProductService productService;
+    private final UserService userService;
+    private final ForkJoinPool pool;
+    private final long parallelismThreshold;
+    private final BigDecimal[] priceBands;
+    private final AppProperties.Reports properties;
+    private final EpochCache<String, CompletableFuture<List<PriceBandDto>>> priceBandReports;
+    private final EpochCache<String, CompletableFuture<List<Product>>> lowStockReports;
+    private final EpochCache<String, CompletableFuture<List<AgeBandDto>>> ageReports;
+    private final Timer priceBandTimer;
+    private final Timer lowStockTimer;
+    private final Timer ageTimer;
+
+    public ReportService(ProductService productService, UserService userService,
+                         AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.userService = userService;
+        this.properties = appProperties.getReports();
+        this.parallelismThreshold = properties.getParallelismThreshold();
+        this.priceBands = properties.getPriceBands().toArray(BigDecimal[]::new);
+        this.pool = new ForkJoinPool(properties.getParallelism(), ReportService::newWorker, null, false);
+        int cacheSize = properties.getCacheSize();
+        this.priceBandReports = new EpochCache<>("reports", "value_by_price_band", cacheSize, meterRegistry);
+        this.lowStockReports = new EpochCache<>("reports", "low_stock", cacheSize, meterRegistry);
+        this.ageReports = new EpochCache<>("reports", "age_distribution", cacheSize, meterRegistry);
+        this.priceBandTimer = reportTimer("value_by_price_band", meterRegistry);
+        this.lowStockTimer = reportTimer("low_stock", meterRegistry);
+        this.ageTimer = reportTimer("age_distribution", meterRegistry);
+    }
+
+    public CompletableFuture<List<PriceBandDto>> getValueByPriceBand() {
+        return cached(priceBandReports, ALL_KEY, productService.getMutationEpoch(), priceBandTimer,
+                this::computeValueByPriceBand);
+    }
+
+    /**
+     * Продукты с количеством не больше {@code threshold}, от меньшего остатка к большему.
+     * Пропущенные параметры берутся из настроек {@code app.reports.low-stock-*}.
+     *
+     * @throws IllegalArgumentException если порог отрицательный или лимит вне 1..lowStockLimit
+     */
+    public CompletableFuture<List<Product>> getLowStock(Integer requestedThreshold, Integer requestedLimit) {
+        int threshold = requestedThreshold != null ? requestedThreshold : properties.getLowStockThreshold();
+        int limit = requestedLimit != null ? requestedLimit : properties.getLowStockLimit();
+        if (threshold < 0 || limit < 1 || limit > properties.getLowStockLimit()) {
+            throw new IllegalArgumentException("Invalid low-stock threshold or limit");
+        }
+        return cached(lowStockReports, threshold + ":" + limit, productService.getMutationEpoch(), lowStockTimer,
+                () -> computeLowStock(threshold, limit));
+    }
+
+    public CompletableFuture<List<AgeBandDto>> getAgeDistribution() {
+        return cached(ageReports, ALL_KEY, userService.getMutationEpoch(), ageTimer, this::computeAgeDistribution);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private <V> CompletableFuture<V> cached(EpochCache<String, CompletableFuture<V>> cache, String report, long epoch,
+                                            Timer timer, Supplier<V> computation) {
+        String tenant = TenantContext.current();
+        String key = tenant + ":" + report;
+        CompletableFuture<V> future = cache.get(key, epoch, () -> CompletableFuture.supplyAsync(
+                () -> TenantContext.callAs(tenant, () -> timer.record(computation)), pool));
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                cache.evict(key, future);
+            }
+        });
+        return future;
+    }
+
+    private List<PriceBandDto> computeValueByPriceBand() {
+        log.info("Расчет стоимости склада по ценовым диапазонам");
+        int bands = priceBands.length + 1;
+        LongAdder[] counts = adders(bands);
+        LongAdder[] quantities = adders(bands);
+        LongAdder[] valuesInCents = adders(bands);
+        productService.forEachProductParallel(parallelismThreshold, product -> {
+            BigDecimal price = product.price() != null ? product.price() : BigDecimal.ZERO;
+            int quantity = product.quantity() != null ? product.quantity() : 0;
+            int band = priceBand(price);
+            counts[band].increment();
+            quantities[band].add(quantity);
+            valuesInCents[band].add(price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() * quantity);
+        });
+        List<PriceBandDto> result = new ArrayList<>(bands);
+        for (int i = 0; i < bands; i++) {
+            result.add(PriceBandDto.builder()
+                    .from(i == 0 ? BigDecimal.ZERO : priceBands[i - 1])
+                    .to(i < priceBands.length ? priceBands[i] : null)
+                    .productCount(counts[i].sum())
+                    .totalQuantity(quantities[i].sum())
+                    .totalValue(BigDecimal.valueOf(valuesInCents[i].sum(), 2))
+                    .build());
+        }
+        return result;
+    }
+
+    private List<Product> computeLowStock(int threshold, int limit) {
+        log.info("Поиск продуктов с остатком не больше {}", threshold);
+        Queue<Product> matches = new ConcurrentLinkedQueue<>();
+        productService.forEachProductParallel(parallelismThreshold, product -> {
+            if (product.quantity() != null && product.quantity() <= threshold) {
+                matches.add(product);
+            }
+        });
+        return matches.stream()
+                .sorted(Comparator.comparing(Product::quantity).thenComparing(Product::id))
+                .limit(limit)
+                .toList();
+    }
+
+    private List<AgeBandDto> computeAgeDistribution() {
+        log.info("Расчет распределения пользователей по возрасту");
+        int width = properties.getAgeBandWidth();
+        int bands = (properties.getMaxAgeBand() + width - 1) / width + 1;
+        LongAdder[] counts = adders(bands);
+        userService.forEachUserParallel(parallelismThreshold, user -> {
+            Integer age = user.age();
+            if (age != null && age >= 0) {
+                counts[Math.min(age / width, bands - 1)].increment();
+            }
+        });
+        List<AgeBandDto> result = new ArrayList<>(bands);
+        for (int i = 0; i < bands; i++) {
+            result.add(AgeBandDto.builder()
+                    .from(i * width)
+                    .to(i < bands - 1 ? (i + 1) * width : null)
+                    .userCount(counts[i].sum())
+                    .build());
+        }
+        return result;
+    }
+
+    private int priceBand(BigDecimal price) {
+        int low = 0;
+        int high = priceBands.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (price.compareTo(priceBands[mid]) < 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static Timer reportTimer(String report, MeterRegistry meterRegistry) {
+        return Timer.builder("reports_duration")
+                .description("Duration of report computations")
+                .tag("report", report)
+                .register(meterRegistry);
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("reports-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -1,122 +1,668 @@
 package com.pipemasters.demoadmink.service;
 
+import com.pipemasters.demoadmink.config.AppProperties;
 import com.pipemasters.demoadmink.dto.UserDto;
+import com.pipemasters.demoadmink.model.User;
+import com.pipemasters.demoadmink.monitoring.EntityOperationEvent;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.mutation.MutationType;
+import com.pipemasters.demoadmink.support.ExpiryReaper;
+import com.pipemasters.demoadmink.support.GaugeSampler;
+import com.pipemasters.demoadmink.support.IdempotencyKeyReusedException;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
+import com.pipemasters.demoadmink.support.SingleFlight;
+import com.pipemasters.demoadmink.support.WriteBehindOverloadedException;
+import com.pipemasters.demoadmink.support.WriteBehindPipeline;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import com.pipemasters.demoadmink.tenant.TenantQuotaExceededException;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
+/**
+ * Пользователи, разделенные по арендаторам: у каждого арендатора ({@link TenantContext#current()})
+ * свой раздел с отдельной нумерацией, снимком списка, квотой и метриками с тегом {@code tenant}.
+ * Под блокировкой ключа в карте пользователей изменение получает версию и ставится в ограниченную очередь
+ * отложенной записи; если очередь заполнена, {@link WriteBehindOverloadedException} выходит из
+ * {@code compute}, и карта остается прежней. Само хранилище (и журнал репликации) внутри {@code compute}
+ * не выполняется: без отложенной записи изменение передается в него после снятия блокировки. Если так
+ * передать создание не удалось, сущность убирается из карты; неудавшееся обновление или удаление
+ * остается примененным в памяти, а ошибка уходит вызывающему.
+ * <p>
+ * Удаление и срок жизни устроены так же, как в {@link ProductService}: tombstone на
+ * {@code tombstone-retention} и фоновое удаление истекших пользователей через {@link ExpiryReaper}.
+ */
 @Slf4j
 @Service
 public class UserService {
 
-    private final Map<Long, UserDto> users = new ConcurrentHashMap<>();
-    private final AtomicLong idGenerator = new AtomicLong(1);
-    private final Counter userCreatedCounter;
-    private final Counter userDeletedCounter;
-    private final Counter userUpdatedCounter;
-    private final Counter userViewsCounter;
-    private final Timer userOperationTimer;
+    private static final String ENTITY = "users";
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong mutationVersions = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final GaugeSampler gaugeSampler;
+    private final AppProperties.Tenancy tenancy;
+    private final SingleFlight<TenantKey, Optional<User>> userByIdReads;
+    private final SingleFlight<String, List<User>> allUsersReads;
+    private final MutationStore<User> mutationStore;
+    private final WriteBehindPipeline<Mutation<User>> writeBehind;
+    private final ExpiryReaper<ExpiryTimer> reaper;
+    private final long tombstoneRetentionMillis;
+    private final boolean expiryEnabled;
+    private final Clock clock;
+    private final IdempotencyStore<User> idempotentCreates;
 
     public UserService(MeterRegistry meterRegistry) {
-        this.userCreatedCounter = Counter.builder("users_created_total")
-                .description("Total number of users created")
-                .register(meterRegistry);
-        this.userDeletedCounter = Counter.builder("users_deleted_total")
-                .description("Total number of users deleted")
-                .register(meterRegistry);
-        this.userUpdatedCounter = Counter.builder("users_updated_total")
-                .description("Total number of users updated")
-                .register(meterRegistry);
-        this.userViewsCounter = Counter.builder("users_views_total")
-                .description("Total number of user views")
-                .register(meterRegistry);
-        this.userOperationTimer = Timer.builder("users_operation_duration")
-                .description("Duration of user operations")
-                .register(meterRegistry);
-
-        Gauge.builder("users_total", users, Map::size)
-                .description("Current total number of users")
-                .register(meterRegistry);
-
-        Gauge.builder("users_average_age", this, UserService::getAverageAge)
-                .description("Average age of all users")
-                .register(meterRegistry);
+        this(meterRegistry, new AppProperties());
+    }
+
+    public UserService(MeterRegistry meterRegistry, AppProperties properties) {
+        this(meterRegistry, properties, MutationStore.inMemory(), GaugeSampler.direct());
+    }
+
+    @Autowired
+    public UserService(MeterRegistry meterRegistry, AppProperties properties, MutationStore<User> mutationStore,
+                       GaugeSampler gaugeSampler) {
+        this(meterRegistry, properties, mutationStore, gaugeSampler, Clock.systemUTC(), true);
+    }
+
+    /**
+     * Без фонового потока reaper ({@code backgroundReaper = false}) истекших пользователей удаляет
+     * только {@link #reapExpired()}; вместе с {@code clock} это позволяет управлять сроками в тестах.
+     */
+    UserService(MeterRegistry meterRegistry, AppProperties properties, MutationStore<User> mutationStore,
+                GaugeSampler gaugeSampler, Clock clock, boolean backgroundReaper) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.gaugeSampler = gaugeSampler;
+        this.tenancy = properties.getTenancy();
+        this.mutationStore = mutationStore;
+
+        AppProperties.Coalescing coalescing = properties.getCoalescing();
+        this.userByIdReads = new SingleFlight<>("users", "get_by_id",
+                coalescing.isEnabled(), coalescing.getWindow(), meterRegistry);
+        this.allUsersReads = new SingleFlight<>("users", "get_all",
+                coalescing.isEnabled(), coalescing.getWindow(), meterRegistry);
 
+        AppProperties.Idempotency idempotency = properties.getIdempotency();
+        this.idempotentCreates = new IdempotencyStore<>("users", "create",
+                idempotency.getMaxKeys(), idempotency.getTtl(), meterRegistry);
+
+        AppProperties.WriteBehind writeBehindProperties = properties.getWriteBehind();
+        this.writeBehind = writeBehindProperties.isEnabled()
+                ? new WriteBehindPipeline<>("users", writeBehindProperties.getQueueCapacity(),
+                        writeBehindProperties.getBatchSize(), writeBehindProperties.getLinger(),
+                        writeBehindProperties.getRetryBackoff(), writeBehindProperties.getMaxRetryBackoff(),
+                        this::commitMutations, meterRegistry)
+                : null;
+
+        AppProperties.Expiry expiry = properties.getExpiry();
+        this.tombstoneRetentionMillis = expiry.getTombstoneRetention().toMillis();
+        this.expiryEnabled = expiry.isEnabled();
+        // На follower пользователи удаляются только по журналу лидера
+        this.reaper = expiry.isEnabled() && !properties.getReplication().isFollower()
+                ? new ExpiryReaper<>("users", expiry.getTick(), expiry.getBatchSize(), this::reap, clock,
+                        backgroundReaper, meterRegistry)
+                : null;
+
+        // Follower получает тестовые данные вместе с остальным журналом лидера
+        if (properties.getSeedData().isEnabled() && !properties.getReplication().isFollower()) {
+            TenantContext.runAs(TenantContext.DEFAULT_TENANT, this::seedData);
+        }
+    }
+
+    private void seedData() {
         // Инициализация тестовых данных
         createUser(UserDto.builder().name("John Doe").email("john@example.com").age(30).build());
         createUser(UserDto.builder().name("Jane Smith").email("jane@example.com").age(25).build());
     }
 
-    public List<UserDto> getAllUsers() {
-        return userOperationTimer.record(() -> {
-            log.info("Получение всех пользователей");
-            userViewsCounter.increment(users.size());
-            return new ArrayList<>(users.values());
-        });
+    /**
+     * Неизменяемый снимок всех пользователей арендатора. Снимок переиспользуется всеми читателями,
+     * пока пользователи не изменятся, поэтому повторные запросы не копируют хранилище.
+     */
+    public List<User> getAllUsers() {
+        Partition partition = partition();
+        return EntityOperationEvent.record(ENTITY, "get_all", partition.tenant, 0, () -> {
+            Snapshot snapshot = partition.allUsers;
+            List<User> result = snapshot != null && snapshot.epoch() == partition.mutationEpoch.get()
+                    && clock.millis() < snapshot.validUntil()
+                    ? snapshot.users()
+                    : allUsersReads.execute(partition.tenant,
+                            () -> partition.operationTimer.record(partition::takeSnapshot));
+            partition.viewsCounter.increment(result.size());
+            return result;
+        }, List::size);
     }
 
-    public Optional<UserDto> getUserById(Long id) {
-        return userOperationTimer.record(() -> {
-            log.info("Получение пользователя с id: {}", id);
-            Optional<UserDto> user = Optional.ofNullable(users.get(id));
+    public Optional<User> getUserById(Long id) {
+        Partition partition = partition();
+        return EntityOperationEvent.record(ENTITY, "get_by_id", partition.tenant, id, () -> {
+            Optional<User> user = userByIdReads.execute(new TenantKey(partition.tenant, id),
+                    () -> partition.operationTimer.record(() -> {
+                        log.info("Получение пользователя с id: {}", id);
+                        return Optional.ofNullable(partition.users.get(id)).filter(this::isLive);
+                    }));
             if (user.isPresent()) {
-                userViewsCounter.increment();
+                partition.viewsCounter.increment();
             }
             return user;
-        });
+        }, EntityOperationEvent::sizeOf);
+    }
+
+    /**
+     * @throws TenantQuotaExceededException если у арендатора уже {@code max-users} пользователей
+     */
+    public User createUser(UserDto userDto) {
+        Partition partition = partition();
+        return EntityOperationEvent.record(ENTITY, "create", partition.tenant, 0, () -> {
+            partition.reserve();
+            Long id = partition.idGenerator.getAndIncrement();
+            User user = toUser(id, userDto);
+            List<Mutation<User>> recorded = new ArrayList<>(1);
+            try {
+                // Новый id еще никому не виден, поэтому очередь можно заполнить до вставки в карту
+                enqueueMutation(recorded, Mutation.create(partition.tenant, id, nextVersion(), user));
+            } catch (WriteBehindOverloadedException e) {
+                partition.release();
+                throw e;
+            }
+            partition.users.put(id, user);
+            try {
+                commitSynchronously(recorded);
+            } catch (RuntimeException e) {
+                if (partition.users.remove(id, user)) {
+                    partition.release();
+                }
+                throw e;
+            }
+            invalidateReads(partition, id);
+            scheduleExpiry(partition, user);
+            log.info("Создан пользователь: {}", user);
+            return user;
+        }, created -> 1);
     }
 
-    public UserDto createUser(UserDto userDto) {
-        Long id = idGenerator.getAndIncrement();
-        userDto.setId(id);
-        users.put(id, userDto);
-        userCreatedCounter.increment();
-        log.info("Создан пользователь: {}", userDto);
-        return userDto;
+    /**
+     * Создает пользователя не больше одного раза на ключ идемпотентности арендатора:
+     * повтор с тем же ключом возвращает результат первого запроса, не создавая пользователя заново.
+     *
+     * @throws IdempotencyKeyReusedException если ключ уже использован с другим телом запроса
+     * @throws TenantQuotaExceededException если у арендатора уже {@code max-users} пользователей
+     */
+    public IdempotencyStore.Result<User> createUser(UserDto userDto, String idempotencyKey) {
+        return idempotentCreates.execute(TenantContext.current() + ":" + idempotencyKey, userDto,
+                () -> createUser(userDto));
     }
 
-    public Optional<UserDto> updateUser(Long id, UserDto userDto) {
-        return userOperationTimer.record(() -> {
+    public Optional<User> updateUser(Long id, UserDto userDto) {
+        Partition partition = partition();
+        return traced(partition, "update", id, () -> {
             log.info("Обновление пользователя с id: {}", id);
-            if (users.containsKey(id)) {
-                userDto.setId(id);
-                users.put(id, userDto);
-                userUpdatedCounter.increment();
-                return Optional.of(userDto);
+            User user = toUser(id, userDto);
+            long now = clock.millis();
+            List<Mutation<User>> recorded = new ArrayList<>(1);
+            partition.users.computeIfPresent(id, (key, previous) -> {
+                if (!isLive(previous, now)) {
+                    // Истекшая запись для клиентов уже не существует, ее удалит reaper
+                    return previous;
+                }
+                enqueueMutation(recorded, Mutation.update(partition.tenant, id, nextVersion(), user));
+                return user;
+            });
+            if (recorded.isEmpty()) {
+                return Optional.empty();
             }
-            return Optional.empty();
-        });
+            commitSynchronously(recorded);
+            invalidateReads(partition, id);
+            scheduleExpiry(partition, user);
+            return Optional.of(user);
+        }, EntityOperationEvent::sizeOf);
     }
 
+    /**
+     * Удаляет пользователя; если включен reaper, пользователь остается в tombstone и его можно восстановить
+     * через {@link #restoreUser(Long)} в течение {@code tombstone-retention}.
+     */
     public boolean deleteUser(Long id) {
-        return userOperationTimer.record(() -> {
+        Partition partition = partition();
+        return traced(partition, "delete", id, () -> {
             log.info("Удаление пользователя с id: {}", id);
-            UserDto removed = users.remove(id);
-            if (removed != null) {
-                userDeletedCounter.increment();
+            if (removeUser(partition, id, reaper != null, true) != null) {
+                invalidateReads(partition, id);
                 return true;
             }
             return false;
+        }, deleted -> deleted ? 1 : 0);
+    }
+
+    /**
+     * Восстанавливает удаленного пользователя, пока его tombstone не удален.
+     *
+     * @throws TenantQuotaExceededException если у арендатора уже {@code max-users} пользователей
+     */
+    public Optional<User> restoreUser(Long id) {
+        Partition partition = partition();
+        return traced(partition, "restore", id, () -> {
+            log.info("Восстановление пользователя с id: {}", id);
+            Tombstone tombstone = partition.tombstones.remove(id);
+            if (tombstone == null) {
+                return Optional.empty();
+            }
+            try {
+                partition.reserve();
+            } catch (TenantQuotaExceededException e) {
+                partition.tombstones.putIfAbsent(id, tombstone);
+                throw e;
+            }
+            User user = tombstone.user();
+            List<Mutation<User>> recorded = new ArrayList<>(1);
+            try {
+                partition.users.compute(id, (key, previous) -> {
+                    enqueueMutation(recorded, Mutation.create(partition.tenant, id, nextVersion(), user));
+                    return user;
+                });
+            } catch (WriteBehindOverloadedException e) {
+                partition.release();
+                partition.tombstones.putIfAbsent(id, tombstone);
+                throw e;
+            }
+            try {
+                commitSynchronously(recorded);
+            } catch (RuntimeException e) {
+                if (partition.users.remove(id, user)) {
+                    partition.release();
+                }
+                partition.tombstones.putIfAbsent(id, tombstone);
+                throw e;
+            }
+            invalidateReads(partition, id);
+            scheduleExpiry(partition, user);
+            return Optional.of(user);
+        }, EntityOperationEvent::sizeOf);
+    }
+
+    /**
+     * Применяет изменение, полученное от лидера репликации. Идентификатор берется из изменения,
+     * квота арендатора не проверяется: ее уже проверил лидер.
+     */
+    public void applyReplicated(Mutation<User> mutation) {
+        Partition partition = partitions.computeIfAbsent(mutation.tenant(), Partition::new);
+        Long id = mutation.id();
+        if (mutation.type() == MutationType.DELETE) {
+            removeUser(partition, id, false, false);
+        } else {
+            User user = mutation.payload();
+            List<Mutation<User>> recorded = new ArrayList<>(1);
+            partition.users.compute(id, (key, previous) -> {
+                // Версии свои: после смены лидера его нумерация начинается заново
+                enqueueMutation(recorded, new Mutation<>(mutation.type(), partition.tenant, id, nextVersion(),
+                        user, mutation.timestamp()));
+                if (previous == null) {
+                    partition.stored.incrementAndGet();
+                }
+                return user;
+            });
+            commitSynchronously(recorded);
+            partition.idGenerator.accumulateAndGet(id + 1, Math::max);
+        }
+        invalidateReads(partition, id);
+    }
+
+    /**
+     * Удаляет пользователей всех арендаторов перед повторным чтением журнала лидера с начала.
+     */
+    public void clearReplicated() {
+        for (Partition partition : partitions.values()) {
+            for (Long id : partition.users.keySet()) {
+                removeUser(partition, id, false, false);
+                invalidateReads(partition, id);
+            }
+        }
+    }
+
+    /**
+     * Версия данных арендатора: увеличивается при каждом изменении его пользователей.
+     */
+    public long getMutationEpoch() {
+        return partition().mutationEpoch.get();
+    }
+
+    /**
+     * Параллельный обход пользователей арендатора (кроме истекших) средствами {@link ConcurrentHashMap#forEachValue(long, Consumer)}.
+     * Подзадачи попадают в пул вызывающего потока, если это поток {@code ForkJoinPool}, иначе в общий пул.
+     */
+    public void forEachUserParallel(long parallelismThreshold, Consumer<? super User> action) {
+        long now = clock.millis();
+        partition().users.forEachValue(parallelismThreshold, user -> isLive(user, now) ? user : null, action);
+    }
+
+    /**
+     * Дописывает ожидающие изменения перед остановкой приложения.
+     */
+    @PreDestroy
+    public void close() {
+        if (reaper != null) {
+            reaper.close();
+        }
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    /**
+     * Ждет записи изменений, поставленных в очередь до вызова; без отложенной записи сразу возвращает true.
+     */
+    public boolean flushMutations(Duration timeout) {
+        return writeBehind == null || writeBehind.flush(timeout);
+    }
+
+    private <T> T traced(Partition partition, String operation, Long id, Supplier<T> body,
+                         ToIntFunction<? super T> resultSize) {
+        return EntityOperationEvent.record(ENTITY, operation, partition.tenant, id,
+                () -> partition.operationTimer.record(body), resultSize);
+    }
+
+    private Partition partition() {
+        return partitions.computeIfAbsent(TenantContext.current(), Partition::new);
+    }
+
+    /**
+     * Один тик reaper, созданного без фонового потока; иначе {@link IllegalStateException}.
+     */
+    void reapExpired() {
+        if (reaper != null) {
+            reaper.tick();
+        }
+    }
+
+    /**
+     * Версия изменения. Вызывается под блокировкой ключа в карте (или до вставки новой сущности),
+     * поэтому версии изменений одной сущности возрастают в порядке их применения к карте.
+     */
+    private long nextVersion() {
+        return mutationVersions.incrementAndGet();
+    }
+
+    /**
+     * Ставит изменение в очередь отложенной записи и добавляет его в {@code recorded}. Вызывается
+     * внутри {@code compute} до изменения карты, чтобы отклоненное изменение не применялось.
+     *
+     * @throws WriteBehindOverloadedException если очередь отложенной записи заполнена
+     */
+    private void enqueueMutation(List<Mutation<User>> recorded, Mutation<User> mutation) {
+        if (writeBehind != null) {
+            writeBehind.submit(mutation);
+        }
+        recorded.add(mutation);
+    }
+
+    /**
+     * Без отложенной записи передает изменения в хранилище; вызывается после снятия блокировки ключа.
+     */
+    private void commitSynchronously(List<Mutation<User>> recorded) {
+        if (writeBehind == null) {
+            commitMutations(recorded);
+        }
+    }
+
+    private void commitMutations(List<Mutation<User>> batch) {
+        mutationStore.commit(batch);
+        int created = 0;
+        int updated = 0;
+        int deleted = 0;
+        for (Mutation<User> mutation : batch) {
+            Partition partition = partitions.get(mutation.tenant());
+            switch (mutation.type()) {
+                case CREATE -> {
+                    created++;
+                    partition.createdCounter.increment();
+                }
+                case UPDATE -> {
+                    updated++;
+                    partition.updatedCounter.increment();
+                }
+                case DELETE -> {
+                    deleted++;
+                    partition.deletedCounter.increment();
+                }
+            }
+        }
+        if (writeBehind != null) {
+            log.info("Записана пачка изменений пользователей: создано {}, обновлено {}, удалено {}", created, updated, deleted);
+        }
+    }
+
+    /**
+     * @param liveOnly не удалять истекшую запись: для клиентов ее уже нет, а удалит ее reaper
+     */
+    private User removeUser(Partition partition, Long id, boolean keepTombstone, boolean liveOnly) {
+        User[] removed = new User[1];
+        List<Mutation<User>> recorded = new ArrayList<>(1);
+        long now = clock.millis();
+        long purgeAt = now + tombstoneRetentionMillis;
+        partition.users.computeIfPresent(id, (key, previous) -> {
+            if (liveOnly && !isLive(previous, now)) {
+                return previous;
+            }
+            enqueueMutation(recorded, Mutation.delete(partition.tenant, id, nextVersion()));
+            removed[0] = previous;
+            partition.stored.decrementAndGet();
+            if (keepTombstone) {
+                partition.tombstones.put(id, new Tombstone(previous, purgeAt));
+            }
+            return null;
         });
+        if (removed[0] == null) {
+            return null;
+        }
+        if (keepTombstone) {
+            reaper.schedule(new ExpiryTimer(partition.tenant, id, purgeAt, true), purgeAt);
+        }
+        commitSynchronously(recorded);
+        return removed[0];
+    }
+
+    private void scheduleExpiry(Partition partition, User user) {
+        if (reaper != null && user.expiresAt() != null) {
+            long deadline = user.expiresAt().toEpochMilli();
+            reaper.schedule(new ExpiryTimer(partition.tenant, user.id(), deadline, false), deadline);
+        }
+    }
+
+    /**
+     * Вызывается потоком reaper; удаляет, только если срок пользователя или tombstone совпадает с таймером.
+     */
+    private boolean reap(ExpiryTimer timer) {
+        Partition partition = partitions.get(timer.tenant());
+        if (partition == null) {
+            return false;
+        }
+        Long id = timer.id();
+        if (timer.tombstone()) {
+            Tombstone tombstone = partition.tombstones.get(id);
+            return tombstone != null && tombstone.purgeAt() == timer.deadline() && partition.tombstones.remove(id, tombstone);
+        }
+        List<Mutation<User>> recorded = new ArrayList<>(1);
+        try {
+            partition.users.computeIfPresent(id, (key, user) -> {
+                if (user.expiresAt() == null || user.expiresAt().toEpochMilli() != timer.deadline()) {
+                    return user;
+                }
+                enqueueMutation(recorded, Mutation.delete(partition.tenant, id, nextVersion()));
+                partition.stored.decrementAndGet();
+                return null;
+            });
+        } catch (WriteBehindOverloadedException e) {
+            // Очередь записи заполнена: удаление откладывается до следующего тика
+            reaper.schedule(timer, timer.deadline());
+            return false;
+        }
+        if (recorded.isEmpty()) {
+            return false;
+        }
+        commitSynchronously(recorded);
+        invalidateReads(partition, id);
+        return true;
+    }
+
+    private boolean isLive(User user) {
+        return isLive(user, clock.millis());
+    }
+
+    private static boolean isLive(User user, long now) {
+        return user.expiresAt() == null || user.expiresAt().toEpochMilli() > now;
+    }
+
+    /**
+     * Без фонового удаления истекшие записи занимали бы память и квоту навсегда, поэтому срок не сохраняется.
+     */
+    private Instant expiresAt(Instant requested) {
+        return expiryEnabled ? requested : null;
     }
 
-    private double getAverageAge() {
-        if (users.isEmpty()) {
-            return 0.0;
+    private User toUser(Long id, UserDto userDto) {
+        return new User(id, userDto.getName(), userDto.getEmail(), userDto.getAge(), expiresAt(userDto.getExpiresAt()));
+    }
+
+    private void invalidateReads(Partition partition, Long id) {
+        partition.mutationEpoch.incrementAndGet();
+        userByIdReads.invalidate(new TenantKey(partition.tenant, id));
+        allUsersReads.invalidate(partition.tenant);
+    }
+
+    private final class Partition {
+
+        private final String tenant;
+        private final ConcurrentHashMap<Long, User> users = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Tombstone> tombstones = new ConcurrentHashMap<>();
+        private final AtomicLong mutationEpoch = new AtomicLong();
+        private final AtomicLong idGenerator = new AtomicLong(1);
+        private final AtomicInteger stored = new AtomicInteger();
+        private final int maxUsers;
+        private final Counter createdCounter;
+        private final Counter deletedCounter;
+        private final Counter updatedCounter;
+        private final Counter viewsCounter;
+        private final Timer operationTimer;
+        private volatile Snapshot allUsers;
+
+        private Partition(String tenant) {
+            this.tenant = tenant;
+            this.maxUsers = tenancy.quotaFor(tenant).getMaxUsers();
+            this.createdCounter = Counter.builder("users_created_total")
+                    .description("Total number of users created")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.deletedCounter = Counter.builder("users_deleted_total")
+                    .description("Total number of users deleted")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.updatedCounter = Counter.builder("users_updated_total")
+                    .description("Total number of users updated")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.viewsCounter = Counter.builder("users_views_total")
+                    .description("Total number of user views")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+            this.operationTimer = Timer.builder("users_operation_duration")
+                    .description("Duration of user operations")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+
+            Gauge.builder("users_total", gaugeSampler.sampled(() -> liveUsers().count()))
+                    .description("Current total number of users")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+
+            Gauge.builder("users_tombstones", tombstones, Map::size)
+                    .description("Number of deleted users that can still be restored")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+
+            Gauge.builder("users_average_age", gaugeSampler.sampled(this::getAverageAge))
+                    .description("Average age of all users")
+                    .tag("tenant", tenant)
+                    .register(meterRegistry);
+        }
+
+        private void reserve() {
+            if (stored.incrementAndGet() > maxUsers && maxUsers > 0) {
+                stored.decrementAndGet();
+                throw new TenantQuotaExceededException(tenant, "users", maxUsers);
+            }
+        }
+
+        private void release() {
+            stored.decrementAndGet();
+        }
+
+        private List<User> takeSnapshot() {
+            log.info("Получение всех пользователей");
+            long epoch = mutationEpoch.get();
+            long now = clock.millis();
+            // Истечение срока не меняет mutationEpoch, поэтому снимок годен только до ближайшего expiresAt
+            long validUntil = Long.MAX_VALUE;
+            List<User> live = new ArrayList<>(users.size());
+            for (User user : users.values()) {
+                if (isLive(user, now)) {
+                    live.add(user);
+                    if (user.expiresAt() != null) {
+                        validUntil = Math.min(validUntil, user.expiresAt().toEpochMilli());
+                    }
+                }
+            }
+            List<User> snapshot = Collections.unmodifiableList(live);
+            allUsers = new Snapshot(epoch, snapshot, validUntil);
+            return snapshot;
+        }
+
+        private Stream<User> liveUsers() {
+            long now = clock.millis();
+            return users.values().stream().filter(user -> isLive(user, now));
+        }
+
+        private double getAverageAge() {
+            return liveUsers()
+                    .mapToInt(User::age)
+                    .average()
+                    .orElse(0.0);
         }
-        return users.values().stream()
-                .mapToInt(UserDto::getAge)
-                .average()
-                .orElse(0.0);
+    }
+
+    private record TenantKey(String tenant, Long id) {
+    }
+
+    private record Snapshot(long epoch, List<User> users, long validUntil) {
+    }
+
+    private record Tombstone(User user, long purgeAt) {
+    }
+
+    private record ExpiryTimer(String tenant, Long id, long deadline, boolean tombstone) {
     }
 }
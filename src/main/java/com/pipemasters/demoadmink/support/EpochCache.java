@@ -0,0 +1,60 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов, действительных до следующего изменения данных. Вызывающий передает текущую
+ * версию (epoch) источника; значение, вычисленное при другой версии, считается устаревшим.
+ * Одновременные промахи по одному ключу вычисляют значение один раз. Число ключей ограничено
+ * {@code maxEntries}: при переполнении кэш очищается целиком.
+ */
+public class EpochCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public EpochCache(String name, String operation, int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.hitCounter = Counter.builder(name + "_cache_requests_total")
+                .description("Number of lookups in the epoch cache")
+                .tag("operation", operation)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder(name + "_cache_requests_total")
+                .description("Number of lookups in the epoch cache")
+                .tag("operation", operation)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public V get(K key, long epoch, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.epoch() == epoch) {
+            hitCounter.increment();
+            return entry.value();
+        }
+        missCounter.increment();
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        return entries.compute(key, (k, current) -> current != null && current.epoch() == epoch
+                ? current
+                : new Entry<>(epoch, loader.get())).value();
+    }
+
+    /**
+     * Удаляет значение, если под ключом все еще лежит именно оно (например, после неудачного вычисления).
+     */
+    public void evict(K key, V value) {
+        entries.computeIfPresent(key, (k, current) -> current.value() == value ? null : current);
+    }
+
+    private record Entry<V>(long epoch, V value) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Фоновое удаление по сроку: потоки запросов только кладут таймер в неблокирующую очередь,
+ * единственный поток reaper раз в {@code tick} переносит их в {@link TimingWheel} и передает
+ * наступившие элементы в {@code reaper} пачками не больше {@code batchSize} за тик. Если срок
+ * одновременно наступил у большего числа элементов, остаток ждет следующих тиков, так что
+ * массовое истечение растягивается во времени, а не забирает ресурсы у запросов разом.
+ * <p>
+ * Отмены нет: {@code reaper} сам проверяет, что элемент не изменился после постановки таймера,
+ * и возвращает true, только если действительно удалил его.
+ * <p>
+ * Сроки сравниваются с {@code clock}. Без фонового потока ({@code background = false}) тики
+ * выполняет вызывающий через {@link #tick()}, например тест с управляемыми часами.
+ */
+@Slf4j
+public class ExpiryReaper<T> implements AutoCloseable {
+
+    private final String name;
+    private final long tickNanos;
+    private final int batchSize;
+    private final Predicate<T> reaper;
+    private final Clock clock;
+    private final Queue<Scheduled<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduledCount = new AtomicInteger();
+    private final TimingWheel<T> wheel;
+    private final ArrayDeque<T> due = new ArrayDeque<>();
+    private final Thread thread;
+    private final Counter removedCounter;
+    private final Timer batchTimer;
+    private volatile int dueCount;
+    private volatile int wheelCount;
+    private volatile boolean running = true;
+
+    public ExpiryReaper(String name, Duration tick, int batchSize, Predicate<T> reaper, MeterRegistry meterRegistry) {
+        this(name, tick, batchSize, reaper, Clock.systemUTC(), true, meterRegistry);
+    }
+
+    public ExpiryReaper(String name, Duration tick, int batchSize, Predicate<T> reaper, Clock clock,
+                        boolean background, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.tickNanos = tick.toNanos();
+        this.batchSize = batchSize;
+        this.reaper = reaper;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(clock.millis(), tick.toMillis());
+        this.removedCounter = Counter.builder(name + "_reaper_removed_total")
+                .description("Number of expired entries removed by the background reaper")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder(name + "_reaper_batch_duration")
+                .description("Duration of background reaper batches")
+                .register(meterRegistry);
+        Gauge.builder(name + "_reaper_timers", this, r -> r.scheduledCount.get() + r.wheelCount)
+                .description("Number of pending expiry timers")
+                .register(meterRegistry);
+        Gauge.builder(name + "_reaper_backlog", this, r -> r.dueCount)
+                .description("Number of expired entries waiting for a reaper batch")
+                .register(meterRegistry);
+        if (background) {
+            this.thread = new Thread(this::run, name + "-reaper");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        } else {
+            this.thread = null;
+        }
+    }
+
+    /**
+     * Ставит таймер на {@code deadlineMillis}; O(1) и без блокировок.
+     */
+    public void schedule(T item, long deadlineMillis) {
+        scheduled.add(new Scheduled<>(item, deadlineMillis));
+        scheduledCount.incrementAndGet();
+    }
+
+    /**
+     * Один тик: переносит новые таймеры в колесо и удаляет до {@code batchSize} наступивших элементов.
+     *
+     * @throws IllegalStateException если тики выполняет фоновый поток
+     */
+    public void tick() {
+        if (thread != null) {
+            throw new IllegalStateException("Reaper " + name + " is driven by a background thread");
+        }
+        runTick();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        while (running) {
+            next += tickNanos;
+            long delay = next - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(this, delay);
+            } else {
+                // Отстали больше чем на тик (например, из-за паузы GC): не наверстываем пропущенные тики подряд
+                next = System.nanoTime();
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                runTick();
+            } catch (RuntimeException e) {
+                log.error("Ошибка фонового удаления {}", name, e);
+            }
+        }
+    }
+
+    private void runTick() {
+        Scheduled<T> timer;
+        while ((timer = scheduled.poll()) != null) {
+            scheduledCount.decrementAndGet();
+            if (!wheel.schedule(timer.item(), timer.deadlineMillis())) {
+                due.add(timer.item());
+            }
+        }
+        wheel.advance(clock.millis(), due::add);
+        wheelCount = wheel.size();
+        if (!due.isEmpty()) {
+            int removed = batchTimer.record(this::reapBatch);
+            if (removed > 0) {
+                removedCounter.increment(removed);
+                log.info("Удалено записей {} с истекшим сроком: {}", name, removed);
+            }
+        }
+        dueCount = due.size();
+    }
+
+    private int reapBatch() {
+        int removed = 0;
+        for (int i = 0; i < batchSize && !due.isEmpty(); i++) {
+            if (reaper.test(due.poll())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private record Scheduled<T>(T item, long deadlineMillis) {
+    }
+}
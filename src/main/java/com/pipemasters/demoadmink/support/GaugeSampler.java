@@ -0,0 +1,96 @@
+package com.pipemasters.demoadmink.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Вычисляет значения дорогих gauge в фоне с фиксированным интервалом, чтобы scrape
+ * только читал последнее значение, а не обходил данные. В режиме {@link #direct()}
+ * значение считается при каждом чтении, как у обычного gauge.
+ */
+@Slf4j
+public class GaugeSampler implements AutoCloseable {
+
+    private final ScheduledExecutorService scheduler;
+    private final List<Sample> samples = new CopyOnWriteArrayList<>();
+
+    private GaugeSampler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public static GaugeSampler direct() {
+        return new GaugeSampler(null);
+    }
+
+    public static GaugeSampler scheduled(Duration interval) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "gauge-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        GaugeSampler sampler = new GaugeSampler(scheduler);
+        long intervalNanos = interval.toNanos();
+        scheduler.scheduleWithFixedDelay(sampler::refreshAll, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        return sampler;
+    }
+
+    /**
+     * Возвращает функцию для {@code Gauge.builder(name, Supplier)}: сразу или из последнего замера.
+     */
+    public Supplier<Number> sampled(DoubleSupplier source) {
+        if (scheduler == null) {
+            return source::getAsDouble;
+        }
+        Sample sample = new Sample(source);
+        sample.refresh();
+        samples.add(sample);
+        return sample::value;
+    }
+
+    /**
+     * Немедленно пересчитывает все значения; в режиме {@link #direct()} ничего не делает.
+     */
+    public void refreshAll() {
+        for (Sample sample : samples) {
+            sample.refresh();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static final class Sample {
+
+        private final DoubleSupplier source;
+        private volatile double value = Double.NaN;
+
+        private Sample(DoubleSupplier source) {
+            this.source = source;
+        }
+
+        private void refresh() {
+            try {
+                value = source.getAsDouble();
+            } catch (RuntimeException e) {
+                // Оставляем предыдущее значение, иначе исключение остановит планировщик
+                log.warn("Не удалось вычислить значение метрики", e);
+            }
+        }
+
+        private double value() {
+            return value;
+        }
+    }
+}
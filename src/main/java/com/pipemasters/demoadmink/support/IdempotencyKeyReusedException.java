@@ -0,0 +1,15 @@
+package com.pipemasters.demoadmink.support;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Ключ идемпотентности уже использован с другим телом запроса.
+ */
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY, reason = "Idempotency key reused with a different request")
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key " + key + " was already used with a different request");
+    }
+}
@@ -0,0 +1,184 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Результаты операций по ключу идемпотентности: первый вызов с ключом выполняет операцию,
+ * повторы получают ее результат, а одновременные повторы ждут ее завершения.
+ * Ключ хранится {@code ttl} с момента первого вызова, но не больше {@code maxEntries} ключей:
+ * при переполнении вытесняются самые старые, поэтому память не растет под постоянной нагрузкой.
+ * Неудачная операция ключ не занимает, повтор выполнит ее заново.
+ * <p>
+ * Вместе с ключом хранится сам запрос: повтор ключа принимается, только если запрос равен исходному
+ * по {@code equals}, поэтому запросы с совпавшим хеш-кодом не получат чужой результат.
+ */
+public class IdempotencyStore<V> {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Срок жизни у всех ключей одинаковый, поэтому порядок добавления совпадает с порядком истечения
+    private final ConcurrentLinkedQueue<Entry<V>> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Counter executedCounter;
+    private final Counter replayedCounter;
+    private final Counter joinedCounter;
+    private final Counter evictedCounter;
+
+    public IdempotencyStore(String name, String operation, int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.executedCounter = requestCounter(name, operation, "executed",
+                "Idempotent requests that executed the operation", meterRegistry);
+        this.replayedCounter = requestCounter(name, operation, "replayed",
+                "Idempotent requests answered with a stored result", meterRegistry);
+        this.joinedCounter = requestCounter(name, operation, "joined",
+                "Idempotent requests that waited for an in-flight duplicate", meterRegistry);
+        this.evictedCounter = Counter.builder(name + "_idempotency_evictions_total")
+                .description("Idempotency keys dropped before their TTL to stay within max entries")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder(name + "_idempotency_keys", entries, ConcurrentHashMap::size)
+                .description("Idempotency keys currently stored")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public static boolean isValidKey(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x21 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param request тело запроса; повтор ключа с неравным ему запросом отклоняется
+     * @throws IdempotencyKeyReusedException если ключ уже использован с другим запросом
+     */
+    public Result<V> execute(String key, Object request, Supplier<V> operation) {
+        long now = System.nanoTime();
+        Entry<V> entry = new Entry<>(key, request, now);
+        while (true) {
+            Entry<V> existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(now, ttlNanos)) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!Objects.equals(existing.request, request)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            (existing.future.isDone() ? replayedCounter : joinedCounter).increment();
+            return new Result<>(existing.join(), true);
+        }
+        order.add(entry);
+        queued.incrementAndGet();
+        evictOldest(now);
+
+        executedCounter.increment();
+        try {
+            V value = operation.get();
+            entry.future.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            // Неудача - редкий путь, поэтому линейный поиск в очереди допустим; если запись уже забрало
+            // вытеснение, счетчик уменьшило оно
+            if (order.remove(entry)) {
+                queued.decrementAndGet();
+            }
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOldest(long now) {
+        while (true) {
+            Entry<V> oldest = order.peek();
+            if (oldest == null || (queued.get() <= maxEntries && !oldest.isExpired(now, ttlNanos))) {
+                return;
+            }
+            // Голова очереди удаляется за O(1); если ее уже забрал другой поток, просто смотрим дальше
+            if (order.remove(oldest)) {
+                queued.decrementAndGet();
+                if (entries.remove(oldest.key, oldest) && !oldest.isExpired(now, ttlNanos)) {
+                    evictedCounter.increment();
+                }
+            }
+        }
+    }
+
+    private static Counter requestCounter(String name, String operation, String result, String description,
+                                          MeterRegistry meterRegistry) {
+        return Counter.builder(name + "_idempotency_requests_total")
+                .description(description)
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param replayed результат взят у предыдущего запроса с тем же ключом
+     */
+    public record Result<V>(V value, boolean replayed) {
+    }
+
+    private static final class Entry<V> {
+
+        private final String key;
+        private final Object request;
+        private final long createdAt;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        Entry(String key, Object request, long createdAt) {
+            this.key = key;
+            this.request = request;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - createdAt > ttlNanos;
+        }
+
+        V join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединяет одновременные одинаковые чтения: пока вычисление по ключу выполняется
+ * (и еще {@code window} после его завершения), остальные вызовы получают тот же результат.
+ * После изменения данных ключ нужно сбросить через {@link #invalidate} или {@link #invalidateAll}.
+ */
+public class SingleFlight<K, V> {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final ConcurrentHashMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Counter executedCounter;
+    private final Counter coalescedCounter;
+
+    public SingleFlight(String name, String operation, boolean enabled, Duration window, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.executedCounter = Counter.builder(name + "_coalescing_requests_total")
+                .description("Read requests that executed the lookup themselves")
+                .tag("operation", operation)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder(name + "_coalescing_requests_total")
+                .description("Read requests that reused an in-flight or recent lookup")
+                .tag("operation", operation)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder(name + "_coalescing_ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of read requests served by coalescing")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (!enabled) {
+            executedCounter.increment();
+            return loader.get();
+        }
+        while (true) {
+            Call<V> existing = calls.get(key);
+            if (existing != null && !existing.isExpired(windowNanos)) {
+                coalescedCounter.increment();
+                return existing.join();
+            }
+            Call<V> call = new Call<>();
+            boolean owner = existing == null
+                    ? calls.putIfAbsent(key, call) == null
+                    : calls.replace(key, existing, call);
+            if (owner) {
+                executedCounter.increment();
+                return run(key, call, loader);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        calls.remove(key);
+    }
+
+    public void invalidateAll() {
+        calls.clear();
+    }
+
+    private V run(K key, Call<V> call, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            call.complete(value);
+            if (windowNanos <= 0) {
+                calls.remove(key, call);
+            } else if (calls.size() > PURGE_THRESHOLD) {
+                calls.values().removeIf(c -> c.isExpired(windowNanos));
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, call);
+            call.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private double coalescingRatio() {
+        double executed = executedCounter.count();
+        double coalesced = coalescedCounter.count();
+        double total = executed + coalesced;
+        return total == 0 ? 0.0 : coalesced / total;
+    }
+
+    private static final class Call<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        void complete(V value) {
+            completedAt = System.nanoTime();
+            future.complete(value);
+        }
+
+        boolean isExpired(long windowNanos) {
+            return future.isDone() && System.nanoTime() - completedAt > windowNanos;
+        }
+
+        V join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw e;
+            }
+        }
+    }
+}
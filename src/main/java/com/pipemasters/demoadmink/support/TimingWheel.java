@@ -0,0 +1,110 @@
+package com.pipemasters.demoadmink.support;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров. Время делится на тики по {@code tickMillis}; уровень {@code L}
+ * состоит из 64 ячеек по 64<sup>L</sup> тиков. Таймер кладется на уровень старшей группы из 6 бит,
+ * в которой номер его тика отличается от текущего, поэтому добавление стоит O(1) независимо от срока,
+ * а при переходе границы уровня ячейка переносится на нижние уровни.
+ * <p>
+ * Не потокобезопасно: колесом владеет один поток (см. {@link ExpiryReaper}).
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final long originMillis;
+    private final long tickMillis;
+    private final ArrayList<Timer<T>>[] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long originMillis, long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.originMillis = originMillis;
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList[LEVELS * SLOTS];
+    }
+
+    /**
+     * Ставит таймер на {@code deadlineMillis}. Возвращает false, если срок уже наступил
+     * с точностью до тика: такой элемент колесо не хранит, вызывающий обрабатывает его сам.
+     */
+    public boolean schedule(T item, long deadlineMillis) {
+        // Округление вверх: таймер не срабатывает раньше срока
+        long tick = Math.max(0, Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis));
+        if (tick <= currentTick) {
+            return false;
+        }
+        place(new Timer<>(tick, item));
+        size++;
+        return true;
+    }
+
+    /**
+     * Продвигает колесо до {@code nowMillis} и передает в {@code expired} элементы, срок которых наступил.
+     */
+    public void advance(long nowMillis, Consumer<? super T> expired) {
+        long target = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        if (size == 0) {
+            currentTick = Math.max(currentTick, target);
+            return;
+        }
+        while (currentTick < target && size > 0) {
+            currentTick++;
+            int crossed = Math.min(Long.numberOfTrailingZeros(currentTick) / SLOT_BITS, LEVELS - 1);
+            // Сверху вниз: таймеры старшего уровня могут попасть в ячейку младшего, которую переносим следом
+            for (int level = crossed; level >= 1; level--) {
+                ArrayList<Timer<T>> timers = take(level, currentTick);
+                if (timers != null) {
+                    timers.forEach(this::place);
+                }
+            }
+            ArrayList<Timer<T>> due = take(0, currentTick);
+            if (due != null) {
+                size -= due.size();
+                for (Timer<T> timer : due) {
+                    expired.accept(timer.item());
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        long diff = timer.tick() ^ currentTick;
+        int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+        int index = index(level, timer.tick());
+        ArrayList<Timer<T>> slot = slots[index];
+        if (slot == null) {
+            slot = new ArrayList<>();
+            slots[index] = slot;
+        }
+        slot.add(timer);
+    }
+
+    private ArrayList<Timer<T>> take(int level, long tick) {
+        int index = index(level, tick);
+        ArrayList<Timer<T>> timers = slots[index];
+        slots[index] = null;
+        return timers;
+    }
+
+    private static int index(int level, long tick) {
+        return level * SLOTS + (int) ((tick >>> (level * SLOT_BITS)) & (SLOTS - 1));
+    }
+
+    private record Timer<T>(long tick, T item) {
+    }
+}
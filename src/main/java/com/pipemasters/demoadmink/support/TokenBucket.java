@@ -0,0 +1,44 @@
+package com.pipemasters.demoadmink.support;
+
+/**
+ * Ограничитель частоты: ведро на {@code capacity} токенов, пополняемое со скоростью
+ * {@code tokensPerSecond}. Токены начисляются лениво при обращении, без фонового потока.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(int tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = (double) tokensPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Через сколько секунд (с округлением вверх) появится следующий токен.
+     */
+    public synchronized long secondsUntilNextToken() {
+        double missing = Math.max(0, 1 - tokens);
+        return Math.max(1, (long) Math.ceil(missing / tokensPerNano / NANOS_PER_SECOND));
+    }
+}
@@ -0,0 +1,15 @@
+package com.pipemasters.demoadmink.support;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Очередь отложенной записи заполнена: хранилище не успевает или недоступно, изменение не применено.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Write-behind queue is full")
+public class WriteBehindOverloadedException extends RuntimeException {
+
+    public WriteBehindOverloadedException(String name) {
+        super("Write-behind queue of " + name + " is full");
+    }
+}
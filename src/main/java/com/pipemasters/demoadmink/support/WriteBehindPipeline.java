@@ -0,0 +1,203 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Отложенная запись: producers кладут элементы в очередь и сразу продолжают работу,
+ * единственный поток-писатель забирает их пачками до {@code batchSize} элементов, ожидая
+ * добора пачки не дольше {@code linger}, и передает пачку в {@code sink}.
+ * <p>
+ * {@link #submit} никогда не блокируется. Очередь ограничена {@code capacity}: если места нет,
+ * {@link #submit} отклоняет элемент с {@link WriteBehindOverloadedException}, и вызывающий не должен
+ * применять изменение, которое не удалось поставить в очередь.
+ * <p>
+ * Пачку, которую {@code sink} не принял, писатель повторяет с экспоненциальной паузой от
+ * {@code retryBackoff} до {@code maxRetryBackoff}, не теряя и не переупорядочивая изменения;
+ * пока хранилище недоступно, очередь заполняется и новые изменения отклоняются. Подтвержденные
+ * изменения теряются, только если процесс падает или если при остановке хранилище так и не приняло
+ * их за {@link #CLOSE_TIMEOUT}; такие изменения считает {@code <name>_write_behind_lost_total}.
+ */
+@Slf4j
+public class WriteBehindPipeline<M> implements AutoCloseable {
+
+    static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final String name;
+    private final BlockingQueue<M> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+    private final Consumer<List<M>> sink;
+    private final Thread writer;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final DistributionSummary batchSizeSummary;
+    private final Timer commitTimer;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+    private final Counter lostCounter;
+    private volatile boolean running = true;
+    private volatile long closeDeadline;
+
+    public WriteBehindPipeline(String name, int capacity, int batchSize, Duration linger, Duration retryBackoff,
+                               Duration maxRetryBackoff, Consumer<List<M>> sink, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.retryBackoffNanos = Math.max(1, retryBackoff.toNanos());
+        this.maxRetryBackoffNanos = Math.max(retryBackoffNanos, maxRetryBackoff.toNanos());
+        this.sink = sink;
+        this.batchSizeSummary = DistributionSummary.builder(name + "_write_behind_batch_size")
+                .description("Number of mutations committed per batch")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder(name + "_write_behind_commit_duration")
+                .description("Duration of write-behind batch commits")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder(name + "_write_behind_failures_total")
+                .description("Number of failed write-behind batch commit attempts")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(name + "_write_behind_rejected_total")
+                .description("Number of mutations rejected because the write-behind queue was full")
+                .register(meterRegistry);
+        this.lostCounter = Counter.builder(name + "_write_behind_lost_total")
+                .description("Number of acknowledged mutations dropped at shutdown because the store kept failing")
+                .register(meterRegistry);
+        Gauge.builder(name + "_write_behind_queue_size", this, WriteBehindPipeline::pending)
+                .description("Number of mutations waiting to be committed")
+                .register(meterRegistry);
+        this.writer = new Thread(this::drainLoop, name + "-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Ставит элемент в очередь; не блокируется.
+     *
+     * @throws WriteBehindOverloadedException если очередь заполнена, например пока хранилище недоступно
+     * @throws IllegalStateException если конвейер закрыт
+     */
+    public void submit(M item) {
+        if (!running) {
+            throw new IllegalStateException("Write-behind pipeline is closed");
+        }
+        if (!queue.offer(item)) {
+            rejectedCounter.increment();
+            throw new WriteBehindOverloadedException(name);
+        }
+        submitted.incrementAndGet();
+    }
+
+    /**
+     * Ждет, пока все отправленные до вызова элементы будут переданы в {@code sink}.
+     */
+    public boolean flush(Duration timeout) {
+        long target = submitted.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (processed.get() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        closeDeadline = System.nanoTime() + CLOSE_TIMEOUT.toNanos();
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(CLOSE_TIMEOUT.plusSeconds(1).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long pending() {
+        // submitted увеличивается после offer, и писатель может успеть обработать элемент раньше
+        return Math.max(0, submitted.get() - processed.get());
+    }
+
+    private void drainLoop() {
+        List<M> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                M first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<M> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            M next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<M> batch) {
+        long backoff = retryBackoffNanos;
+        try {
+            while (true) {
+                try {
+                    commitTimer.record(() -> sink.accept(batch));
+                    batchSizeSummary.record(batch.size());
+                    return;
+                } catch (RuntimeException e) {
+                    failureCounter.increment();
+                    if (!running && System.nanoTime() - closeDeadline > 0) {
+                        lostCounter.increment(batch.size());
+                        log.error("Остановка: хранилище не приняло пачку из {} изменений, изменения потеряны",
+                                batch.size(), e);
+                        return;
+                    }
+                    log.warn("Не удалось записать пачку из {} изменений, повтор через {} мс: {}",
+                            batch.size(), TimeUnit.NANOSECONDS.toMillis(backoff), e.toString());
+                    LockSupport.parkNanos(this, backoff);
+                    backoff = Math.min(backoff * 2, maxRetryBackoffNanos);
+                }
+            }
+        } finally {
+            processed.addAndGet(batch.size());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.pipemasters.demoadmink.tenant;
+
+import java.util.function.Supplier;
+
+/**
+ * Арендатор текущего потока. Для HTTP-запросов его выставляет {@link TenantFilter}; код,
+ * переносящий работу в другие потоки (пулы отчетов, реактивные планировщики), должен
+ * запомнить арендатора и выполнить работу через {@link #callAs}.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    public static <T> T callAs(String tenant, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static void runAs(String tenant, Runnable action) {
+        callAs(tenant, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.pipemasters.demoadmink.tenant;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Определяет арендатора запроса к REST API по заголовку и применяет его квоты: частоту запросов
+ * и число одновременно обслуживаемых запросов. Лимит одновременных запросов не дает одному
+ * арендатору занять все потоки сервера тяжелыми чтениями. Для асинхронного запроса место
+ * освобождается, когда асинхронная обработка завершена, а не когда фильтр вернул управление.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private final String header;
+    private final TenantRegistry registry;
+
+    public TenantFilter(String header, TenantRegistry registry) {
+        this.header = header;
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String id = request.getHeader(header);
+        if (id == null || id.isEmpty()) {
+            id = TenantContext.DEFAULT_TENANT;
+        } else if (!TenantRegistry.isValidId(id)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid tenant id");
+            return;
+        }
+        TenantRegistry.Tenant tenant = registry.admit(id);
+        if (tenant == null) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Tenant limit reached");
+            return;
+        }
+        if (!tenant.tryAcquireRate()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(tenant.retryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Tenant rate limit exceeded");
+            return;
+        }
+        if (!tenant.tryEnter()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many concurrent tenant requests");
+            return;
+        }
+        try {
+            TenantContext.set(tenant.id());
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(tenant));
+            } else {
+                tenant.exit();
+            }
+        }
+    }
+
+    /**
+     * Освобождает место арендатора по завершении асинхронной обработки; после таймаута
+     * или ошибки контейнер тоже вызывает {@code onComplete}.
+     */
+    private record ReleaseOnComplete(TenantRegistry.Tenant tenant) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            tenant.exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync сбрасывает слушателей
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.pipemasters.demoadmink.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Арендатор исчерпал квоту на число хранимых сущностей. REST отвечает 403, как и на превышение
+ * лимита арендаторов, gRPC — {@code RESOURCE_EXHAUSTED}; превышение частоты запросов отклоняется раньше,
+ * в {@link TenantFilter}, с кодом 429.
+ */
+@ResponseStatus(value = HttpStatus.FORBIDDEN, reason = "Tenant quota exceeded")
+public class TenantQuotaExceededException extends RuntimeException {
+
+    public TenantQuotaExceededException(String tenant, String resource, int limit) {
+        super("Tenant " + tenant + " reached the " + resource + " quota of " + limit);
+    }
+}
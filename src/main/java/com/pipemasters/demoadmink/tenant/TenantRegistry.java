@@ -0,0 +1,128 @@
+package com.pipemasters.demoadmink.tenant;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.support.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Известные арендаторы и их ограничители запросов. Число арендаторов ограничено
+ * {@code app.tenancy.max-tenants}, поэтому и разделы хранилищ, и значения тега {@code tenant}
+ * у метрик не растут от произвольных значений заголовка.
+ */
+@Slf4j
+public class TenantRegistry {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private final AppProperties.Tenancy properties;
+    private final MeterRegistry meterRegistry;
+
+    public TenantRegistry(AppProperties.Tenancy properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("tenants_active", tenants, Map::size)
+                .description("Number of tenants that have sent requests")
+                .register(meterRegistry);
+    }
+
+    public static boolean isValidId(String id) {
+        return TENANT_ID.matcher(id).matches();
+    }
+
+    /**
+     * Возвращает арендатора, регистрируя его при первом обращении, или {@code null}, если лимит
+     * арендаторов исчерпан.
+     */
+    public Tenant admit(String id) {
+        Tenant tenant = tenants.get(id);
+        if (tenant != null) {
+            return tenant;
+        }
+        synchronized (tenants) {
+            tenant = tenants.get(id);
+            if (tenant == null && tenants.size() < properties.getMaxTenants()) {
+                log.info("Зарегистрирован арендатор {}", id);
+                tenant = new Tenant(id, properties.quotaFor(id), meterRegistry);
+                tenants.put(id, tenant);
+            }
+            return tenant;
+        }
+    }
+
+    public static final class Tenant {
+
+        private final String id;
+        private final TokenBucket rate;
+        private final int maxConcurrentRequests;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rateLimitedCounter;
+        private final Counter concurrencyLimitedCounter;
+
+        private Tenant(String id, AppProperties.Tenancy.Quota quota, MeterRegistry meterRegistry) {
+            this.id = id;
+            int requestsPerSecond = quota.getRequestsPerSecond();
+            this.rate = requestsPerSecond > 0
+                    ? new TokenBucket(requestsPerSecond, quota.getBurst() > 0 ? quota.getBurst() : requestsPerSecond)
+                    : null;
+            this.maxConcurrentRequests = quota.getMaxConcurrentRequests();
+            this.rateLimitedCounter = rejectedCounter(id, "rate_limit", meterRegistry);
+            this.concurrencyLimitedCounter = rejectedCounter(id, "concurrency_limit", meterRegistry);
+            Gauge.builder("tenant_requests_in_flight", inFlight, AtomicInteger::get)
+                    .description("Number of tenant requests currently occupying server threads")
+                    .tag("tenant", id)
+                    .register(meterRegistry);
+        }
+
+        public String id() {
+            return id;
+        }
+
+        /**
+         * Списывает запрос с квоты частоты; при отказе запрос нужно отклонить.
+         */
+        public boolean tryAcquireRate() {
+            if (rate == null || rate.tryAcquire()) {
+                return true;
+            }
+            rateLimitedCounter.increment();
+            return false;
+        }
+
+        public long retryAfterSeconds() {
+            return rate != null ? rate.secondsUntilNextToken() : 0;
+        }
+
+        /**
+         * Занимает место среди одновременных запросов арендатора; после успеха обязателен {@link #exit()}.
+         */
+        public boolean tryEnter() {
+            if (inFlight.incrementAndGet() <= maxConcurrentRequests || maxConcurrentRequests <= 0) {
+                return true;
+            }
+            inFlight.decrementAndGet();
+            concurrencyLimitedCounter.increment();
+            return false;
+        }
+
+        public void exit() {
+            inFlight.decrementAndGet();
+        }
+
+        private static Counter rejectedCounter(String tenant, String reason, MeterRegistry meterRegistry) {
+            return Counter.builder("tenant_requests_rejected_total")
+                    .description("Number of tenant requests rejected by quotas")
+                    .tag("tenant", tenant)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
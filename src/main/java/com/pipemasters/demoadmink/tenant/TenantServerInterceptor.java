@@ -0,0 +1,106 @@
+package com.pipemasters.demoadmink.tenant;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.Locale;
+
+/**
+ * То же, что {@link TenantFilter}, для gRPC: арендатор берется из метаданных вызова, квоты частоты
+ * и одновременных запросов списываются на весь вызов, включая потоковые. Обработчики вызова
+ * выполняются в потоках gRPC, поэтому арендатор выставляется на время каждого обработчика.
+ */
+public class TenantServerInterceptor implements ServerInterceptor {
+
+    private final Metadata.Key<String> header;
+    private final TenantRegistry registry;
+
+    public TenantServerInterceptor(String header, TenantRegistry registry) {
+        this.header = Metadata.Key.of(header.toLowerCase(Locale.ROOT), Metadata.ASCII_STRING_MARSHALLER);
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String id = headers.get(header);
+        if (id == null || id.isEmpty()) {
+            id = TenantContext.DEFAULT_TENANT;
+        } else if (!TenantRegistry.isValidId(id)) {
+            return reject(call, Status.INVALID_ARGUMENT.withDescription("Invalid tenant id"));
+        }
+        TenantRegistry.Tenant tenant = registry.admit(id);
+        if (tenant == null) {
+            return reject(call, Status.PERMISSION_DENIED.withDescription("Tenant limit reached"));
+        }
+        if (!tenant.tryAcquireRate()) {
+            return reject(call, Status.RESOURCE_EXHAUSTED.withDescription("Tenant rate limit exceeded"));
+        }
+        if (!tenant.tryEnter()) {
+            return reject(call, Status.RESOURCE_EXHAUSTED.withDescription("Too many concurrent tenant requests"));
+        }
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = TenantContext.callAs(tenant.id(), () -> next.startCall(call, headers));
+        } catch (RuntimeException e) {
+            tenant.exit();
+            throw e;
+        }
+        return new TenantListener<>(listener, tenant);
+    }
+
+    private static <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, Status status) {
+        call.close(status, new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+
+    private static final class TenantListener<ReqT>
+            extends ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT> {
+
+        private final TenantRegistry.Tenant tenant;
+
+        private TenantListener(ServerCall.Listener<ReqT> delegate, TenantRegistry.Tenant tenant) {
+            super(delegate);
+            this.tenant = tenant;
+        }
+
+        @Override
+        public void onMessage(ReqT message) {
+            TenantContext.runAs(tenant.id(), () -> super.onMessage(message));
+        }
+
+        @Override
+        public void onHalfClose() {
+            TenantContext.runAs(tenant.id(), super::onHalfClose);
+        }
+
+        @Override
+        public void onReady() {
+            TenantContext.runAs(tenant.id(), super::onReady);
+        }
+
+        // Вызов завершается ровно одним из onComplete и onCancel
+        @Override
+        public void onCancel() {
+            try {
+                TenantContext.runAs(tenant.id(), super::onCancel);
+            } finally {
+                tenant.exit();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                TenantContext.runAs(tenant.id(), super::onComplete);
+            } finally {
+                tenant.exit();
+            }
+        }
+    }
+}
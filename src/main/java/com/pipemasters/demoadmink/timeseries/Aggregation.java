@@ -0,0 +1,13 @@
+package com.pipemasters.demoadmink.timeseries;
+
+/**
+ * Как сворачивать точки, попавшие в один интервал при прореживании.
+ */
+public enum Aggregation {
+    AVG,
+    MIN,
+    MAX,
+    SUM,
+    LAST,
+    COUNT
+}
@@ -0,0 +1,38 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Чтение битов, записанных {@link BitWriter}. Использует только абсолютные {@code get},
+ * поэтому один буфер можно читать из нескольких потоков.
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private long position;
+
+    BitReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    boolean readBit() {
+        int b = buffer.get((int) (position >>> 3));
+        int shift = 7 - (int) (position & 7);
+        position++;
+        return ((b >>> shift) & 1) != 0;
+    }
+
+    long read(int bits) {
+        long result = 0;
+        int remaining = bits;
+        while (remaining > 0) {
+            int available = 8 - (int) (position & 7);
+            int take = Math.min(available, remaining);
+            int b = buffer.get((int) (position >>> 3)) & 0xFF;
+            result = (result << take) | ((b >>> (available - take)) & ((1 << take) - 1));
+            position += take;
+            remaining -= take;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Последовательная запись битов старшим битом вперед в растущий массив.
+ */
+final class BitWriter {
+
+    private byte[] buffer = new byte[64];
+    private long bitLength;
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Записывает младшие {@code bits} битов значения (от 1 до 64).
+     */
+    void write(long value, int bits) {
+        int remaining = bits;
+        while (remaining > 0) {
+            int byteIndex = (int) (bitLength >>> 3);
+            if (byteIndex == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int free = 8 - (int) (bitLength & 7);
+            int take = Math.min(free, remaining);
+            int chunk = (int) (value >>> (remaining - take)) & ((1 << take) - 1);
+            buffer[byteIndex] |= (byte) (chunk << (free - take));
+            bitLength += take;
+            remaining -= take;
+        }
+    }
+
+    int byteLength() {
+        return (int) ((bitLength + 7) >>> 3);
+    }
+
+    /**
+     * Внутренний массив без копирования; действителен до следующей записи.
+     */
+    byte[] buffer() {
+        return buffer;
+    }
+}
@@ -0,0 +1,87 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Накопители интервалов прореживания для одного запроса.
+ */
+final class Buckets {
+
+    private final long from;
+    private final long step;
+    private final Aggregation aggregation;
+    private final long[] counts;
+    private final double[] values;
+
+    Buckets(long from, long to, long step, Aggregation aggregation) {
+        this.from = from;
+        this.step = step;
+        this.aggregation = aggregation;
+        int size = (int) ((to - from + step - 1) / step);
+        this.counts = new long[size];
+        this.values = new double[size];
+        if (aggregation == Aggregation.MIN) {
+            Arrays.fill(values, Double.POSITIVE_INFINITY);
+        } else if (aggregation == Aggregation.MAX) {
+            Arrays.fill(values, Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    boolean sameBucket(long first, long second) {
+        return index(first) == index(second);
+    }
+
+    void add(long timestamp, double value) {
+        int i = index(timestamp);
+        counts[i]++;
+        switch (aggregation) {
+            case AVG, SUM -> values[i] += value;
+            case MIN -> values[i] = Math.min(values[i], value);
+            case MAX -> values[i] = Math.max(values[i], value);
+            case LAST -> values[i] = value;
+            case COUNT -> {
+            }
+        }
+    }
+
+    /**
+     * Учитывает блок целиком по его сводке; блок должен лежать внутри одного интервала.
+     */
+    void addSummary(Chunk chunk) {
+        int i = index(chunk.minTimestamp());
+        counts[i] += chunk.count();
+        switch (aggregation) {
+            case AVG, SUM -> values[i] += chunk.sum();
+            case MIN -> values[i] = Math.min(values[i], chunk.min());
+            case MAX -> values[i] = Math.max(values[i], chunk.max());
+            case LAST -> values[i] = chunk.last();
+            case COUNT -> {
+            }
+        }
+    }
+
+    /**
+     * Непустые интервалы по возрастанию времени.
+     */
+    List<TimeSeriesPoint> toPoints() {
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            double value = switch (aggregation) {
+                case AVG -> values[i] / counts[i];
+                case COUNT -> counts[i];
+                default -> values[i];
+            };
+            points.add(new TimeSeriesPoint(from + i * step, value));
+        }
+        return points;
+    }
+
+    private int index(long timestamp) {
+        return (int) ((timestamp - from) / step);
+    }
+}
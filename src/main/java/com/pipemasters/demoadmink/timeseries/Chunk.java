@@ -0,0 +1,74 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Сжатый блок точек и его сводка. Сводка позволяет не распаковывать блок, если он
+ * целиком попадает в один интервал прореживания. {@code segment} — сегмент, в котором лежат данные.
+ */
+record Chunk(long minTimestamp, long maxTimestamp, int count,
+             double min, double max, double sum, double last, ByteBuffer data, SegmentStore.Segment segment) {
+
+    /**
+     * Передает в {@code consumer} точки блока с меткой в {@code [from, to)} по возрастанию времени.
+     */
+    void decode(long from, long to, PointConsumer consumer) {
+        decode(data, count, from, to, consumer);
+    }
+
+    static void decode(ByteBuffer data, int count, long from, long to, PointConsumer consumer) {
+        BitReader in = new BitReader(data);
+        long timestamp = in.read(64);
+        long valueBits = in.read(64);
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 0; ; ) {
+            if (timestamp >= to) {
+                return;
+            }
+            if (timestamp >= from) {
+                consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+            }
+            if (++i == count) {
+                return;
+            }
+            delta += readDeltaOfDelta(in);
+            timestamp += delta;
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.read(5);
+                    int significant = (int) in.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                valueBits ^= in.read(64 - leading - trailing) << trailing;
+            }
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (!in.readBit()) {
+            return 0;
+        }
+        if (!in.readBit()) {
+            return signed(in.read(7), 7);
+        }
+        if (!in.readBit()) {
+            return signed(in.read(9), 9);
+        }
+        if (!in.readBit()) {
+            return signed(in.read(12), 12);
+        }
+        return in.read(64);
+    }
+
+    private static long signed(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+
+    @FunctionalInterface
+    interface PointConsumer {
+
+        void accept(long timestamp, double value);
+    }
+}
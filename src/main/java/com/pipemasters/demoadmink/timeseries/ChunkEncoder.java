@@ -0,0 +1,109 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Сжатие блока точек по схеме Gorilla: метки времени хранятся как разность разностей
+ * (у регулярного ряда — один бит на точку), значения — как XOR с предыдущим, от которого
+ * записываются только значащие биты. Первая точка блока пишется целиком.
+ */
+final class ChunkEncoder {
+
+    private final BitWriter out = new BitWriter();
+    private int count;
+    private long firstTimestamp;
+    private long previousTimestamp;
+    private long previousDelta;
+    private long previousValueBits;
+    private int previousLeading = -1;
+    private int previousTrailing;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private double last;
+
+    void append(long timestamp, double value) {
+        long valueBits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            firstTimestamp = timestamp;
+            out.write(timestamp, 64);
+            out.write(valueBits, 64);
+        } else {
+            long delta = timestamp - previousTimestamp;
+            writeDeltaOfDelta(delta - previousDelta);
+            writeXor(valueBits ^ previousValueBits);
+            previousDelta = delta;
+        }
+        previousTimestamp = timestamp;
+        previousValueBits = valueBits;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+        last = value;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long lastTimestamp() {
+        return previousTimestamp;
+    }
+
+    BitWriter output() {
+        return out;
+    }
+
+    /**
+     * Сводка для запечатанного блока; данные передаются отдельно, после копирования в сегмент.
+     */
+    Chunk seal(ByteBuffer data, SegmentStore.Segment segment) {
+        return new Chunk(firstTimestamp, previousTimestamp, count, min, max, sum, last, data, segment);
+    }
+
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            out.write(0b0, 1);
+        } else if (fits(deltaOfDelta, 7)) {
+            out.write(0b10, 2);
+            out.write(deltaOfDelta, 7);
+        } else if (fits(deltaOfDelta, 9)) {
+            out.write(0b110, 3);
+            out.write(deltaOfDelta, 9);
+        } else if (fits(deltaOfDelta, 12)) {
+            out.write(0b1110, 4);
+            out.write(deltaOfDelta, 12);
+        } else {
+            out.write(0b1111, 4);
+            out.write(deltaOfDelta, 64);
+        }
+    }
+
+    private void writeXor(long xor) {
+        if (xor == 0) {
+            out.write(0b0, 1);
+            return;
+        }
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+            // Значащие биты помещаются в окно предыдущего значения
+            out.write(0b10, 2);
+            out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+        } else {
+            int significant = 64 - leading - trailing;
+            out.write(0b11, 2);
+            out.write(leading, 5);
+            out.write(significant - 1, 6);
+            out.write(xor >>> trailing, significant);
+            previousLeading = leading;
+            previousTrailing = trailing;
+        }
+    }
+
+    private static boolean fits(long value, int bits) {
+        long bound = 1L << (bits - 1);
+        return value >= -bound && value < bound;
+    }
+}
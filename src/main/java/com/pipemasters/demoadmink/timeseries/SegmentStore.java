@@ -0,0 +1,182 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+/**
+ * Сегменты фиксированного размера, в которые дописываются запечатанные блоки. С каталогом
+ * сегменты — отображенные в память файлы, и сжатые данные живут в page cache, а не в куче;
+ * без каталога — обычные массивы в куче. Файлы не переживают перезапуск: при открытии
+ * каталог очищается, так как индекс блоков хранится только в памяти.
+ * <p>
+ * Сегмент освобождается (файл удаляется), когда в нем не остается блоков: блоки уходят
+ * по сроку хранения, при превышении бюджета памяти или вместе с удаленным рядом. Запрос,
+ * начатый до освобождения, дочитывает блоки: буфер остается доступен, пока на него есть ссылки.
+ */
+@Slf4j
+final class SegmentStore implements AutoCloseable {
+
+    private static final String SEGMENT_GLOB = "segment-*.ts";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private Segment current;
+    private int nextIndex;
+    private long usedBytes;
+    private long allocatedBytes;
+
+    SegmentStore(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (directory != null) {
+            clearDirectory(directory);
+        }
+    }
+
+    /**
+     * Копирует данные открытого блока в сегмент и возвращает запечатанный блок с неизменяемым срезом.
+     */
+    synchronized Chunk seal(ChunkEncoder head) {
+        BitWriter out = head.output();
+        int length = out.byteLength();
+        if (current == null || current.buffer.remaining() < length) {
+            Segment previous = current;
+            current = newSegment(Math.max(segmentSize, length));
+            if (previous != null && previous.chunks == 0) {
+                free(previous);
+            }
+        }
+        int offset = current.buffer.position();
+        current.buffer.put(out.buffer(), 0, length);
+        current.chunks++;
+        current.maxTimestamp = Math.max(current.maxTimestamp, head.lastTimestamp());
+        usedBytes += length;
+        return head.seal(current.buffer.slice(offset, length).asReadOnlyBuffer(), current);
+    }
+
+    /**
+     * Блок больше не нужен ряду; сегмент без блоков освобождается.
+     */
+    synchronized void release(Chunk chunk) {
+        Segment segment = chunk.segment();
+        usedBytes -= chunk.data().capacity();
+        if (--segment.chunks == 0 && segment != current) {
+            free(segment);
+        }
+    }
+
+    /**
+     * Самая поздняя метка в старейшем заполненном сегменте: если удалить блоки не позже нее,
+     * сегмент освободится. {@link Long#MIN_VALUE}, если заполненных сегментов нет.
+     */
+    synchronized long oldestSegmentMaxTimestamp() {
+        Segment oldest = segments.peekFirst();
+        return oldest != null && oldest != current ? oldest.maxTimestamp : Long.MIN_VALUE;
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            closeChannel(segment);
+        }
+        segments.clear();
+        current = null;
+    }
+
+    private Segment newSegment(int size) {
+        int index = nextIndex++;
+        Segment segment;
+        if (directory == null) {
+            segment = new Segment(ByteBuffer.allocate(size), null, null);
+        } else {
+            Path file = directory.resolve(String.format("segment-%05d.ts", index));
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                log.info("Открыт сегмент временных рядов {} размером {} байт", file, size);
+                segment = new Segment(buffer, channel, file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map time-series segment " + file, e);
+            }
+        }
+        segments.addLast(segment);
+        allocatedBytes += size;
+        return segment;
+    }
+
+    private void free(Segment segment) {
+        segments.remove(segment);
+        allocatedBytes -= segment.buffer.capacity();
+        closeChannel(segment);
+        if (segment.file != null) {
+            try {
+                Files.deleteIfExists(segment.file);
+                log.info("Удален освобожденный сегмент временных рядов {}", segment.file);
+            } catch (IOException e) {
+                log.warn("Не удалось удалить сегмент временных рядов {}", segment.file, e);
+            }
+        }
+    }
+
+    private static void closeChannel(Segment segment) {
+        if (segment.channel == null) {
+            return;
+        }
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть сегмент временных рядов", e);
+        }
+    }
+
+    private static void clearDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, SEGMENT_GLOB)) {
+                for (Path file : stale) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare time-series directory " + directory, e);
+        }
+    }
+
+    /**
+     * Сегмент и число блоков в нем; поля меняются только под блокировкой {@link SegmentStore}.
+     */
+    static final class Segment {
+
+        private final ByteBuffer buffer;
+        private final FileChannel channel;
+        private final Path file;
+        private int chunks;
+        private long maxTimestamp = Long.MIN_VALUE;
+
+        private Segment(ByteBuffer buffer, FileChannel channel, Path file) {
+            this.buffer = buffer;
+            this.channel = channel;
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Один ряд: открытый блок, в который идет запись, и запечатанные блоки в сегментах.
+ * Метки времени не убывают: точка с меткой раньше предыдущей записывается с меткой предыдущей.
+ * Удаленный ряд (весь или очищенный по сроку хранения) не принимает точки: их пишут в новый ряд.
+ * <p>
+ * Запечатанные блоки лежат в массиве с запасом емкости: запечатывание дописывает блок в конец,
+ * удаление по сроку сдвигает начало. Массив не меняется на месте в пределах уже отданных
+ * запросам границ, поэтому запрос читает его после снятия блокировки; при нехватке места
+ * живые блоки переносятся в новый массив.
+ */
+final class TimeSeries {
+
+    private static final Chunk[] NO_CHUNKS = new Chunk[0];
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int pointsPerChunk;
+    private final SegmentStore segments;
+    private Chunk[] sealed = NO_CHUNKS;
+    private int first;
+    private int end;
+    private ChunkEncoder head = new ChunkEncoder();
+    private long lastTimestamp = Long.MIN_VALUE;
+    private boolean removed;
+
+    TimeSeries(int pointsPerChunk, SegmentStore segments) {
+        this.pointsPerChunk = pointsPerChunk;
+        this.segments = segments;
+    }
+
+    /**
+     * @return {@code false}, если ряд уже удален и точка не записана
+     */
+    synchronized boolean append(long timestamp, double value) {
+        if (removed) {
+            return false;
+        }
+        lastTimestamp = Math.max(timestamp, lastTimestamp);
+        head.append(lastTimestamp, value);
+        if (head.count() >= pointsPerChunk) {
+            seal();
+        }
+        return true;
+    }
+
+    /**
+     * Удаляет блоки, которые закончились раньше {@code cutoff}, и открытый блок, если его последняя
+     * точка раньше {@code cutoff}.
+     *
+     * @return {@code true}, если точек не осталось и ряд удален
+     */
+    synchronized boolean purge(long cutoff) {
+        int live = firstOverlapping(sealed, first, end, cutoff);
+        for (int i = first; i < live; i++) {
+            segments.release(sealed[i]);
+        }
+        first = live;
+        if (head.count() > 0 && lastTimestamp < cutoff) {
+            head = new ChunkEncoder();
+        }
+        removed = first == end && head.count() == 0;
+        return removed;
+    }
+
+    synchronized void remove() {
+        for (int i = first; i < end; i++) {
+            segments.release(sealed[i]);
+        }
+        sealed = NO_CHUNKS;
+        first = 0;
+        end = 0;
+        head = new ChunkEncoder();
+        removed = true;
+    }
+
+    void query(long from, long to, Buckets buckets) {
+        Chunk[] chunks;
+        int chunksStart;
+        int chunksEnd;
+        ByteBuffer headData;
+        int headCount;
+        synchronized (this) {
+            chunks = sealed;
+            chunksStart = first;
+            chunksEnd = end;
+            headCount = head.count();
+            BitWriter out = head.output();
+            headData = headCount > 0 ? ByteBuffer.wrap(Arrays.copyOf(out.buffer(), out.byteLength())) : null;
+        }
+        for (int i = firstOverlapping(chunks, chunksStart, chunksEnd, from); i < chunksEnd; i++) {
+            Chunk chunk = chunks[i];
+            if (chunk.minTimestamp() >= to) {
+                return;
+            }
+            if (chunk.minTimestamp() >= from && chunk.maxTimestamp() < to
+                    && buckets.sameBucket(chunk.minTimestamp(), chunk.maxTimestamp())) {
+                buckets.addSummary(chunk);
+            } else {
+                chunk.decode(from, to, buckets::add);
+            }
+        }
+        if (headData != null) {
+            Chunk.decode(headData, headCount, from, to, buckets::add);
+        }
+    }
+
+    private void seal() {
+        if (end == sealed.length) {
+            int live = end - first;
+            Chunk[] next = new Chunk[Math.max(INITIAL_CAPACITY, live * 2)];
+            System.arraycopy(sealed, first, next, 0, live);
+            sealed = next;
+            first = 0;
+            end = live;
+        }
+        sealed[end++] = segments.seal(head);
+        head = new ChunkEncoder();
+    }
+
+    /**
+     * Индекс первого блока из {@code [low, high)}, который заканчивается не раньше {@code from}.
+     */
+    private static int firstOverlapping(Chunk[] chunks, int low, int high, long from) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid].maxTimestamp() < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,7 @@
+package com.pipemasters.demoadmink.timeseries;
+
+/**
+ * Точка ряда: начало интервала (мс от эпохи) и свернутое значение.
+ */
+public record TimeSeriesPoint(long timestamp, double value) {
+}
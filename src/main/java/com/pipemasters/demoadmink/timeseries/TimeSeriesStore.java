@@ -0,0 +1,152 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Встроенное хранилище временных рядов. Точки сжимаются блоками по {@code pointsPerChunk}
+ * (см. {@link ChunkEncoder}), запечатанные блоки дописываются в сегменты, при заданном
+ * каталоге — отображенные в память. Запрос прореживает диапазон до интервалов {@code step};
+ * блоки, целиком лежащие в одном интервале, учитываются по сводке без распаковки, поэтому
+ * длинный диапазон с крупным шагом не требует обхода каждой точки.
+ * <p>
+ * Срок хранения {@code retention} отсчитывается от самой поздней записанной метки, а не от часов:
+ * блоки, закончившиеся раньше, удаляются, ряд без точек удаляется целиком. Если сегменты занимают больше
+ * {@code maxBytes}, удаляются самые старые блоки, пока не освободится старейший сегмент; бюджет может
+ * быть превышен на один сегмент. Нулевые значения отключают соответствующее ограничение.
+ */
+public class TimeSeriesStore implements AutoCloseable {
+
+    public static final int MAX_BUCKETS = 10_000;
+
+    private final Map<String, TimeSeries> series = new ConcurrentHashMap<>();
+    private final int pointsPerChunk;
+    private final SegmentStore segments;
+    private final long retentionMillis;
+    private final long purgeIntervalMillis;
+    private final long maxBytes;
+    private final AtomicLong newestTimestamp = new AtomicLong(Long.MIN_VALUE);
+    private final ReentrantLock purgeLock = new ReentrantLock();
+    private volatile long purgedAt = Long.MIN_VALUE;
+    private final Counter pointsCounter;
+    private final Timer queryTimer;
+
+    public TimeSeriesStore(String name, Path directory, int pointsPerChunk, int segmentSize, Duration retention,
+                           long maxBytes, MeterRegistry meterRegistry) {
+        if (maxBytes > 0 && maxBytes < 2L * segmentSize) {
+            throw new IllegalArgumentException("Time-series size limit must hold at least two segments");
+        }
+        this.pointsPerChunk = pointsPerChunk;
+        this.segments = new SegmentStore(directory, segmentSize);
+        this.retentionMillis = retention.toMillis();
+        // Просроченные блоки удаляются не чаще, чем раз в 1/16 срока хранения
+        this.purgeIntervalMillis = Math.max(1, retentionMillis / 16);
+        this.maxBytes = maxBytes;
+        this.pointsCounter = Counter.builder(name + "_timeseries_points_total")
+                .description("Number of points appended to the time-series store")
+                .register(meterRegistry);
+        this.queryTimer = Timer.builder(name + "_timeseries_query_duration")
+                .description("Duration of time-series range queries")
+                .register(meterRegistry);
+        Gauge.builder(name + "_timeseries_series", series, Map::size)
+                .description("Number of series in the time-series store")
+                .register(meterRegistry);
+        Gauge.builder(name + "_timeseries_sealed_bytes", segments, SegmentStore::usedBytes)
+                .description("Compressed bytes of sealed time-series chunks")
+                .register(meterRegistry);
+        Gauge.builder(name + "_timeseries_allocated_bytes", segments, SegmentStore::allocatedBytes)
+                .description("Bytes allocated for time-series segments")
+                .register(meterRegistry);
+    }
+
+    public void append(String name, long timestamp, double value) {
+        while (!series.computeIfAbsent(name, key -> new TimeSeries(pointsPerChunk, segments)).append(timestamp, value)) {
+            // Ряд удалили между поиском и записью: computeIfAbsent создаст новый
+        }
+        pointsCounter.increment();
+        enforceLimits(timestamp);
+    }
+
+    /**
+     * Удаляет ряд со всеми точками.
+     */
+    public void remove(String name) {
+        TimeSeries removed = series.remove(name);
+        if (removed != null) {
+            removed.remove();
+        }
+    }
+
+    /**
+     * Точки ряда в {@code [from, to)}, свернутые по интервалам {@code step}; пустые интервалы пропускаются.
+     *
+     * @throws IllegalArgumentException если диапазон пуст или интервалов больше {@link #MAX_BUCKETS}
+     */
+    public List<TimeSeriesPoint> query(String name, long from, long to, Duration step, Aggregation aggregation) {
+        long stepMillis = step.toMillis();
+        if (stepMillis <= 0) {
+            throw new IllegalArgumentException("Step must be positive: " + step);
+        }
+        if (to <= from) {
+            throw new IllegalArgumentException("Range end must be after its start");
+        }
+        if ((to - from + stepMillis - 1) / stepMillis > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range contains more than " + MAX_BUCKETS + " steps");
+        }
+        TimeSeries timeSeries = series.get(name);
+        if (timeSeries == null) {
+            return List.of();
+        }
+        return queryTimer.record(() -> {
+            Buckets buckets = new Buckets(from, to, stepMillis, aggregation);
+            timeSeries.query(from, to, buckets);
+            return buckets.toPoints();
+        });
+    }
+
+    @Override
+    public void close() {
+        segments.close();
+    }
+
+    private void enforceLimits(long timestamp) {
+        long newest = newestTimestamp.accumulateAndGet(timestamp, Math::max);
+        boolean expired = retentionMillis > 0
+                && (purgedAt == Long.MIN_VALUE || newest - purgedAt >= purgeIntervalMillis);
+        boolean overBudget = maxBytes > 0 && segments.allocatedBytes() > maxBytes;
+        if ((!expired && !overBudget) || !purgeLock.tryLock()) {
+            return;
+        }
+        try {
+            if (expired) {
+                purgedAt = newest;
+                purge(newest - retentionMillis);
+            }
+            while (maxBytes > 0 && segments.allocatedBytes() > maxBytes) {
+                long oldest = segments.oldestSegmentMaxTimestamp();
+                if (oldest == Long.MIN_VALUE) {
+                    return;
+                }
+                purge(oldest + 1);
+            }
+        } finally {
+            purgeLock.unlock();
+        }
+    }
+
+    private void purge(long cutoff) {
+        for (String name : series.keySet()) {
+            series.computeIfPresent(name, (key, timeSeries) -> timeSeries.purge(cutoff) ? null : timeSeries);
+        }
+    }
+}
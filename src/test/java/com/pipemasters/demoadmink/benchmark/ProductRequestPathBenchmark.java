@@ -0,0 +1,88 @@
+package com.pipemasters.demoadmink.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Работа сервиса и Jackson на один запрос к {@code /api/products} без HTTP-слоя.
+ * Запуск с замером аллокаций: {@code ./mvnw -Pjmh verify -DskipTests} (профилировщик {@code -prof gc}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductRequestPathBenchmark {
+
+    private static final int PRODUCTS = 100;
+    private static final long PRODUCT_ID = 42L;
+
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+    private byte[] createBody;
+    private byte[] updateBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        AppProperties properties = new AppProperties();
+        properties.getSeedData().setEnabled(false);
+        productService = new ProductService(new SimpleMeterRegistry(), properties);
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productService.createProduct(product(i));
+        }
+        createBody = objectMapper.writeValueAsBytes(product(7));
+        updateBody = objectMapper.writeValueAsBytes(product(3));
+    }
+
+    @Benchmark
+    public byte[] getById() throws Exception {
+        return objectMapper.writeValueAsBytes(productService.getProductById(PRODUCT_ID).orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] getAll() throws Exception {
+        return objectMapper.writeValueAsBytes(productService.getAllProducts());
+    }
+
+    @Benchmark
+    public byte[] update() throws Exception {
+        ProductDto request = objectMapper.readValue(updateBody, ProductDto.class);
+        return objectMapper.writeValueAsBytes(productService.updateProduct(PRODUCT_ID, request).orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] createAndDelete() throws Exception {
+        ProductDto request = objectMapper.readValue(createBody, ProductDto.class);
+        Product created = productService.createProduct(request);
+        byte[] response = objectMapper.writeValueAsBytes(created);
+        productService.deleteProduct(created.id());
+        return response;
+    }
+
+    private static ProductDto product(int i) {
+        return ProductDto.builder()
+                .name("Laptop " + (i % 10))
+                .description("High-performance laptop")
+                .price(new BigDecimal("999.99"))
+                .quantity(50 + i)
+                .build();
+    }
+}
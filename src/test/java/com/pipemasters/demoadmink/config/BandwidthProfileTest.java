@@ -0,0 +1,82 @@
+package com.pipemasters.demoadmink.config;
+
+import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.grpc.port=0")
+@ActiveProfiles("bandwidth")
+class BandwidthProfileTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void largeList_shouldBeGzipped_whenClientAcceptsIt() throws Exception {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            productService.createProduct(ProductDto.builder()
+                    .name("Product " + i)
+                    .description("Description of product " + i)
+                    .price(new BigDecimal("10.00"))
+                    .quantity(i)
+                    .build());
+        }
+
+        // When
+        HttpResponse<byte[]> plain = send("/api/products", null, HttpClient.Version.HTTP_1_1);
+        HttpResponse<byte[]> gzipped = send("/api/products", "gzip", HttpClient.Version.HTTP_1_1);
+
+        // Then
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(gzipped.body().length * 3 < plain.body().length,
+                "gzip " + gzipped.body().length + " bytes vs plain " + plain.body().length);
+    }
+
+    @Test
+    void smallResponse_shouldNotBeCompressed() throws Exception {
+        // When
+        HttpResponse<byte[]> response = send("/api/products/1", "gzip", HttpClient.Version.HTTP_1_1);
+
+        // Then
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(String.valueOf(response.body().length), response.headers().firstValue("Content-Length").orElse(null));
+    }
+
+    @Test
+    void server_shouldUpgradeToH2c() throws Exception {
+        // When
+        HttpResponse<byte[]> response = send("/api/products/1", null, HttpClient.Version.HTTP_2);
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+    }
+
+    private HttpResponse<byte[]> send(String path, String acceptEncoding, HttpClient.Version version) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .version(version)
+                .GET();
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
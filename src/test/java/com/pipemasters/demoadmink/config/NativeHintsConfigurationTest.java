@@ -0,0 +1,43 @@
+package com.pipemasters.demoadmink.config;
+
+import com.pipemasters.demoadmink.grpc.proto.CreateProductRequest;
+import com.pipemasters.demoadmink.grpc.proto.UpsertSummary;
+import com.pipemasters.demoadmink.monitoring.EntityOperationEvent;
+import com.pipemasters.demoadmink.dto.TimeSeriesDto;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.replication.ReplicationBatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeHintsConfigurationTest {
+
+    @Test
+    void registerHints_shouldCoverTypesReachedOnlyByReflection() throws Exception {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new NativeHintsConfiguration.ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        List<Class<?>> bound = List.of(AnnotationUtils.findAnnotation(NativeHintsConfiguration.class,
+                RegisterReflectionForBinding.class).classes());
+
+        // Then
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CreateProductRequest.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UpsertSummary.Builder.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(EntityOperationEvent.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(Class.forName(NativeHintsConfiguration.GRPC_SERVER_PROVIDER)).test(hints));
+        assertTrue(bound.containsAll(List.of(ReplicationBatch.class, Mutation.class, TimeSeriesDto.class)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.pipemasters.demoadmink.controller;
+
+import com.pipemasters.demoadmink.service.InventoryHistoryService;
+import com.pipemasters.demoadmink.timeseries.Aggregation;
+import com.pipemasters.demoadmink.timeseries.TimeSeriesPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = InventoryHistoryController.class, properties = "app.time-series.enabled=true")
+class InventoryHistoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InventoryHistoryService inventoryHistoryService;
+
+    @Test
+    void getProductQuantity_shouldReturnDownsampledSeries() throws Exception {
+        // Given
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant to = Instant.parse("2026-01-01T02:00:00Z");
+        when(inventoryHistoryService.getProductQuantity(1L, from, to, Duration.ofMinutes(30), Aggregation.MAX))
+                .thenReturn(List.of(new TimeSeriesPoint(from.toEpochMilli(), 5.0)));
+
+        // When & Then
+        mockMvc.perform(get("/api/inventory/history/products/1/quantity")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("to", "2026-01-01T02:00:00Z")
+                        .param("step", "PT30M")
+                        .param("aggregation", "MAX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.series").value("product:1:quantity"))
+                .andExpect(jsonPath("$.aggregation").value("MAX"))
+                .andExpect(jsonPath("$.points.length()").value(1))
+                .andExpect(jsonPath("$.points[0].timestamp").value(from.toEpochMilli()))
+                .andExpect(jsonPath("$.points[0].value").value(5.0));
+    }
+
+    @Test
+    void getTotalValue_shouldUseDefaults() throws Exception {
+        // Given
+        when(inventoryHistoryService.getTotalValue(any(), any(), eq(Duration.ofHours(1)), eq(Aggregation.LAST)))
+                .thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/inventory/history/total-value"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.series").value("inventory:total_value"))
+                .andExpect(jsonPath("$.points.length()").value(0));
+    }
+
+    @Test
+    void getTotalQuantity_shouldReturnBadRequest_whenRangeIsInvalid() throws Exception {
+        // Given
+        when(inventoryHistoryService.getTotalQuantity(any(), any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Range contains more than 10000 steps"));
+
+        // When & Then
+        mockMvc.perform(get("/api/inventory/history/total-quantity").param("step", "PT1S"))
+                .andExpect(status().isBadRequest());
+    }
+}
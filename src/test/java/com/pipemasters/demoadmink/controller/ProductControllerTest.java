@@ -3,6 +3,10 @@ package com.pipemasters.demoadmink.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pipemasters.demoadmink.dto.ProductDto;
 import com.pipemasters.demoadmink.service.ProductService;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.support.IdempotencyKeyReusedException;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
+import com.pipemasters.demoadmink.tenant.TenantQuotaExceededException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -35,9 +39,9 @@ class ProductControllerTest {
     @Test
     void getAllProducts_shouldReturnAllProducts() throws Exception {
         // Given
-        List<ProductDto> products = List.of(
-                ProductDto.builder().id(1L).name("Laptop").price(new BigDecimal("999.99")).quantity(10).build(),
-                ProductDto.builder().id(2L).name("Phone").price(new BigDecimal("699.99")).quantity(20).build()
+        List<Product> products = List.of(
+                new Product(1L, "Laptop", null, new BigDecimal("999.99"), 10),
+                new Product(2L, "Phone", null, new BigDecimal("699.99"), 20)
         );
         when(productService.getAllProducts()).thenReturn(products);
 
@@ -52,13 +56,7 @@ class ProductControllerTest {
     @Test
     void getProductById_shouldReturnProduct_whenExists() throws Exception {
         // Given
-        ProductDto product = ProductDto.builder()
-                .id(1L)
-                .name("Laptop")
-                .description("High-end laptop")
-                .price(new BigDecimal("999.99"))
-                .quantity(10)
-                .build();
+        Product product = new Product(1L, "Laptop", "High-end laptop", new BigDecimal("999.99"), 10);
         when(productService.getProductById(1L)).thenReturn(Optional.of(product));
 
         // When & Then
@@ -87,13 +85,7 @@ class ProductControllerTest {
                 .price(new BigDecimal("199.99"))
                 .quantity(5)
                 .build();
-        ProductDto createdProduct = ProductDto.builder()
-                .id(3L)
-                .name("New Product")
-                .description("New description")
-                .price(new BigDecimal("199.99"))
-                .quantity(5)
-                .build();
+        Product createdProduct = new Product(3L, "New Product", "New description", new BigDecimal("199.99"), 5);
         when(productService.createProduct(any(ProductDto.class))).thenReturn(createdProduct);
 
         // When & Then
@@ -105,6 +97,61 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.name").value("New Product"));
     }
 
+    @Test
+    void createProduct_shouldReturnStoredProduct_whenIdempotencyKeyIsReplayed() throws Exception {
+        // Given
+        ProductDto inputProduct = ProductDto.builder().name("New Product").price(new BigDecimal("199.99")).quantity(5).build();
+        Product createdProduct = new Product(3L, "New Product", null, new BigDecimal("199.99"), 5);
+        when(productService.createProduct(any(ProductDto.class), eq("order-1")))
+                .thenReturn(new IdempotencyStore.Result<>(createdProduct, true));
+
+        // When & Then
+        mockMvc.perform(post("/api/products")
+                        .header(IdempotencyStore.KEY_HEADER, "order-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputProduct)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(3));
+    }
+
+    @Test
+    void createProduct_shouldReturn400_whenIdempotencyKeyIsInvalid() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/products")
+                        .header(IdempotencyStore.KEY_HEADER, "k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createProduct_shouldReturn422_whenIdempotencyKeyIsReusedWithDifferentBody() throws Exception {
+        // Given
+        when(productService.createProduct(any(ProductDto.class), eq("order-1")))
+                .thenThrow(new IdempotencyKeyReusedException("order-1"));
+
+        // When & Then
+        mockMvc.perform(post("/api/products")
+                        .header(IdempotencyStore.KEY_HEADER, "order-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void createProduct_shouldReturn403_whenTenantQuotaIsReached() throws Exception {
+        // Given
+        when(productService.createProduct(any(ProductDto.class)))
+                .thenThrow(new TenantQuotaExceededException("default", "products", 100_000));
+
+        // When & Then
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void updateProduct_shouldReturnUpdatedProduct_whenExists() throws Exception {
         // Given
@@ -113,12 +160,7 @@ class ProductControllerTest {
                 .price(new BigDecimal("1299.99"))
                 .quantity(15)
                 .build();
-        ProductDto updatedProduct = ProductDto.builder()
-                .id(1L)
-                .name("Updated Product")
-                .price(new BigDecimal("1299.99"))
-                .quantity(15)
-                .build();
+        Product updatedProduct = new Product(1L, "Updated Product", null, new BigDecimal("1299.99"), 15);
         when(productService.updateProduct(eq(1L), any(ProductDto.class))).thenReturn(Optional.of(updatedProduct));
 
         // When & Then
@@ -162,4 +204,56 @@ class ProductControllerTest {
         mockMvc.perform(delete("/api/products/999"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void restoreProduct_shouldReturnRestoredProduct_orNotFound() throws Exception {
+        // Given
+        Product product = new Product(1L, "Laptop", "Description", new BigDecimal("999.99"), 10);
+        when(productService.restoreProduct(1L)).thenReturn(Optional.of(product));
+        when(productService.restoreProduct(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(post("/api/products/1/restore"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Laptop"));
+        mockMvc.perform(post("/api/products/999/restore"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllProducts_shouldReturnOnlyRequestedFields_whenFieldsGiven() throws Exception {
+        // Given
+        List<Product> products = List.of(
+                new Product(1L, "Laptop", "Long description", new BigDecimal("999.99"), 10)
+        );
+        when(productService.getAllProducts()).thenReturn(products);
+
+        // When & Then
+        mockMvc.perform(get("/api/products").param("fields", "id,price,quantity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].price").value(999.99))
+                .andExpect(jsonPath("$[0].quantity").value(10))
+                .andExpect(jsonPath("$[0].name").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    void getProductById_shouldReturnOnlyRequestedFields_whenFieldsGiven() throws Exception {
+        // Given
+        Product product = new Product(1L, "Laptop", "Long description", new BigDecimal("999.99"), 10);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"name\":\"Laptop\"}", true));
+    }
+
+    @Test
+    void getAllProducts_shouldReturn400_whenUnknownField() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products").param("fields", "id,secret"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,80 @@
+package com.pipemasters.demoadmink.controller;
+
+import com.pipemasters.demoadmink.dto.AgeBandDto;
+import com.pipemasters.demoadmink.dto.PriceBandDto;
+import com.pipemasters.demoadmink.service.ReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReportController.class)
+class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportService reportService;
+
+    @Test
+    void getValueByPriceBand_shouldReturnBands() throws Exception {
+        // Given
+        when(reportService.getValueByPriceBand()).thenReturn(CompletableFuture.completedFuture(List.of(
+                PriceBandDto.builder().from(BigDecimal.ZERO).to(BigDecimal.TEN)
+                        .productCount(2).totalQuantity(5).totalValue(new BigDecimal("12.50")).build())));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/reports/products/value-by-price-band"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productCount").value(2))
+                .andExpect(jsonPath("$[0].totalValue").value(12.50));
+    }
+
+    @Test
+    void getLowStock_shouldReturnBadRequest_whenLimitIsInvalid() throws Exception {
+        // Given
+        when(reportService.getLowStock(any(), any())).thenThrow(new IllegalArgumentException("Invalid limit"));
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/reports/products/low-stock").param("limit", "100000"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAgeDistribution_shouldReturnBands() throws Exception {
+        // Given
+        when(reportService.getAgeDistribution()).thenReturn(CompletableFuture.completedFuture(List.of(
+                AgeBandDto.builder().from(20).to(30).userCount(7).build())));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/reports/users/age-distribution"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].from").value(20))
+                .andExpect(jsonPath("$[0].userCount").value(7));
+    }
+}
@@ -3,6 +3,7 @@ package com.pipemasters.demoadmink.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pipemasters.demoadmink.dto.UserDto;
 import com.pipemasters.demoadmink.service.UserService;
+import com.pipemasters.demoadmink.model.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -34,9 +35,9 @@ class UserControllerTest {
     @Test
     void getAllUsers_shouldReturnAllUsers() throws Exception {
         // Given
-        List<UserDto> users = List.of(
-                UserDto.builder().id(1L).name("John").email("john@test.com").age(30).build(),
-                UserDto.builder().id(2L).name("Jane").email("jane@test.com").age(25).build()
+        List<User> users = List.of(
+                new User(1L, "John", "john@test.com", 30),
+                new User(2L, "Jane", "jane@test.com", 25)
         );
         when(userService.getAllUsers()).thenReturn(users);
 
@@ -51,7 +52,7 @@ class UserControllerTest {
     @Test
     void getUserById_shouldReturnUser_whenExists() throws Exception {
         // Given
-        UserDto user = UserDto.builder().id(1L).name("John").email("john@test.com").age(30).build();
+        User user = new User(1L, "John", "john@test.com", 30);
         when(userService.getUserById(1L)).thenReturn(Optional.of(user));
 
         // When & Then
@@ -75,7 +76,7 @@ class UserControllerTest {
     void createUser_shouldReturn201AndCreatedUser() throws Exception {
         // Given
         UserDto inputUser = UserDto.builder().name("New User").email("new@test.com").age(28).build();
-        UserDto createdUser = UserDto.builder().id(3L).name("New User").email("new@test.com").age(28).build();
+        User createdUser = new User(3L, "New User", "new@test.com", 28);
         when(userService.createUser(any(UserDto.class))).thenReturn(createdUser);
 
         // When & Then
@@ -91,7 +92,7 @@ class UserControllerTest {
     void updateUser_shouldReturnUpdatedUser_whenExists() throws Exception {
         // Given
         UserDto inputUser = UserDto.builder().name("Updated").email("updated@test.com").age(35).build();
-        UserDto updatedUser = UserDto.builder().id(1L).name("Updated").email("updated@test.com").age(35).build();
+        User updatedUser = new User(1L, "Updated", "updated@test.com", 35);
         when(userService.updateUser(eq(1L), any(UserDto.class))).thenReturn(Optional.of(updatedUser));
 
         // When & Then
@@ -135,4 +136,26 @@ class UserControllerTest {
         mockMvc.perform(delete("/api/users/999"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void getAllUsers_shouldReturnOnlyRequestedFields_whenFieldsGiven() throws Exception {
+        // Given
+        List<User> users = List.of(new User(1L, "John", "john@test.com", 30));
+        when(userService.getAllUsers()).thenReturn(users);
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"email\":\"john@test.com\"}]", true));
+    }
+
+    @Test
+    void getUserById_shouldReturn404_whenFieldsGivenAndNotExists() throws Exception {
+        // Given
+        when(userService.getUserById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/999").param("fields", "id"))
+                .andExpect(status().isNotFound());
+    }
 }
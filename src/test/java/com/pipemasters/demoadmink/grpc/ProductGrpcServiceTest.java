@@ -0,0 +1,257 @@
+package com.pipemasters.demoadmink.grpc;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.grpc.proto.CreateProductRequest;
+import com.pipemasters.demoadmink.grpc.proto.GetProductRequest;
+import com.pipemasters.demoadmink.grpc.proto.ListProductsRequest;
+import com.pipemasters.demoadmink.grpc.proto.Product;
+import com.pipemasters.demoadmink.grpc.proto.ProductBatch;
+import com.pipemasters.demoadmink.grpc.proto.ProductCatalogGrpc;
+import com.pipemasters.demoadmink.grpc.proto.ProductInput;
+import com.pipemasters.demoadmink.grpc.proto.ProductUpsert;
+import com.pipemasters.demoadmink.grpc.proto.UpsertSummary;
+import com.pipemasters.demoadmink.replication.FollowerServerInterceptor;
+import com.pipemasters.demoadmink.service.ProductService;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import com.pipemasters.demoadmink.tenant.TenantRegistry;
+import com.pipemasters.demoadmink.tenant.TenantServerInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductGrpcServiceTest {
+
+    private ProductService productService;
+    private Server server;
+    private ManagedChannel channel;
+    private ProductCatalogGrpc.ProductCatalogBlockingStub blockingStub;
+    private ProductCatalogGrpc.ProductCatalogStub asyncStub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AppProperties properties = new AppProperties();
+        productService = new ProductService(meterRegistry, properties);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new ProductGrpcService(productService, 16, 4))
+                .intercept(new TenantServerInterceptor("X-Tenant-Id",
+                        new TenantRegistry(properties.getTenancy(), meterRegistry)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        blockingStub = ProductCatalogGrpc.newBlockingStub(channel);
+        asyncStub = ProductCatalogGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow();
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        productService.close();
+    }
+
+    @Test
+    void getProduct_shouldReturnProduct_orNotFound() {
+        // When
+        Product product = blockingStub.getProduct(GetProductRequest.newBuilder().setId(1L).build());
+        StatusRuntimeException missing = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.getProduct(GetProductRequest.newBuilder().setId(999L).build()));
+
+        // Then
+        assertEquals("Laptop", product.getName());
+        assertEquals("999.99", product.getPrice());
+        assertEquals(50, product.getQuantity());
+        assertFalse(product.hasExpiresAt());
+        assertEquals(Status.Code.NOT_FOUND, missing.getStatus().getCode());
+    }
+
+    @Test
+    void createProduct_shouldUseTenantFromMetadata_andReplayIdempotencyKey() {
+        // Given
+        CreateProductRequest request = CreateProductRequest.newBuilder()
+                .setProduct(input("Tablet", "299.99"))
+                .setIdempotencyKey("sync-1")
+                .build();
+        ProductCatalogGrpc.ProductCatalogBlockingStub acme = blockingStub.withInterceptors(
+                MetadataUtils.newAttachHeadersInterceptor(tenant("acme")));
+
+        // When
+        Product created = acme.createProduct(request);
+        Product replayed = acme.createProduct(request);
+
+        // Then
+        assertEquals(1L, created.getId());
+        assertEquals(created, replayed);
+        assertEquals(1, TenantContext.callAs("acme", productService::getAllProducts).size());
+        assertEquals(2, productService.getAllProducts().size());
+    }
+
+    @Test
+    void createProduct_shouldReturnInvalidArgument_whenPriceIsNotDecimal() {
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class, () -> blockingStub.createProduct(
+                CreateProductRequest.newBuilder().setProduct(input("Tablet", "cheap")).build()));
+
+        // Then
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
+    @Test
+    void listProducts_shouldStreamAllProductsInBatches_toClientRequestingOneAtATime() throws Exception {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            productService.createProduct(GrpcMapping.toDto(input("Item " + i, "1.00")));
+        }
+        List<ProductBatch> received = new ArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        // When
+        asyncStub.listProducts(ListProductsRequest.newBuilder().setBatchSize(25).build(),
+                new ClientResponseObserver<ListProductsRequest, ProductBatch>() {
+
+            private ClientCallStreamObserver<ListProductsRequest> requestStream;
+
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ListProductsRequest> requestStream) {
+                this.requestStream = requestStream;
+                requestStream.disableAutoRequestWithInitial(1);
+            }
+
+            @Override
+            public void onNext(ProductBatch batch) {
+                received.add(batch);
+                requestStream.request(1);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        });
+        completed.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of(25, 25, 25, 25, 2), received.stream().map(ProductBatch::getProductsCount).toList());
+        assertEquals("Laptop", received.get(0).getProducts(0).getName());
+    }
+
+    @Test
+    void upsertProducts_shouldApplyStream_andReportOutcomes() throws Exception {
+        // Given
+        CompletableFuture<UpsertSummary> summary = new CompletableFuture<>();
+        StreamObserver<ProductUpsert> upserts = asyncStub.upsertProducts(observer(summary));
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            upserts.onNext(ProductUpsert.newBuilder().setProduct(input("Bulk " + i, "5.00")).build());
+        }
+        upserts.onNext(ProductUpsert.newBuilder().setId(1L).setProduct(input("Laptop Pro", "1299.99")).build());
+        upserts.onNext(ProductUpsert.newBuilder().setId(999L).setProduct(input("Ghost", "1.00")).build());
+        upserts.onCompleted();
+
+        // Then
+        UpsertSummary result = summary.get(5, TimeUnit.SECONDS);
+        assertEquals(50, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getNotFound());
+        assertEquals(52, productService.getAllProducts().size());
+        assertEquals("Laptop Pro", productService.getProductById(1L).orElseThrow().name());
+    }
+
+    @Test
+    void upsertProducts_shouldStopAtFirstInvalidMessage_keepingAppliedChanges() {
+        // Given
+        CompletableFuture<UpsertSummary> summary = new CompletableFuture<>();
+        StreamObserver<ProductUpsert> upserts = asyncStub.upsertProducts(observer(summary));
+
+        // When
+        upserts.onNext(ProductUpsert.newBuilder().setProduct(input("Valid", "5.00")).build());
+        upserts.onNext(ProductUpsert.newBuilder().setProduct(input("Invalid", "n/a")).build());
+        upserts.onNext(ProductUpsert.newBuilder().setProduct(input("Skipped", "5.00")).build());
+        upserts.onCompleted();
+
+        // Then
+        Exception error = assertThrows(Exception.class, () -> summary.get(5, TimeUnit.SECONDS));
+        assertEquals(Status.Code.INVALID_ARGUMENT, Status.fromThrowable(error.getCause()).getCode());
+        assertEquals(3, productService.getAllProducts().size());
+    }
+
+    @Test
+    void followerInterceptor_shouldRejectWrites_andServeReads() throws Exception {
+        // Given
+        String name = InProcessServerBuilder.generateName();
+        Server follower = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(new ProductGrpcService(productService, 16, 4),
+                        new FollowerServerInterceptor(URI.create("http://leader:8080"), () -> false)))
+                .build()
+                .start();
+        ManagedChannel followerChannel = InProcessChannelBuilder.forName(name).build();
+        ProductCatalogGrpc.ProductCatalogBlockingStub stub = ProductCatalogGrpc.newBlockingStub(followerChannel);
+
+        // When
+        StatusRuntimeException write = assertThrows(StatusRuntimeException.class, () -> stub.createProduct(
+                CreateProductRequest.newBuilder().setProduct(input("Tablet", "1.00")).build()));
+        Product read = stub.getProduct(GetProductRequest.newBuilder().setId(1L).build());
+
+        // Then
+        assertEquals(Status.Code.FAILED_PRECONDITION, write.getStatus().getCode());
+        assertEquals("Laptop", read.getName());
+        followerChannel.shutdownNow();
+        follower.shutdownNow();
+    }
+
+    private static ProductInput input(String name, String price) {
+        return ProductInput.newBuilder().setName(name).setPrice(price).setQuantity(1).build();
+    }
+
+    private static Metadata tenant(String id) {
+        Metadata metadata = new Metadata();
+        metadata.put(Metadata.Key.of("x-tenant-id", Metadata.ASCII_STRING_MARSHALLER), id);
+        return metadata;
+    }
+
+    private static StreamObserver<UpsertSummary> observer(CompletableFuture<UpsertSummary> result) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(UpsertSummary summary) {
+                result.complete(summary);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+}
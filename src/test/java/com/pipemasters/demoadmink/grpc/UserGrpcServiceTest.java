@@ -0,0 +1,192 @@
+package com.pipemasters.demoadmink.grpc;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.grpc.proto.CreateUserRequest;
+import com.pipemasters.demoadmink.grpc.proto.GetUserRequest;
+import com.pipemasters.demoadmink.grpc.proto.ListUsersRequest;
+import com.pipemasters.demoadmink.grpc.proto.UpsertSummary;
+import com.pipemasters.demoadmink.grpc.proto.User;
+import com.pipemasters.demoadmink.grpc.proto.UserBatch;
+import com.pipemasters.demoadmink.grpc.proto.UserDirectoryGrpc;
+import com.pipemasters.demoadmink.grpc.proto.UserInput;
+import com.pipemasters.demoadmink.grpc.proto.UserUpsert;
+import com.pipemasters.demoadmink.service.UserService;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import com.pipemasters.demoadmink.tenant.TenantRegistry;
+import com.pipemasters.demoadmink.tenant.TenantServerInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserGrpcServiceTest {
+
+    private UserService userService;
+    private Server server;
+    private ManagedChannel channel;
+    private UserDirectoryGrpc.UserDirectoryBlockingStub blockingStub;
+    private UserDirectoryGrpc.UserDirectoryStub asyncStub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AppProperties properties = new AppProperties();
+        userService = new UserService(meterRegistry, properties);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new UserGrpcService(userService, 16, 4))
+                .intercept(new TenantServerInterceptor("X-Tenant-Id",
+                        new TenantRegistry(properties.getTenancy(), meterRegistry)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        blockingStub = UserDirectoryGrpc.newBlockingStub(channel);
+        asyncStub = UserDirectoryGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow();
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        userService.close();
+    }
+
+    @Test
+    void getUser_shouldReturnUser_orNotFound() {
+        // When
+        User user = blockingStub.getUser(GetUserRequest.newBuilder().setId(1L).build());
+        StatusRuntimeException missing = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.getUser(GetUserRequest.newBuilder().setId(999L).build()));
+
+        // Then
+        assertEquals("John Doe", user.getName());
+        assertEquals("john@example.com", user.getEmail());
+        assertEquals(30, user.getAge());
+        assertFalse(user.hasExpiresAt());
+        assertEquals(Status.Code.NOT_FOUND, missing.getStatus().getCode());
+        assertEquals("User 999 not found", missing.getStatus().getDescription());
+    }
+
+    @Test
+    void createUser_shouldUseTenantFromMetadata_andReplayIdempotencyKey() {
+        // Given
+        CreateUserRequest request = CreateUserRequest.newBuilder()
+                .setUser(input("Alice"))
+                .setIdempotencyKey("sync-1")
+                .build();
+        UserDirectoryGrpc.UserDirectoryBlockingStub acme = blockingStub.withInterceptors(
+                MetadataUtils.newAttachHeadersInterceptor(tenant("acme")));
+
+        // When
+        User created = acme.createUser(request);
+        User replayed = acme.createUser(request);
+
+        // Then
+        assertEquals(1L, created.getId());
+        assertEquals(created, replayed);
+        assertEquals(1, TenantContext.callAs("acme", userService::getAllUsers).size());
+        assertEquals(2, userService.getAllUsers().size());
+    }
+
+    @Test
+    void createUser_shouldReturnFailedPrecondition_whenKeyIsReusedWithAnotherUser() {
+        // Given
+        blockingStub.createUser(CreateUserRequest.newBuilder().setUser(input("Alice")).setIdempotencyKey("k").build());
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class, () -> blockingStub.createUser(
+                CreateUserRequest.newBuilder().setUser(input("Bob")).setIdempotencyKey("k").build()));
+
+        // Then
+        assertEquals(Status.Code.FAILED_PRECONDITION, error.getStatus().getCode());
+        assertEquals(3, userService.getAllUsers().size());
+    }
+
+    @Test
+    void listUsers_shouldStreamAllUsersInBatches() {
+        // Given
+        for (int i = 0; i < 40; i++) {
+            userService.createUser(GrpcMapping.toDto(input("User " + i)));
+        }
+
+        // When
+        List<Integer> batchSizes = new ArrayList<>();
+        Iterator<UserBatch> batches = blockingStub.listUsers(ListUsersRequest.newBuilder().setBatchSize(10).build());
+        batches.forEachRemaining(batch -> batchSizes.add(batch.getUsersCount()));
+        StatusRuntimeException negative = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.listUsers(ListUsersRequest.newBuilder().setBatchSize(-1).build()).hasNext());
+
+        // Then
+        assertEquals(List.of(10, 10, 10, 10, 2), batchSizes);
+        assertEquals(Status.Code.INVALID_ARGUMENT, negative.getStatus().getCode());
+    }
+
+    @Test
+    void upsertUsers_shouldApplyStream_andReportOutcomes() throws Exception {
+        // Given
+        CompletableFuture<UpsertSummary> summary = new CompletableFuture<>();
+        StreamObserver<UserUpsert> upserts = asyncStub.upsertUsers(observer(summary));
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            upserts.onNext(UserUpsert.newBuilder().setUser(input("Bulk " + i)).build());
+        }
+        upserts.onNext(UserUpsert.newBuilder().setId(1L).setUser(input("John Smith")).build());
+        upserts.onNext(UserUpsert.newBuilder().setId(999L).setUser(input("Ghost")).build());
+        upserts.onCompleted();
+
+        // Then
+        UpsertSummary result = summary.get(5, TimeUnit.SECONDS);
+        assertEquals(20, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getNotFound());
+        assertEquals(22, userService.getAllUsers().size());
+        assertEquals("John Smith", userService.getUserById(1L).orElseThrow().name());
+    }
+
+    private static UserInput input(String name) {
+        return UserInput.newBuilder().setName(name).setEmail(name.toLowerCase().replace(' ', '.') + "@example.com")
+                .setAge(40).build();
+    }
+
+    private static Metadata tenant(String id) {
+        Metadata metadata = new Metadata();
+        metadata.put(Metadata.Key.of("x-tenant-id", Metadata.ASCII_STRING_MARSHALLER), id);
+        return metadata;
+    }
+
+    private static StreamObserver<UpsertSummary> observer(CompletableFuture<UpsertSummary> result) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(UpsertSummary summary) {
+                result.complete(summary);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+}
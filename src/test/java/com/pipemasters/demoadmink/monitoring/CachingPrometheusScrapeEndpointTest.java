@@ -0,0 +1,92 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusOutputFormat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingPrometheusScrapeEndpointTest {
+
+    private PrometheusMeterRegistry meterRegistry;
+    private Counter counter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        counter = Counter.builder("cache_test_events_total").register(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        meterRegistry.close();
+    }
+
+    @Test
+    void scrape_shouldReuseRenderedOutputWithinStalenessWindow() {
+        // Given
+        try (CachingPrometheusScrapeEndpoint endpoint = endpoint(Duration.ofHours(1))) {
+            String first = scrape(endpoint);
+
+            // When
+            counter.increment();
+            String second = scrape(endpoint);
+
+            // Then
+            assertEquals(first, second);
+            assertTrue(second.contains("cache_test_events_total 0.0"));
+            assertEquals(1.0, meterRegistry.get("prometheus_scrape_cache_requests_total")
+                    .tag("result", "hit").counter().count());
+        }
+    }
+
+    @Test
+    void scrape_shouldRenderAgainWhenCacheIsStale() {
+        // Given
+        try (CachingPrometheusScrapeEndpoint endpoint = endpoint(Duration.ZERO)) {
+            scrape(endpoint);
+
+            // When
+            counter.increment();
+            String second = scrape(endpoint);
+
+            // Then
+            assertTrue(second.contains("cache_test_events_total 1.0"));
+        }
+    }
+
+    @Test
+    void scrape_shouldBypassCacheForFilteredRequests() {
+        // Given
+        try (CachingPrometheusScrapeEndpoint endpoint = endpoint(Duration.ofHours(1))) {
+            scrape(endpoint);
+
+            // When
+            counter.increment();
+            byte[] filtered = endpoint.scrape(PrometheusOutputFormat.CONTENT_TYPE_004,
+                    Set.of("cache_test_events")).getBody();
+
+            // Then
+            assertTrue(new String(filtered, StandardCharsets.UTF_8).contains("cache_test_events_total 1.0"));
+        }
+    }
+
+    private CachingPrometheusScrapeEndpoint endpoint(Duration maxStaleness) {
+        return new CachingPrometheusScrapeEndpoint(meterRegistry.getPrometheusRegistry(), new Properties(),
+                Duration.ofHours(1), maxStaleness, meterRegistry);
+    }
+
+    private String scrape(CachingPrometheusScrapeEndpoint endpoint) {
+        byte[] body = endpoint.scrape(PrometheusOutputFormat.CONTENT_TYPE_004, null).getBody();
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
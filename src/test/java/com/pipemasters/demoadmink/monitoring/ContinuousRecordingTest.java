@@ -0,0 +1,88 @@
+package com.pipemasters.demoadmink.monitoring;
+
+import com.pipemasters.demoadmink.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContinuousRecordingTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    @Test
+    void dump_shouldContainServiceOperationEvents() throws Exception {
+        // Given
+        ProductService productService = new ProductService(new SimpleMeterRegistry());
+        List<RecordedEvent> events;
+        try (ContinuousRecording recording = new ContinuousRecording("default", Duration.ofMinutes(5),
+                64 * 1024 * 1024, Duration.ZERO, dumpDirectory, 5)) {
+            productService.getProductById(1L);
+            productService.getProductById(999L);
+            productService.getAllProducts();
+
+            // When
+            Path dump = recording.dump(Duration.ofMinutes(1));
+            events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> event.getEventType().getName().equals(EntityOperationEvent.NAME))
+                    .toList();
+        }
+
+        // Then
+        RecordedEvent found = events.stream()
+                .filter(event -> event.getString("operation").equals("get_by_id") && event.getLong("id") == 1)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("products", found.getString("entity"));
+        assertEquals("default", found.getString("tenant"));
+        assertEquals(1, found.getInt("resultSize"));
+        assertTrue(events.stream().anyMatch(event -> event.getLong("id") == 999 && event.getInt("resultSize") == 0));
+        assertTrue(events.stream().anyMatch(event -> event.getString("operation").equals("get_all")
+                && event.getInt("resultSize") == 2));
+    }
+
+    @Test
+    void dump_shouldNotContainEnvironmentOrSystemProperties() throws Exception {
+        // Given
+        List<RecordedEvent> events;
+        try (ContinuousRecording recording = new ContinuousRecording("default", Duration.ofMinutes(5),
+                64 * 1024 * 1024, Duration.ofMillis(1), dumpDirectory, 5)) {
+
+            // When
+            events = RecordingFile.readAllEvents(recording.dump(Duration.ofMinutes(1)));
+        }
+
+        // Then
+        assertFalse(events.isEmpty());
+        assertTrue(events.stream().noneMatch(event ->
+                ContinuousRecording.SENSITIVE_EVENTS.contains(event.getEventType().getName())));
+    }
+
+    @Test
+    void dump_shouldKeepOnlyRecentDumps() throws Exception {
+        // Given
+        try (ContinuousRecording recording = new ContinuousRecording("default", Duration.ofMinutes(5),
+                64 * 1024 * 1024, Duration.ofMillis(1), dumpDirectory, 1)) {
+            recording.dump(Duration.ofMinutes(1));
+            Thread.sleep(5);
+
+            // When
+            Path latest = recording.dump(Duration.ofMinutes(1));
+
+            // Then
+            try (Stream<Path> files = Files.list(dumpDirectory)) {
+                assertEquals(List.of(latest), files.toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.pipemasters.demoadmink.perf;
+
+import com.pipemasters.demoadmink.grpc.proto.CreateProductRequest;
+import com.pipemasters.demoadmink.grpc.proto.GetProductRequest;
+import com.pipemasters.demoadmink.grpc.proto.ListProductsRequest;
+import com.pipemasters.demoadmink.grpc.proto.ProductBatch;
+import com.pipemasters.demoadmink.grpc.proto.ProductCatalogGrpc;
+import com.pipemasters.demoadmink.grpc.proto.ProductInput;
+import com.pipemasters.demoadmink.grpc.proto.ProductUpsert;
+import com.pipemasters.demoadmink.grpc.proto.UpsertSummary;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнение пропускной способности REST (JSON поверх HTTP/1.1) и gRPC на одних и тех же операциях
+ * с продуктами против запущенного экземпляра приложения.
+ * Запуск: {@code ./mvnw -Pgrpc-perf verify -DskipTests} (профиль сам поднимает приложение без квот арендатора).
+ *
+ * <p>Сценарии выполняются по очереди, каждый сначала через REST, затем через gRPC:
+ * <ul>
+ *     <li>{@code get} — чтение продукта по id, унарный вызов;</li>
+ *     <li>{@code list} — список всех продуктов, в gRPC потоковый ответ;</li>
+ *     <li>{@code create} — создание одного продукта;</li>
+ *     <li>{@code bulk} — загрузка {@code perf.bulkSize} продуктов: в REST отдельными POST,
+ *     в gRPC одним клиентским потоком.</li>
+ * </ul>
+ * Для {@code list} и {@code bulk} кроме вызовов в секунду важны сущности в секунду.
+ *
+ * <p>Параметры: {@code perf.baseUrl}, {@code perf.grpcTarget} (например {@code localhost:16565}),
+ * {@code perf.concurrency}, {@code perf.warmup}, {@code perf.duration}, {@code perf.seedEntities},
+ * {@code perf.bulkSize}, {@code perf.report}.
+ */
+public class GrpcRestComparison {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final ManagedChannel channel;
+    private final ProductCatalogGrpc.ProductCatalogBlockingStub blockingStub;
+    private final ProductCatalogGrpc.ProductCatalogStub asyncStub;
+    private final int bulkSize;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong entities = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+
+    private volatile boolean running;
+
+    GrpcRestComparison(String baseUrl, String grpcTarget, int bulkSize) {
+        this.baseUrl = baseUrl;
+        this.bulkSize = bulkSize;
+        this.channel = Grpc.newChannelBuilder(grpcTarget, InsecureChannelCredentials.create()).build();
+        this.blockingStub = ProductCatalogGrpc.newBlockingStub(channel);
+        this.asyncStub = ProductCatalogGrpc.newStub(channel);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("perf.baseUrl", "http://localhost:18080");
+        String grpcTarget = System.getProperty("perf.grpcTarget", "localhost:16565");
+        int concurrency = Integer.getInteger("perf.concurrency", 16);
+        Duration warmup = Duration.parse(System.getProperty("perf.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("perf.duration", "PT15S"));
+        int seedEntities = Integer.getInteger("perf.seedEntities", 1000);
+        int bulkSize = Integer.getInteger("perf.bulkSize", 500);
+        Path reportPath = Path.of(System.getProperty("perf.report", "target/perf/grpc-comparison.properties"));
+
+        GrpcRestComparison comparison = new GrpcRestComparison(baseUrl, grpcTarget, bulkSize);
+        try {
+            comparison.grpcBulk(seedEntities);
+            Map<String, Double> values = new TreeMap<>();
+            System.out.printf("%-14s %12s %14s %10s %10s %8s%n",
+                    "scenario", "calls/s", "entities/s", "p50 ms", "p99 ms", "errors");
+            for (Scenario scenario : comparison.scenarios()) {
+                Map<String, Double> rest = comparison.measure(scenario.name() + ".rest", scenario.rest(),
+                        concurrency, warmup, duration);
+                Map<String, Double> grpc = comparison.measure(scenario.name() + ".grpc", scenario.grpc(),
+                        concurrency, warmup, duration);
+                values.putAll(rest);
+                values.putAll(grpc);
+                double speedup = grpc.get(scenario.name() + ".grpc.entities") / rest.get(scenario.name() + ".rest.entities");
+                values.put(scenario.name() + ".speedup", speedup);
+                System.out.printf(Locale.ROOT, "%-14s gRPC/REST по сущностям в секунду: x%.2f%n", scenario.name(), speedup);
+            }
+            new PerfBaseline(values).save(reportPath, "Сравнение REST и gRPC");
+            System.out.println("Результаты записаны в " + reportPath);
+        } finally {
+            comparison.channel.shutdownNow();
+        }
+    }
+
+    List<Scenario> scenarios() {
+        // Список меряется до сценариев записи, чтобы оба протокола читали одинаковое число продуктов
+        return List.of(
+                new Scenario("get", this::restGet, this::grpcGet),
+                new Scenario("list", random -> restList(), random -> grpcList()),
+                new Scenario("create", random -> restCreate(random.nextInt(1_000_000)),
+                        random -> grpcCreate(random.nextInt(1_000_000))),
+                new Scenario("bulk", random -> restBulk(), random -> grpcBulk(bulkSize)));
+    }
+
+    Map<String, Double> measure(String key, Operation operation, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        run(operation, concurrency, warmup);
+        calls.set(0);
+        entities.set(0);
+        errors.set(0);
+        recorder.reset();
+        long started = System.nanoTime();
+        run(operation, concurrency, duration);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Double> values = new TreeMap<>();
+        values.put(key + "." + PerfBaseline.THROUGHPUT, calls.get() / seconds);
+        values.put(key + ".entities", entities.get() / seconds);
+        values.put(key + ".p50", histogram.getValueAtPercentile(50) / 1e6);
+        values.put(key + ".p99", histogram.getValueAtPercentile(99) / 1e6);
+        values.put(key + ".errors", (double) errors.get());
+        System.out.printf(Locale.ROOT, "%-14s %12.1f %14.1f %10.3f %10.3f %8d%n", key,
+                values.get(key + "." + PerfBaseline.THROUGHPUT), values.get(key + ".entities"),
+                values.get(key + ".p50"), values.get(key + ".p99"), errors.get());
+        return values;
+    }
+
+    private void run(Operation operation, int concurrency, Duration duration) throws InterruptedException {
+        running = true;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running) {
+                    long started = System.nanoTime();
+                    try {
+                        entities.addAndGet(operation.execute(random));
+                        calls.incrementAndGet();
+                        recorder.recordValue(Math.min(System.nanoTime() - started, MAX_LATENCY_NANOS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+        Thread.sleep(duration.toMillis());
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private long restGet(ThreadLocalRandom random) throws Exception {
+        return checked(http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + (1 + random.nextInt(100))))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray()), 200);
+    }
+
+    private long grpcGet(ThreadLocalRandom random) {
+        blockingStub.getProduct(GetProductRequest.newBuilder().setId(1 + random.nextInt(100)).build());
+        return 1;
+    }
+
+    private long restCreate(int seed) throws Exception {
+        return checked(http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(seed)))
+                .build(), HttpResponse.BodyHandlers.ofByteArray()), 201);
+    }
+
+    private long grpcCreate(int seed) {
+        blockingStub.createProduct(CreateProductRequest.newBuilder().setProduct(input(seed)).build());
+        return 1;
+    }
+
+    private long restList() throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        checked(response, 200);
+        // Каждый продукт в ответе содержит ровно одно поле "id"
+        return response.body().split("\"id\":", -1).length - 1;
+    }
+
+    private long grpcList() {
+        long count = 0;
+        Iterator<ProductBatch> batches = blockingStub.listProducts(ListProductsRequest.getDefaultInstance());
+        while (batches.hasNext()) {
+            count += batches.next().getProductsCount();
+        }
+        return count;
+    }
+
+    private long restBulk() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bulkSize; i++) {
+            restCreate(random.nextInt(1_000_000));
+        }
+        return bulkSize;
+    }
+
+    private long grpcBulk(int size) throws Exception {
+        CompletableFuture<UpsertSummary> summary = new CompletableFuture<>();
+        StreamObserver<ProductUpsert> upserts = asyncStub.upsertProducts(new StreamObserver<>() {
+            @Override
+            public void onNext(UpsertSummary value) {
+                summary.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                summary.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < size; i++) {
+            upserts.onNext(ProductUpsert.newBuilder().setProduct(input(random.nextInt(1_000_000))).build());
+        }
+        upserts.onCompleted();
+        return summary.get(1, TimeUnit.MINUTES).getCreated();
+    }
+
+    private static long checked(HttpResponse<?> response, int expectedStatus) {
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        return 1;
+    }
+
+    private static String json(int seed) {
+        return String.format(Locale.ROOT,
+                "{\"name\":\"load-%d\",\"description\":\"Load test product %d\",\"price\":%d.99,\"quantity\":%d}",
+                seed, seed, seed % 1000, seed % 500);
+    }
+
+    private static ProductInput input(int seed) {
+        return ProductInput.newBuilder()
+                .setName("load-" + seed)
+                .setDescription("Load test product " + seed)
+                .setPrice((seed % 1000) + ".99")
+                .setQuantity(seed % 500)
+                .build();
+    }
+
+    @FunctionalInterface
+    interface Operation {
+
+        /**
+         * @return сколько сущностей обработал вызов
+         */
+        long execute(ThreadLocalRandom random) throws Exception;
+    }
+
+    record Scenario(String name, Operation rest, Operation grpc) {
+    }
+}
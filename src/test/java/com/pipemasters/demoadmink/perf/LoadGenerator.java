@@ -0,0 +1,431 @@
+package com.pipemasters.demoadmink.perf;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Нагрузочный прогон против запущенного экземпляра приложения.
+ * Запуск: {@code ./mvnw -Pperf verify -DskipTests} (профиль сам поднимает и останавливает приложение).
+ *
+ * <p>Параметры задаются системными свойствами:
+ * <ul>
+ *     <li>{@code perf.baseUrl} — адрес приложения, по умолчанию {@code http://localhost:18080};</li>
+ *     <li>{@code perf.targets} — наборы эндпоинтов: {@code products}, {@code users};</li>
+ *     <li>{@code perf.mix} — веса операций, например {@code list=40,get=40,create=10,update=5,delete=5};</li>
+ *     <li>{@code perf.concurrency}, {@code perf.warmup}, {@code perf.duration} — число потоков и длительности (ISO-8601);</li>
+ *     <li>{@code perf.baseline}, {@code perf.threshold}, {@code perf.checkedMetrics} — файл базовой линии,
+ *     допустимое ухудшение (доля) и проверяемые метрики; по умолчанию проверяются только {@code throughput}
+ *     и {@code p50}: хвосты {@code p99}/{@code p999} одного прогона слишком шумные для порога 15%;</li>
+ *     <li>{@code perf.updateBaseline} — перезаписать базовую линию результатами прогона;</li>
+ *     <li>{@code perf.report} — куда записать результаты прогона;</li>
+ *     <li>{@code perf.seedEntities} — сколько сущностей создать перед прогоном, чтобы списки были реалистичного размера;</li>
+ *     <li>{@code perf.http2}, {@code perf.acceptEncoding} — HTTP/2 (h2c) и заголовок Accept-Encoding, например {@code gzip}.</li>
+ * </ul>
+ * Если файла базовой линии нет, он создается из результатов прогона.
+ * <p>
+ * Ошибкой считается исключение или неожиданный статус ответа: любой кроме 2xx, а для чтения,
+ * изменения и удаления еще 404 (сущность могла удалить другая операция прогона). Задержки ошибок
+ * в гистограммы не попадают. Прогон с ошибками завершается неудачей и не обновляет базовую линию:
+ * например, ответы 429 от квот арендатора сделали бы замер бессмысленным.
+ * <p>
+ * Удаление берет id из созданных прогоном сущностей; если их не осталось, операция пропускается
+ * и учитывается в колонке {@code skipped}, а не отправляется запросом, заведомо получающим 404.
+ */
+public class LoadGenerator {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int RECENT_IDS = 1024;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<Target> targets;
+    private final List<Operation> weightedOperations;
+    private final Map<String, Recorder> recorders = new TreeMap<>();
+    private final Map<String, AtomicLong> errors = new TreeMap<>();
+    private final Map<String, AtomicLong> bytes = new TreeMap<>();
+    private final Map<String, AtomicLong> skipped = new TreeMap<>();
+    private final Map<Integer, AtomicLong> statuses = new ConcurrentSkipListMap<>();
+    private final String acceptEncoding;
+
+    private volatile boolean running;
+
+    LoadGenerator(String baseUrl, List<Target> targets, Map<Operation, Integer> mix,
+                  HttpClient.Version version, String acceptEncoding) {
+        this.client = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.acceptEncoding = acceptEncoding;
+        this.baseUrl = baseUrl;
+        this.targets = targets;
+        this.weightedOperations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weightedOperations.add(operation);
+            }
+        });
+        for (Target target : targets) {
+            for (Operation operation : mix.keySet()) {
+                recorders.put(key(target, operation), new Recorder(MAX_LATENCY_NANOS, 3));
+                errors.put(key(target, operation), new AtomicLong());
+                bytes.put(key(target, operation), new AtomicLong());
+                skipped.put(key(target, operation), new AtomicLong());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("perf.baseUrl", "http://localhost:18080");
+        List<Target> targets = Arrays.stream(System.getProperty("perf.targets", "products,users").split(","))
+                .map(String::trim)
+                .map(Target::fromName)
+                .toList();
+        Map<Operation, Integer> mix = parseMix(System.getProperty("perf.mix", "list=40,get=40,create=10,update=5,delete=5"));
+        int concurrency = Integer.getInteger("perf.concurrency", 16);
+        Duration warmup = Duration.parse(System.getProperty("perf.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("perf.duration", "PT30S"));
+        Path baselinePath = Path.of(System.getProperty("perf.baseline", "perf/baseline.properties"));
+        Path reportPath = Path.of(System.getProperty("perf.report", "target/perf/report.properties"));
+        double threshold = Double.parseDouble(System.getProperty("perf.threshold", "0.15"));
+        Set<String> checkedMetrics = Set.of(System.getProperty("perf.checkedMetrics", "throughput,p50").split(","));
+        boolean updateBaseline = Boolean.getBoolean("perf.updateBaseline");
+        HttpClient.Version version = Boolean.getBoolean("perf.http2") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+        String acceptEncoding = System.getProperty("perf.acceptEncoding", "");
+        int seedEntities = Integer.getInteger("perf.seedEntities", 0);
+
+        LoadGenerator generator = new LoadGenerator(baseUrl, targets, mix, version, acceptEncoding);
+        generator.prepare(seedEntities);
+        System.out.printf("Прогрев %s, %d потоков...%n", warmup, concurrency);
+        generator.run(concurrency, warmup);
+        generator.resetRecorders();
+        System.out.printf("Замер %s, %d потоков, цели %s, смесь %s%n", duration, concurrency, targets, mix);
+        long started = System.nanoTime();
+        generator.run(concurrency, duration);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        PerfBaseline result = generator.collect(seconds);
+        result.save(reportPath, "Результаты нагрузочного прогона");
+        System.out.println("Результаты записаны в " + reportPath);
+
+        long errorCount = generator.errorCount();
+        if (errorCount > 0) {
+            throw new IllegalStateException("Прогон завершился с ошибками (" + errorCount + "), результаты не сравниваются"
+                    + " с базовой линией; ответы по статусам: " + generator.statuses);
+        }
+
+        if (updateBaseline || !Files.exists(baselinePath)) {
+            result.save(baselinePath, "Базовая линия нагрузочного прогона");
+            System.out.println("Базовая линия записана в " + baselinePath);
+            return;
+        }
+        List<String> regressions = result.regressionsAgainst(PerfBaseline.load(baselinePath), threshold, checkedMetrics);
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("Регрессия производительности больше " + Math.round(threshold * 100)
+                    + "% относительно " + baselinePath + ":\n  " + String.join("\n  ", regressions));
+        }
+        System.out.println("Регрессий относительно " + baselinePath + " нет");
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Пустая смесь операций: " + mix);
+        }
+        return weights;
+    }
+
+    void prepare(int seedEntities) throws Exception {
+        for (Target target : targets) {
+            for (int i = 0; i < seedEntities; i++) {
+                expectStatus(send(target.create(baseUrl, i)), 201);
+            }
+            HttpResponse<byte[]> response = expectStatus(send(target.list(baseUrl)), 200);
+            Matcher matcher = ID_PATTERN.matcher(text(response));
+            while (matcher.find()) {
+                target.rememberId(Long.parseLong(matcher.group(1)));
+            }
+            if (target.isEmpty()) {
+                HttpResponse<byte[]> created = expectStatus(send(target.create(baseUrl, 0)), 201);
+                target.rememberId(extractId(text(created)));
+            }
+        }
+    }
+
+    void run(int concurrency, Duration duration) throws InterruptedException {
+        running = true;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.submit(this::workerLoop);
+        }
+        Thread.sleep(duration.toMillis());
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+    }
+
+    void resetRecorders() {
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(counter -> counter.set(0));
+        bytes.values().forEach(counter -> counter.set(0));
+        skipped.values().forEach(counter -> counter.set(0));
+        statuses.clear();
+    }
+
+    long errorCount() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    PerfBaseline collect(double seconds) {
+        Map<String, Double> values = new TreeMap<>();
+        System.out.printf("%-32s %10s %10s %10s %10s %10s %10s %8s %8s%n",
+                "operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "bytes/resp", "errors", "skipped");
+        recorders.forEach((key, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            double throughput = count / seconds;
+            double p50 = histogram.getValueAtPercentile(50) / 1e6;
+            double p99 = histogram.getValueAtPercentile(99) / 1e6;
+            double p999 = histogram.getValueAtPercentile(99.9) / 1e6;
+            long errorCount = errors.get(key).get();
+            long skippedCount = skipped.get(key).get();
+            double bytesPerResponse = count == 0 ? 0 : (double) bytes.get(key).get() / count;
+            values.put(key + "." + PerfBaseline.THROUGHPUT, throughput);
+            values.put(key + ".p50", p50);
+            values.put(key + ".p99", p99);
+            values.put(key + ".p999", p999);
+            values.put(key + ".bytes", bytesPerResponse);
+            values.put(key + ".errors", (double) errorCount);
+            values.put(key + ".skipped", (double) skippedCount);
+            System.out.printf(Locale.ROOT, "%-32s %10d %10.1f %10.3f %10.3f %10.3f %10.0f %8d %8d%n",
+                    key, count, throughput, p50, p99, p999, bytesPerResponse, errorCount, skippedCount);
+        });
+        return new PerfBaseline(values);
+    }
+
+    private void workerLoop() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            Target target = targets.get(random.nextInt(targets.size()));
+            Operation operation = weightedOperations.get(random.nextInt(weightedOperations.size()));
+            String key = key(target, operation);
+            long started = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = execute(target, operation, random);
+                if (response == null) {
+                    skipped.get(key).incrementAndGet();
+                    continue;
+                }
+                long elapsed = System.nanoTime() - started;
+                int status = response.statusCode();
+                statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+                if (!operation.expects(status)) {
+                    errors.get(key).incrementAndGet();
+                    continue;
+                }
+                recorders.get(key).recordValue(Math.min(elapsed, MAX_LATENCY_NANOS));
+                bytes.get(key).addAndGet(response.body().length);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                errors.get(key).incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return {@code null}, если операцию не с чем выполнить
+     */
+    private HttpResponse<byte[]> execute(Target target, Operation operation, ThreadLocalRandom random) throws Exception {
+        return switch (operation) {
+            case LIST -> send(target.list(baseUrl));
+            case GET -> send(target.get(baseUrl, target.randomId(random)));
+            case CREATE -> {
+                HttpResponse<byte[]> response = send(target.create(baseUrl, random.nextInt(1_000_000)));
+                if (response.statusCode() == 201) {
+                    long id = extractId(text(response));
+                    target.rememberId(id);
+                    target.deletable.add(id);
+                }
+                yield response;
+            }
+            case UPDATE -> send(target.update(baseUrl, target.randomId(random), random.nextInt(1_000_000)));
+            case DELETE -> {
+                Long id = target.deletable.pollFirst();
+                yield id != null ? send(target.delete(baseUrl, id)) : null;
+            }
+        };
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        if (!acceptEncoding.isEmpty()) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true)
+                    .header("Accept-Encoding", acceptEncoding)
+                    .build();
+        }
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static HttpResponse<byte[]> expectStatus(HttpResponse<byte[]> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Подготовка прогона: " + response.request().method() + " "
+                    + response.uri() + " вернул " + response.statusCode());
+        }
+        return response;
+    }
+
+    private static String text(HttpResponse<byte[]> response) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent();
+        if (!gzip) {
+            return new String(response.body(), StandardCharsets.UTF_8);
+        }
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long extractId(String body) {
+        Matcher matcher = ID_PATTERN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("В ответе нет id: " + body);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static String key(Target target, Operation operation) {
+        return target.name + "." + operation.name().toLowerCase(Locale.ROOT);
+    }
+
+    enum Operation {
+        LIST, GET, CREATE, UPDATE, DELETE;
+
+        boolean expects(int status) {
+            if (status >= 200 && status < 300) {
+                return true;
+            }
+            return status == 404 && (this == GET || this == UPDATE || this == DELETE);
+        }
+    }
+
+    static final class Target {
+
+        private final String name;
+        private final String path;
+        private final boolean product;
+        private final AtomicLongArray recentIds = new AtomicLongArray(RECENT_IDS);
+        private final AtomicLong recentCursor = new AtomicLong();
+        private final ConcurrentLinkedDeque<Long> deletable = new ConcurrentLinkedDeque<>();
+
+        private Target(String name, String path, boolean product) {
+            this.name = name;
+            this.path = path;
+            this.product = product;
+        }
+
+        static Target fromName(String name) {
+            return switch (name) {
+                case "products" -> new Target(name, "/api/products", true);
+                case "users" -> new Target(name, "/api/users", false);
+                default -> throw new IllegalArgumentException("Неизвестная цель нагрузки: " + name);
+            };
+        }
+
+        void rememberId(long id) {
+            recentIds.set((int) (recentCursor.getAndIncrement() % RECENT_IDS), id);
+        }
+
+        boolean isEmpty() {
+            return recentCursor.get() == 0;
+        }
+
+        long randomId(ThreadLocalRandom random) {
+            int filled = (int) Math.min(recentCursor.get(), RECENT_IDS);
+            return filled == 0 ? 1 : recentIds.get(random.nextInt(filled));
+        }
+
+        HttpRequest list(String baseUrl) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        }
+
+        HttpRequest get(String baseUrl, long id) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path + "/" + id)).GET().build();
+        }
+
+        HttpRequest create(String baseUrl, int seed) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body(seed)))
+                    .build();
+        }
+
+        HttpRequest update(String baseUrl, long id, int seed) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path + "/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body(seed)))
+                    .build();
+        }
+
+        HttpRequest delete(String baseUrl, long id) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path + "/" + id)).DELETE().build();
+        }
+
+        private String body(int seed) {
+            if (product) {
+                return String.format(Locale.ROOT,
+                        "{\"name\":\"load-%d\",\"description\":\"Load test product %d\",\"price\":%d.99,\"quantity\":%d}",
+                        seed, seed, seed % 1000, seed % 500);
+            }
+            return String.format(Locale.ROOT,
+                    "{\"name\":\"load-%d\",\"email\":\"load-%d@example.com\",\"age\":%d}",
+                    seed, seed, 18 + seed % 60);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
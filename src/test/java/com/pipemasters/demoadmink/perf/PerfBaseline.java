@@ -0,0 +1,83 @@
+package com.pipemasters.demoadmink.perf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Сохраненные результаты нагрузочного прогона и сравнение с ними.
+ * Ключи имеют вид {@code <target>.<operation>.<metric>}, задержки — в миллисекундах,
+ * пропускная способность — в запросах в секунду.
+ */
+public class PerfBaseline {
+
+    static final String THROUGHPUT = "throughput";
+
+    private final Map<String, Double> values;
+
+    public PerfBaseline(Map<String, Double> values) {
+        this.values = new TreeMap<>(values);
+    }
+
+    public static PerfBaseline load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, Double> values = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, Double.parseDouble(properties.getProperty(key)));
+        }
+        return new PerfBaseline(values);
+    }
+
+    public void save(Path path, String comment) throws IOException {
+        Properties properties = new Properties();
+        values.forEach((key, value) -> properties.setProperty(key, String.format(Locale.ROOT, "%.3f", value)));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            properties.store(writer, comment);
+        }
+    }
+
+    public Map<String, Double> values() {
+        return values;
+    }
+
+    /**
+     * Возвращает описания метрик, ухудшившихся относительно {@code baseline} больше чем на {@code threshold}
+     * (доля, например 0.15). Для пропускной способности ухудшение — падение, для задержек — рост.
+     * Сравниваются только метрики из {@code checkedMetrics}, присутствующие в обоих прогонах.
+     */
+    public List<String> regressionsAgainst(PerfBaseline baseline, double threshold, Set<String> checkedMetrics) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            String key = entry.getKey();
+            String metric = key.substring(key.lastIndexOf('.') + 1);
+            Double expected = baseline.values.get(key);
+            if (!checkedMetrics.contains(metric) || expected == null || expected <= 0) {
+                continue;
+            }
+            double actual = entry.getValue();
+            double change = (actual - expected) / expected;
+            boolean regressed = THROUGHPUT.equals(metric) ? change < -threshold : change > threshold;
+            if (regressed) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.3f -> %.3f (%+.1f%%)",
+                        key, expected, actual, change * 100));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,67 @@
+package com.pipemasters.demoadmink.perf;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfBaselineTest {
+
+    private static final Set<String> CHECKED = Set.of("throughput", "p99");
+
+    @Test
+    void regressionsAgainst_shouldReportLatencyGrowthAndThroughputDrop_beyondThreshold() {
+        // Given
+        PerfBaseline baseline = new PerfBaseline(Map.of(
+                "products.list.throughput", 1000.0,
+                "products.list.p99", 10.0,
+                "products.get.p99", 5.0));
+        PerfBaseline current = new PerfBaseline(Map.of(
+                "products.list.throughput", 800.0,
+                "products.list.p99", 13.0,
+                "products.get.p99", 5.5));
+
+        // When
+        List<String> regressions = current.regressionsAgainst(baseline, 0.15, CHECKED);
+
+        // Then
+        assertEquals(2, regressions.size());
+        assertTrue(regressions.stream().anyMatch(r -> r.startsWith("products.list.throughput")));
+        assertTrue(regressions.stream().anyMatch(r -> r.startsWith("products.list.p99")));
+    }
+
+    @Test
+    void regressionsAgainst_shouldIgnoreImprovementsAndUncheckedMetrics() {
+        // Given
+        PerfBaseline baseline = new PerfBaseline(Map.of(
+                "users.list.throughput", 1000.0,
+                "users.list.p999", 10.0,
+                "users.list.p99", 10.0));
+        PerfBaseline current = new PerfBaseline(Map.of(
+                "users.list.throughput", 1500.0,
+                "users.list.p999", 100.0,
+                "users.list.p99", 2.0,
+                "users.create.p99", 50.0));
+
+        // When & Then
+        assertTrue(current.regressionsAgainst(baseline, 0.15, CHECKED).isEmpty());
+    }
+
+    @Test
+    void save_shouldRoundTripThroughPropertiesFile(@TempDir Path directory) throws Exception {
+        // Given
+        Path file = directory.resolve("nested/baseline.properties");
+        PerfBaseline baseline = new PerfBaseline(Map.of("products.list.p50", 1.25));
+
+        // When
+        baseline.save(file, "test");
+
+        // Then
+        assertEquals(1.25, PerfBaseline.load(file).values().get("products.list.p50"), 1e-9);
+    }
+}
@@ -0,0 +1,58 @@
+package com.pipemasters.demoadmink.projection;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pipemasters.demoadmink.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionSerializersTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compile_shouldReuseSerializer_forSameFieldSetInAnyOrder() {
+        // When
+        ProjectionSerializers.Projection<Product> first = DtoProjections.PRODUCT.compile("price,id");
+        ProjectionSerializers.Projection<Product> second = DtoProjections.PRODUCT.compile(" id , price ");
+
+        // Then
+        assertSame(first, second);
+    }
+
+    @Test
+    void compile_shouldRejectUnknownOrEmptyFields() {
+        assertThrows(IllegalArgumentException.class, () -> DtoProjections.PRODUCT.compile("id,unknown"));
+        assertThrows(IllegalArgumentException.class, () -> DtoProjections.PRODUCT.compile(" , "));
+    }
+
+    @Test
+    void serialize_shouldMatchFullJacksonOutput_forAllFields() throws Exception {
+        // Given
+        Product product = new Product(1L, "Laptop", null, new BigDecimal("999.99"), 5);
+        ProjectionSerializers.Projection<Product> all =
+                DtoProjections.PRODUCT.compile("id,name,description,price,quantity,expiresAt");
+
+        // When
+        String projected = objectMapper.writeValueAsString(ProjectedJson.ofList(List.of(product), all));
+
+        // Then
+        assertEquals(objectMapper.writeValueAsString(List.of(product)), projected);
+    }
+
+    @Test
+    void serialize_shouldKeepDtoFieldOrder() throws Exception {
+        // Given
+        Product product = new Product(7L, "Phone", null, new BigDecimal("1.50"), 2);
+
+        // When
+        String json = objectMapper.writeValueAsString(
+                ProjectedJson.of(product, DtoProjections.PRODUCT.compile("quantity,id")));
+
+        // Then
+        assertEquals("{\"id\":7,\"quantity\":2}", json);
+    }
+}
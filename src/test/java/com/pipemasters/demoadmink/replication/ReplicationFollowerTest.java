@@ -0,0 +1,121 @@
+package com.pipemasters.demoadmink.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.service.ProductService;
+import com.pipemasters.demoadmink.service.UserService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Лидер подменен HTTP-сервером, который отдает заранее подготовленные ответы журнала по одному на запрос.
+ */
+class ReplicationFollowerTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final BlockingQueue<ReplicationBatch> responses = new LinkedBlockingQueue<>();
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private HttpServer leader;
+    private ProductService productService;
+    private UserService userService;
+    private ReplicationFollower follower;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        leader = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        leader.createContext(ReplicationFollower.LOG_PATH, exchange -> {
+            try {
+                byte[] body = objectMapper.writeValueAsBytes(responses.take());
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                exchange.close();
+            }
+        });
+        leader.setExecutor(handlers);
+        leader.start();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        productService = new ProductService(meterRegistry);
+        userService = new UserService(meterRegistry);
+        AppProperties.Replication properties = new AppProperties.Replication();
+        properties.setLeaderUrl(URI.create("http://localhost:" + leader.getAddress().getPort()));
+        properties.setToken("test-token");
+        properties.setBatchSize(BATCH_SIZE);
+        properties.setRetryBackoff(Duration.ofMillis(100));
+        follower = new ReplicationFollower(properties, productService, userService, objectMapper, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        follower.close();
+        handlers.shutdownNow();
+        leader.stop(0);
+        productService.close();
+        userService.close();
+    }
+
+    @Test
+    void reset_shouldKeepFollowerStale_untilLogIsReadToTheEnd() throws Exception {
+        // Given
+        responses.add(new ReplicationBatch("first", 1, 0, false, List.of(entry(1, 1L))));
+        await(() -> !follower.isStale());
+        assertTrue(productService.getProductById(1L).isPresent());
+
+        // When
+        responses.add(new ReplicationBatch("second", 3, 0, true, List.of(entry(1, 10L), entry(2, 11L))));
+        await(() -> follower.getAppliedSequence() == 2);
+
+        // Then
+        assertTrue(follower.isStale());
+        assertTrue(productService.getProductById(1L).isEmpty());
+        assertTrue(productService.getProductById(11L).isPresent());
+
+        // When
+        responses.add(new ReplicationBatch("second", 3, 0, false, List.of(entry(3, 12L))));
+        await(() -> !follower.isStale());
+
+        // Then
+        assertEquals(3, follower.getAppliedSequence());
+        assertEquals(List.of(10L, 11L, 12L),
+                productService.getAllProducts().stream().map(Product::id).sorted().toList());
+    }
+
+    private static ReplicationEntry entry(long sequence, Long id) {
+        Product product = new Product(id, "Product " + id, "Description", new BigDecimal("9.99"), 1);
+        return new ReplicationEntry(sequence, ReplicationLog.PRODUCTS, Mutation.create("default", id, sequence, product));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in 10s");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.pipemasters.demoadmink.replication;
+
+import com.pipemasters.demoadmink.DemoAdminkApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Лидер и follower запускаются как два экземпляра приложения на случайных портах.
+ */
+class ReplicationIntegrationTest {
+
+    private static final String TOKEN = "test-token";
+    private static final String ADVERTISED_LEADER_URL = "http://leader.example:7878";
+
+    private static ConfigurableApplicationContext leader;
+    private static ConfigurableApplicationContext follower;
+    private static String leaderUrl;
+    private static String followerUrl;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startInstances() {
+        leader = new SpringApplicationBuilder(DemoAdminkApplication.class)
+                .run("--server.port=0", "--app.grpc.port=0", "--app.replication.role=leader",
+                        "--app.replication.token=" + TOKEN);
+        leaderUrl = "http://localhost:" + port(leader);
+        follower = new SpringApplicationBuilder(DemoAdminkApplication.class)
+                .run("--server.port=0", "--app.grpc.port=0", "--app.replication.role=follower",
+                        "--app.replication.leader-url=" + leaderUrl, "--app.replication.poll-wait=500ms",
+                        "--app.replication.advertised-leader-url=" + ADVERTISED_LEADER_URL,
+                        "--app.replication.token=" + TOKEN);
+        followerUrl = "http://localhost:" + port(follower);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (follower != null) {
+            follower.close();
+        }
+        if (leader != null) {
+            leader.close();
+        }
+    }
+
+    @Test
+    void follower_shouldServeLeaderWritesAndSeedData() throws Exception {
+        // Given
+        HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/api/products"))
+                .header("Content-Type", "application/json")
+                .header("X-Tenant-Id", "replicated")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\"Monitor\",\"description\":\"4K\",\"price\":299.99,\"quantity\":7}")));
+        assertEquals(201, created.statusCode());
+
+        // When
+        HttpResponse<String> replicated = awaitStatus(followerUrl + "/api/products/1", "replicated", 200);
+        HttpResponse<String> seeded = awaitStatus(followerUrl + "/api/users/2", null, 200);
+
+        // Then
+        assertTrue(replicated.body().contains("\"name\":\"Monitor\""), replicated.body());
+        assertTrue(seeded.body().contains("\"id\":2"), seeded.body());
+    }
+
+    @Test
+    void follower_shouldReplicateDeletes() throws Exception {
+        // Given
+        awaitStatus(followerUrl + "/api/products/2", null, 200);
+
+        // When
+        HttpResponse<String> deleted = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/api/products/2")).DELETE());
+
+        // Then
+        assertEquals(204, deleted.statusCode());
+        awaitStatus(followerUrl + "/api/products/2", null, 404);
+    }
+
+    @Test
+    void follower_shouldRedirectWritesToLeader() throws Exception {
+        // When
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(followerUrl + "/api/users?dryRun=true"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{}")));
+
+        // Then
+        assertEquals(307, response.statusCode());
+        assertEquals(ADVERTISED_LEADER_URL + "/api/users?dryRun=true",
+                response.headers().firstValue("Location").orElse(null));
+    }
+
+    @Test
+    void leader_shouldRejectReplicationLogRequests_withoutToken() throws Exception {
+        // When
+        HttpResponse<String> anonymous = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/internal/replication/log")));
+        HttpResponse<String> wrongToken = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/internal/replication/log"))
+                .header(ReplicationTokenFilter.HEADER, "guess"));
+
+        // Then
+        assertEquals(401, anonymous.statusCode());
+        assertEquals(401, wrongToken.statusCode());
+    }
+
+    @Test
+    void follower_shouldExposeReplicationLag() throws Exception {
+        // Given
+        awaitStatus(followerUrl + "/api/users/1", null, 200);
+
+        // When
+        MeterRegistry registry = follower.getBean(MeterRegistry.class);
+
+        // Then
+        assertTrue(registry.get("replication_lag_seconds").gauge().value() < 15);
+        assertNotNull(registry.get("replication_lag_entries").gauge());
+        assertTrue(leader.getBean(MeterRegistry.class).get("replication_log_sequence").gauge().value() >= 4);
+    }
+
+    private HttpResponse<String> awaitStatus(String url, String tenant, int status) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+            if (tenant != null) {
+                request.header("X-Tenant-Id", tenant);
+            }
+            HttpResponse<String> response = send(request);
+            if (response.statusCode() == status || System.nanoTime() > deadline) {
+                assertEquals(status, response.statusCode(), url);
+                return response;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,139 @@
+package com.pipemasters.demoadmink.replication;
+
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.mutation.MutationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationLogTest {
+
+    private final ReplicationLog log = new ReplicationLog(Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    @Test
+    void read_shouldKeepOnlyLatestEntryPerEntity() throws Exception {
+        // Given
+        MutationStore<Product> store = log.store(ReplicationLog.PRODUCTS);
+        store.commit(List.of(Mutation.create("default", 1L, 1, product(1L, 10))));
+        store.commit(List.of(Mutation.create("default", 2L, 2, product(2L, 20))));
+        store.commit(List.of(Mutation.update("default", 1L, 3, product(1L, 5))));
+
+        // When
+        ReplicationBatch batch = log.read(null, 0, 0, 100, Duration.ZERO);
+
+        // Then
+        assertEquals(3, batch.leaderSequence());
+        assertFalse(batch.reset());
+        assertEquals(List.of(2L, 3L), batch.entries().stream().map(ReplicationEntry::sequence).toList());
+        assertEquals(product(1L, 5), batch.entries().get(1).mutation().payload());
+    }
+
+    @Test
+    void append_shouldSkipMutationNotNewerThanLatestEntry() throws Exception {
+        // Given
+        MutationStore<Product> store = log.store(ReplicationLog.PRODUCTS);
+        store.commit(List.of(Mutation.update("default", 1L, 2, product(1L, 5))));
+
+        // When
+        store.commit(List.of(Mutation.update("default", 1L, 1, product(1L, 10))));
+        store.commit(List.of(Mutation.update("default", 1L, 2, product(1L, 5))));
+
+        // Then
+        ReplicationBatch batch = log.read(null, 0, 0, 100, Duration.ZERO);
+        assertEquals(1, batch.leaderSequence());
+        assertEquals(product(1L, 5), batch.entries().get(0).mutation().payload());
+    }
+
+    @Test
+    void read_shouldReturnOnlyEntriesAfterSequenceUpToLimit() throws Exception {
+        // Given
+        MutationStore<Product> store = log.store(ReplicationLog.PRODUCTS);
+        for (long id = 1; id <= 5; id++) {
+            store.commit(List.of(Mutation.create("default", id, id, product(id, 1))));
+        }
+
+        // When
+        ReplicationBatch batch = log.read(log.getEpoch(), 2, 0, 2, Duration.ZERO);
+
+        // Then
+        assertEquals(5, batch.leaderSequence());
+        assertEquals(List.of(3L, 4L), batch.entries().stream().map(ReplicationEntry::sequence).toList());
+    }
+
+    @Test
+    void read_shouldWaitForNextAppend() throws Exception {
+        // Given
+        CompletableFuture<ReplicationBatch> pending = CompletableFuture.supplyAsync(() -> {
+            try {
+                return log.read(null, 0, 0, 100, Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+
+        // When
+        log.store(ReplicationLog.USERS).commit(List.of(Mutation.create("acme", 1L, 1, "user")));
+
+        // Then
+        ReplicationBatch batch = pending.get();
+        assertEquals(1, batch.entries().size());
+        assertEquals(ReplicationLog.USERS, batch.entries().get(0).entity());
+        assertEquals("acme", batch.entries().get(0).mutation().tenant());
+    }
+
+    @Test
+    void read_shouldRequestReset_whenFollowerMayHaveMissedPurgedDelete() throws Exception {
+        // Given
+        MutationStore<Product> store = log.store(ReplicationLog.PRODUCTS);
+        store.commit(List.of(Mutation.create("default", 1L, 1, product(1L, 1))));
+        store.commit(List.of(Mutation.create("default", 2L, 2, product(2L, 1))));
+        store.commit(List.of(new Mutation<>(MutationType.DELETE, "default", 1L, 3, null, Instant.now().minus(Duration.ofHours(1)))));
+        store.commit(List.of(Mutation.update("default", 2L, 4, product(2L, 7))));
+
+        // When
+        ReplicationBatch behind = log.read(log.getEpoch(), 2, 0, 100, Duration.ZERO);
+        ReplicationBatch caughtUp = log.read(log.getEpoch(), 3, 0, 100, Duration.ZERO);
+        ReplicationBatch known = log.read(log.getEpoch(), 2, 3, 100, Duration.ZERO);
+
+        // Then
+        assertEquals(3, behind.purgedThrough());
+        assertTrue(behind.reset());
+        assertEquals(List.of(4L), behind.entries().stream().map(ReplicationEntry::sequence).toList());
+        assertFalse(caughtUp.reset());
+        assertFalse(known.reset());
+    }
+
+    @Test
+    void read_shouldRequestReset_whenFollowerReadAnotherLog() throws Exception {
+        // Given
+        ReplicationLog previousLeader = new ReplicationLog(Duration.ofMinutes(10), new SimpleMeterRegistry());
+        MutationStore<Product> store = log.store(ReplicationLog.PRODUCTS);
+        store.commit(List.of(Mutation.create("default", 1L, 1, product(1L, 1))));
+        store.commit(List.of(Mutation.create("default", 2L, 2, product(2L, 1))));
+
+        // When
+        ReplicationBatch restarted = log.read(previousLeader.getEpoch(), 5, 0, 100, Duration.ZERO);
+        ReplicationBatch sameLog = log.read(log.getEpoch(), 1, 0, 100, Duration.ZERO);
+
+        // Then
+        assertNotEquals(previousLeader.getEpoch(), log.getEpoch());
+        assertTrue(restarted.reset());
+        assertEquals(log.getEpoch(), restarted.epoch());
+        assertEquals(List.of(1L, 2L), restarted.entries().stream().map(ReplicationEntry::sequence).toList());
+        assertFalse(sameLog.reset());
+    }
+
+    private static Product product(Long id, int quantity) {
+        return new Product(id, "Product " + id, "Description", new BigDecimal("9.99"), quantity);
+    }
+}
@@ -0,0 +1,137 @@
+package com.pipemasters.demoadmink.service;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.mutation.Mutation;
+import com.pipemasters.demoadmink.mutation.MutationType;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import com.pipemasters.demoadmink.timeseries.Aggregation;
+import com.pipemasters.demoadmink.timeseries.TimeSeriesPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryHistoryServiceTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private InventoryHistoryService inventoryHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryHistoryService = new InventoryHistoryService(new SimpleMeterRegistry(), new AppProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryHistoryService.close();
+    }
+
+    @Test
+    void record_shouldRecordQuantityAndTotals() {
+        // Given
+        inventoryHistoryService.record(List.of(
+                mutation(MutationType.CREATE, 1L, 1, product("10.00", 5), START),
+                mutation(MutationType.CREATE, 2L, 2, product("2.50", 4), START.plusSeconds(60)),
+                mutation(MutationType.UPDATE, 1L, 3, product("10.00", 3), START.plusSeconds(3600)),
+                mutation(MutationType.DELETE, 2L, 4, null, START.plusSeconds(3660))));
+        Instant end = START.plus(Duration.ofHours(2));
+
+        // When
+        List<TimeSeriesPoint> quantity = inventoryHistoryService.getProductQuantity(1L, START, end,
+                Duration.ofHours(1), Aggregation.LAST);
+        List<TimeSeriesPoint> value = inventoryHistoryService.getTotalValue(START, end,
+                Duration.ofHours(1), Aggregation.LAST);
+        List<TimeSeriesPoint> total = inventoryHistoryService.getTotalQuantity(START, end,
+                Duration.ofHours(1), Aggregation.MAX);
+
+        // Then
+        assertEquals(List.of(5.0, 3.0), quantity.stream().map(TimeSeriesPoint::value).toList());
+        assertEquals(List.of(60.0, 30.0), value.stream().map(TimeSeriesPoint::value).toList());
+        assertEquals(List.of(9.0, 7.0), total.stream().map(TimeSeriesPoint::value).toList());
+    }
+
+    @Test
+    void record_shouldDropProductSeries_whenProductIsDeleted() {
+        // Given
+        inventoryHistoryService.record(List.of(mutation(MutationType.CREATE, 1L, 1, product("10.00", 5), START)));
+
+        // When
+        inventoryHistoryService.record(List.of(mutation(MutationType.DELETE, 1L, 2, null, START.plusSeconds(60))));
+
+        // Then
+        assertTrue(inventoryHistoryService.getProductQuantity(1L, START, START.plus(Duration.ofHours(1)),
+                Duration.ofHours(1), Aggregation.LAST).isEmpty());
+    }
+
+    @Test
+    void record_shouldKeepSeriesAndTotals_perTenant() {
+        // Given
+        inventoryHistoryService.record(List.of(
+                mutation(MutationType.CREATE, 1L, 1, product("10.00", 5), START),
+                new Mutation<>(MutationType.CREATE, "acme", 1L, 2, product("1.00", 7), START)));
+        Instant end = START.plus(Duration.ofHours(1));
+
+        // When
+        List<TimeSeriesPoint> defaultTotal = inventoryHistoryService.getTotalQuantity(START, end,
+                Duration.ofHours(1), Aggregation.LAST);
+        List<TimeSeriesPoint> acmeProduct = TenantContext.callAs("acme", () ->
+                inventoryHistoryService.getProductQuantity(1L, START, end, Duration.ofHours(1), Aggregation.LAST));
+
+        // Then
+        assertEquals(List.of(5.0), defaultTotal.stream().map(TimeSeriesPoint::value).toList());
+        assertEquals(List.of(7.0), acmeProduct.stream().map(TimeSeriesPoint::value).toList());
+    }
+
+    @Test
+    void record_shouldSkipMutationsOlderThanRecorded() {
+        // Given
+        inventoryHistoryService.record(List.of(
+                mutation(MutationType.CREATE, 1L, 1, product("10.00", 5), START),
+                mutation(MutationType.UPDATE, 1L, 3, product("10.00", 2), START.plusSeconds(60))));
+
+        // When
+        inventoryHistoryService.record(List.of(
+                mutation(MutationType.UPDATE, 1L, 2, product("10.00", 9), START.plusSeconds(120)),
+                mutation(MutationType.UPDATE, 1L, 3, product("10.00", 2), START.plusSeconds(60))));
+
+        // Then
+        List<TimeSeriesPoint> total = inventoryHistoryService.getTotalQuantity(START, START.plus(Duration.ofHours(1)),
+                Duration.ofHours(1), Aggregation.LAST);
+        assertEquals(List.of(2.0), total.stream().map(TimeSeriesPoint::value).toList());
+    }
+
+    @Test
+    void record_shouldNotRestoreDeletedProduct_fromStaleUpdate() {
+        // Given
+        inventoryHistoryService.record(List.of(
+                mutation(MutationType.CREATE, 1L, 1, product("10.00", 5), START),
+                mutation(MutationType.DELETE, 1L, 3, null, START.plusSeconds(60))));
+
+        // When
+        inventoryHistoryService.record(List.of(
+                mutation(MutationType.UPDATE, 1L, 2, product("10.00", 9), START.plusSeconds(120))));
+
+        // Then
+        List<TimeSeriesPoint> total = inventoryHistoryService.getTotalQuantity(START, START.plus(Duration.ofHours(1)),
+                Duration.ofHours(1), Aggregation.LAST);
+        assertEquals(List.of(0.0), total.stream().map(TimeSeriesPoint::value).toList());
+    }
+
+    private static Mutation<Product> mutation(MutationType type, Long id, long version, Product payload,
+                                              Instant timestamp) {
+        return new Mutation<>(type, TenantContext.DEFAULT_TENANT, id, version, payload, timestamp);
+    }
+
+    private static Product product(String price, int quantity) {
+        return new Product(null, "Item", null, new BigDecimal(price), quantity);
+    }
+}
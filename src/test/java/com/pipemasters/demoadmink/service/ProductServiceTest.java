@@ -1,26 +1,52 @@
 package com.pipemasters.demoadmink.service;
 
+import com.pipemasters.demoadmink.config.AppProperties;
 import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.support.GaugeSampler;
+import com.pipemasters.demoadmink.support.IdempotencyKeyReusedException;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
+import com.pipemasters.demoadmink.support.ManualClock;
+import com.pipemasters.demoadmink.support.WriteBehindOverloadedException;
+import com.pipemasters.demoadmink.tenant.TenantContext;
+import com.pipemasters.demoadmink.tenant.TenantQuotaExceededException;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ProductServiceTest {
 
+    private final ManualClock clock = new ManualClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final List<ProductService> services = new ArrayList<>();
     private ProductService productService;
     private MeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        productService = new ProductService(meterRegistry);
+        productService = service(meterRegistry, new AppProperties(), MutationStore.inMemory());
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(ProductService::close);
     }
 
     @Test
@@ -28,7 +54,7 @@ class ProductServiceTest {
         // Given: initial data is created in constructor (2 products)
 
         // When
-        List<ProductDto> products = productService.getAllProducts();
+        List<Product> products = productService.getAllProducts();
 
         // Then
         assertEquals(2, products.size());
@@ -40,11 +66,11 @@ class ProductServiceTest {
         Long existingId = 1L;
 
         // When
-        Optional<ProductDto> result = productService.getProductById(existingId);
+        Optional<Product> result = productService.getProductById(existingId);
 
         // Then
         assertTrue(result.isPresent());
-        assertEquals("Laptop", result.get().getName());
+        assertEquals("Laptop", result.get().name());
     }
 
     @Test
@@ -53,7 +79,7 @@ class ProductServiceTest {
         Long nonExistingId = 999L;
 
         // When
-        Optional<ProductDto> result = productService.getProductById(nonExistingId);
+        Optional<Product> result = productService.getProductById(nonExistingId);
 
         // Then
         assertTrue(result.isEmpty());
@@ -70,12 +96,12 @@ class ProductServiceTest {
                 .build();
 
         // When
-        ProductDto created = productService.createProduct(newProduct);
+        Product created = productService.createProduct(newProduct);
 
         // Then
-        assertNotNull(created.getId());
-        assertEquals("New Product", created.getName());
-        assertEquals(new BigDecimal("199.99"), created.getPrice());
+        assertNotNull(created.id());
+        assertEquals("New Product", created.name());
+        assertEquals(new BigDecimal("199.99"), created.price());
     }
 
     @Test
@@ -90,12 +116,12 @@ class ProductServiceTest {
                 .build();
 
         // When
-        Optional<ProductDto> result = productService.updateProduct(existingId, updatedProduct);
+        Optional<Product> result = productService.updateProduct(existingId, updatedProduct);
 
         // Then
         assertTrue(result.isPresent());
-        assertEquals(existingId, result.get().getId());
-        assertEquals("Updated Product", result.get().getName());
+        assertEquals(existingId, result.get().id());
+        assertEquals("Updated Product", result.get().name());
     }
 
     @Test
@@ -105,7 +131,7 @@ class ProductServiceTest {
         ProductDto updatedProduct = ProductDto.builder().name("Updated").build();
 
         // When
-        Optional<ProductDto> result = productService.updateProduct(nonExistingId, updatedProduct);
+        Optional<Product> result = productService.updateProduct(nonExistingId, updatedProduct);
 
         // Then
         assertTrue(result.isEmpty());
@@ -144,25 +170,360 @@ class ProductServiceTest {
                 .price(new BigDecimal("99.99"))
                 .quantity(5)
                 .build();
-        double initialCount = meterRegistry.counter("products_created_total").count();
+        double initialCount = meterRegistry.counter("products_created_total", "tenant", "default").count();
 
         // When
         productService.createProduct(newProduct);
 
         // Then
-        assertEquals(initialCount + 1, meterRegistry.counter("products_created_total").count());
+        assertEquals(initialCount + 1, meterRegistry.counter("products_created_total", "tenant", "default").count());
     }
 
     @Test
     void deleteProduct_shouldIncrementCounter_whenSuccess() {
         // Given
         Long existingId = 1L;
-        double initialCount = meterRegistry.counter("products_deleted_total").count();
+        double initialCount = meterRegistry.counter("products_deleted_total", "tenant", "default").count();
 
         // When
         productService.deleteProduct(existingId);
 
         // Then
-        assertEquals(initialCount + 1, meterRegistry.counter("products_deleted_total").count());
+        assertEquals(initialCount + 1, meterRegistry.counter("products_deleted_total", "tenant", "default").count());
+    }
+
+    @Test
+    void constructor_shouldSkipSeedData_whenDisabled() {
+        // Given
+        AppProperties properties = new AppProperties();
+        properties.getSeedData().setEnabled(false);
+
+        // When
+        ProductService service = service(properties);
+
+        // Then
+        assertTrue(service.getAllProducts().isEmpty());
+    }
+
+    @Test
+    void getAllProducts_shouldReflectCreate_whenCoalescingWindowIsSet() {
+        // Given
+        AppProperties properties = new AppProperties();
+        properties.getCoalescing().setWindow(Duration.ofMinutes(1));
+        ProductService service = service(properties);
+        service.getAllProducts();
+
+        // When
+        service.createProduct(ProductDto.builder()
+                .name("Tablet")
+                .price(new BigDecimal("299.99"))
+                .quantity(3)
+                .build());
+
+        // Then
+        assertEquals(3, service.getAllProducts().size());
+    }
+
+    @Test
+    void createProduct_shouldBeReadable_beforeWriteBehindCommit() {
+        // Given
+        AppProperties properties = new AppProperties();
+        properties.getWriteBehind().setEnabled(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductService service = service(registry, properties, MutationStore.inMemory());
+
+        // When
+        Product created = service.createProduct(ProductDto.builder()
+                .name("Monitor")
+                .price(new BigDecimal("199.99"))
+                .quantity(7)
+                .build());
+
+        // Then
+        assertTrue(service.getProductById(created.id()).isPresent());
+        assertTrue(service.flushMutations(Duration.ofSeconds(5)));
+        assertEquals(3.0, registry.counter("products_created_total", "tenant", "default").count());
+    }
+
+    @Test
+    void writes_shouldBeRejectedAndNotApplied_whenWriteBehindQueueIsFull() throws Exception {
+        // Given
+        AppProperties properties = new AppProperties();
+        properties.getSeedData().setEnabled(false);
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setQueueCapacity(1);
+        properties.getWriteBehind().setBatchSize(1);
+        AtomicBoolean storeDown = new AtomicBoolean(true);
+        CountDownLatch firstAttempt = new CountDownLatch(1);
+        ProductService service = service(new SimpleMeterRegistry(), properties, batch -> {
+            firstAttempt.countDown();
+            if (storeDown.get()) {
+                throw new IllegalStateException("store down");
+            }
+        });
+        ProductDto request = ProductDto.builder().name("Monitor").price(new BigDecimal("199.99")).quantity(7).build();
+        Product retried = service.createProduct(request);
+        assertTrue(firstAttempt.await(5, TimeUnit.SECONDS));
+        Product queued = service.createProduct(request);
+
+        // When
+        assertThrows(WriteBehindOverloadedException.class, () -> service.createProduct(request));
+        assertThrows(WriteBehindOverloadedException.class, () -> service.updateProduct(retried.id(),
+                ProductDto.builder().name("Renamed").price(BigDecimal.ONE).quantity(1).build()));
+        assertThrows(WriteBehindOverloadedException.class, () -> service.deleteProduct(queued.id()));
+        storeDown.set(false);
+
+        // Then
+        assertEquals(List.of(retried, queued), service.getAllProducts().stream()
+                .sorted(Comparator.comparing(Product::id)).toList());
+        assertTrue(service.flushMutations(Duration.ofSeconds(5)));
+        assertNotNull(service.createProduct(request));
+    }
+
+    @Test
+    void getAllProducts_shouldReuseSnapshot_untilProductsChange() {
+        // Given
+        List<Product> first = productService.getAllProducts();
+
+        // When
+        List<Product> second = productService.getAllProducts();
+        productService.deleteProduct(1L);
+        List<Product> afterDelete = productService.getAllProducts();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, afterDelete.size());
+        assertThrows(UnsupportedOperationException.class, () -> afterDelete.add(first.get(0)));
+    }
+
+    @Test
+    void createProduct_shouldLeaveRequestUntouched() {
+        // Given
+        ProductDto request = ProductDto.builder()
+                .name("Laptop")
+                .description("High-performance laptop")
+                .price(new BigDecimal("899.99"))
+                .quantity(1)
+                .build();
+
+        // When
+        Product created = productService.createProduct(request);
+
+        // Then
+        assertEquals("Laptop", created.name());
+        assertNull(request.getId());
+    }
+
+    @Test
+    void createProduct_shouldUseSeparatePartitionAndIdSpace_perTenant() {
+        // Given
+        ProductDto request = ProductDto.builder().name("Tablet").price(new BigDecimal("299.99")).quantity(3).build();
+
+        // When
+        Product created = TenantContext.callAs("acme", () -> productService.createProduct(request));
+
+        // Then
+        assertEquals(1L, created.id());
+        assertEquals(1, TenantContext.callAs("acme", productService::getAllProducts).size());
+        assertEquals(2, productService.getAllProducts().size());
+        assertEquals("Laptop", productService.getProductById(1L).orElseThrow().name());
+        assertEquals(1.0, meterRegistry.counter("products_created_total", "tenant", "acme").count());
+        assertEquals(3.0, meterRegistry.get("products_total_quantity").tag("tenant", "acme").gauge().value());
+    }
+
+    @Test
+    void createProduct_shouldThrow_whenTenantQuotaIsReached() {
+        // Given
+        AppProperties properties = new AppProperties();
+        properties.getTenancy().getTenants().put("small", quota(1));
+        ProductService service = service(properties);
+        ProductDto request = ProductDto.builder().name("Tablet").price(new BigDecimal("299.99")).quantity(3).build();
+        TenantContext.callAs("small", () -> service.createProduct(request));
+
+        // When & Then
+        assertThrows(TenantQuotaExceededException.class,
+                () -> TenantContext.callAs("small", () -> service.createProduct(request)));
+        TenantContext.runAs("small", () -> service.deleteProduct(1L));
+        assertNotNull(TenantContext.callAs("small", () -> service.createProduct(request)));
+    }
+
+    @Test
+    void createProduct_shouldReleaseQuota_whenMutationIsNotRecorded() {
+        // Given
+        AppProperties properties = new AppProperties();
+        properties.getSeedData().setEnabled(false);
+        properties.getTenancy().getTenants().put("small", quota(1));
+        AtomicBoolean storeDown = new AtomicBoolean(true);
+        ProductService service = service(new SimpleMeterRegistry(), properties, batch -> {
+            if (storeDown.getAndSet(false)) {
+                throw new IllegalStateException("store down");
+            }
+        });
+        ProductDto request = ProductDto.builder().name("Tablet").price(new BigDecimal("299.99")).quantity(3).build();
+
+        // When
+        assertThrows(IllegalStateException.class, () -> TenantContext.callAs("small", () -> service.createProduct(request)));
+        Product created = TenantContext.callAs("small", () -> service.createProduct(request));
+
+        // Then
+        assertEquals(List.of(created), TenantContext.callAs("small", service::getAllProducts));
+    }
+
+    @Test
+    void restoreProduct_shouldReturnDeletedProduct_untilTombstoneIsPurged() {
+        // Given
+        AppProperties properties = withExpiry();
+        properties.getExpiry().setTombstoneRetention(Duration.ofMinutes(1));
+        ProductService service = service(properties);
+        service.deleteProduct(1L);
+        service.deleteProduct(2L);
+
+        // When
+        Optional<Product> restored = service.restoreProduct(1L);
+        clock.advance(Duration.ofMinutes(2));
+        service.reapExpired();
+
+        // Then
+        assertEquals("Laptop", restored.orElseThrow().name());
+        assertEquals(restored, service.getProductById(1L));
+        assertTrue(service.restoreProduct(2L).isEmpty());
+    }
+
+    @Test
+    void createProduct_shouldBeRemovedByReaper_afterExpiry() {
+        // Given
+        ProductService service = service(withExpiry());
+        Product promo = service.createProduct(ProductDto.builder()
+                .name("Promo")
+                .price(new BigDecimal("1.00"))
+                .quantity(1)
+                .expiresAt(clock.instant().plusSeconds(10))
+                .build());
+        assertEquals(3, service.getAllProducts().size());
+
+        // When
+        clock.advance(Duration.ofSeconds(11));
+        service.reapExpired();
+
+        // Then
+        assertTrue(service.getProductById(promo.id()).isEmpty());
+        assertEquals(2, service.getAllProducts().size());
+        assertTrue(service.restoreProduct(promo.id()).isEmpty());
+    }
+
+    @Test
+    void reads_shouldHideExpiredProduct_beforeReaperRuns() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductService service = service(registry, withExpiry(), MutationStore.inMemory());
+        Product expiring = service.createProduct(ProductDto.builder()
+                .name("Expiring")
+                .price(new BigDecimal("1.00"))
+                .quantity(1000)
+                .expiresAt(clock.instant().plusSeconds(10))
+                .build());
+        assertEquals(3, service.getAllProducts().size());
+
+        // When
+        clock.advance(Duration.ofSeconds(11));
+
+        // Then
+        AtomicInteger visited = new AtomicInteger();
+        service.forEachProductParallel(1, product -> visited.incrementAndGet());
+        assertTrue(service.getProductById(expiring.id()).isEmpty());
+        assertEquals(2, service.getAllProducts().size());
+        assertEquals(2, visited.get());
+        assertEquals(2.0, registry.get("products_total").gauge().value());
+        assertEquals(150.0, registry.get("products_total_quantity").gauge().value());
+    }
+
+    @Test
+    void updateAndDelete_shouldTreatExpiredProductAsMissing() {
+        // Given
+        ProductService service = service(withExpiry());
+        Product expiring = service.createProduct(ProductDto.builder()
+                .name("Expiring")
+                .price(new BigDecimal("1.00"))
+                .quantity(1)
+                .expiresAt(clock.instant().plusSeconds(10))
+                .build());
+        clock.advance(Duration.ofSeconds(11));
+
+        // When
+        Optional<Product> updated = service.updateProduct(expiring.id(), ProductDto.builder()
+                .name("Revived")
+                .price(new BigDecimal("1.00"))
+                .quantity(1)
+                .build());
+        boolean deleted = service.deleteProduct(expiring.id());
+
+        // Then
+        assertTrue(updated.isEmpty());
+        assertFalse(deleted);
+        assertTrue(service.restoreProduct(expiring.id()).isEmpty());
+    }
+
+    @Test
+    void createProduct_shouldIgnoreExpiresAt_whenExpiryIsDisabled() {
+        // Given
+        AppProperties properties = new AppProperties();
+        properties.getExpiry().setEnabled(false);
+        ProductService service = service(properties);
+
+        // When
+        Product created = service.createProduct(ProductDto.builder()
+                .name("Promo")
+                .price(new BigDecimal("1.00"))
+                .quantity(1)
+                .expiresAt(clock.instant().plusSeconds(10))
+                .build());
+        clock.advance(Duration.ofSeconds(11));
+
+        // Then
+        assertNull(created.expiresAt());
+        assertEquals(Optional.of(created), service.getProductById(created.id()));
+    }
+
+    @Test
+    void createProduct_shouldCreateOnce_perTenantIdempotencyKey() {
+        // Given
+        ProductDto request = ProductDto.builder().name("Tablet").price(new BigDecimal("299.99")).quantity(3).build();
+        IdempotencyStore.Result<Product> first = productService.createProduct(request, "order-1");
+
+        // When
+        IdempotencyStore.Result<Product> replay = productService.createProduct(request, "order-1");
+        IdempotencyStore.Result<Product> otherTenant =
+                TenantContext.callAs("acme", () -> productService.createProduct(request, "order-1"));
+
+        // Then
+        assertFalse(first.replayed());
+        assertTrue(replay.replayed());
+        assertSame(first.value(), replay.value());
+        assertFalse(otherTenant.replayed());
+        assertEquals(3, productService.getAllProducts().size());
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> productService.createProduct(ProductDto.builder().name("Other").build(), "order-1"));
+    }
+
+    private ProductService service(AppProperties properties) {
+        return service(new SimpleMeterRegistry(), properties, MutationStore.inMemory());
+    }
+
+    private ProductService service(MeterRegistry registry, AppProperties properties, MutationStore<Product> store) {
+        ProductService service = new ProductService(registry, properties, store, GaugeSampler.direct(), clock, false);
+        services.add(service);
+        return service;
+    }
+
+    private static AppProperties withExpiry() {
+        AppProperties properties = new AppProperties();
+        properties.getExpiry().setEnabled(true);
+        return properties;
+    }
+
+    private static AppProperties.Tenancy.Quota quota(int maxProducts) {
+        AppProperties.Tenancy.Quota quota = new AppProperties.Tenancy.Quota();
+        quota.setMaxProducts(maxProducts);
+        return quota;
     }
 }
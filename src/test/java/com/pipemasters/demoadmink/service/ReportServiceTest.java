@@ -0,0 +1,121 @@
+package com.pipemasters.demoadmink.service;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import com.pipemasters.demoadmink.dto.AgeBandDto;
+import com.pipemasters.demoadmink.dto.PriceBandDto;
+import com.pipemasters.demoadmink.dto.ProductDto;
+import com.pipemasters.demoadmink.model.Product;
+import com.pipemasters.demoadmink.dto.UserDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportServiceTest {
+
+    private MeterRegistry meterRegistry;
+    private ProductService productService;
+    private UserService userService;
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AppProperties properties = new AppProperties();
+        properties.getSeedData().setEnabled(false);
+        // Маленький порог, чтобы обход действительно делился на подзадачи
+        properties.getReports().setParallelismThreshold(16);
+        productService = new ProductService(meterRegistry, properties);
+        userService = new UserService(meterRegistry, properties);
+        reportService = new ReportService(productService, userService, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportService.close();
+        productService.close();
+        userService.close();
+    }
+
+    @Test
+    void getValueByPriceBand_shouldAggregateAllProducts() {
+        // Given
+        for (int i = 0; i < 1000; i++) {
+            productService.createProduct(product("5.50", 2));
+        }
+        productService.createProduct(product("750.00", 3));
+
+        // When
+        List<PriceBandDto> bands = reportService.getValueByPriceBand().join();
+
+        // Then
+        assertEquals(6, bands.size());
+        assertEquals(1000, bands.get(0).getProductCount());
+        assertEquals(2000, bands.get(0).getTotalQuantity());
+        assertEquals(new BigDecimal("11000.00"), bands.get(0).getTotalValue());
+        assertEquals(new BigDecimal("500"), bands.get(4).getFrom());
+        assertEquals(new BigDecimal("2250.00"), bands.get(4).getTotalValue());
+        assertNull(bands.get(5).getTo());
+    }
+
+    @Test
+    void getValueByPriceBand_shouldBeCachedUntilNextMutation() {
+        // Given
+        productService.createProduct(product("5.50", 2));
+        List<PriceBandDto> first = reportService.getValueByPriceBand().join();
+
+        // When
+        List<PriceBandDto> cached = reportService.getValueByPriceBand().join();
+        productService.createProduct(product("5.50", 2));
+        List<PriceBandDto> recomputed = reportService.getValueByPriceBand().join();
+
+        // Then
+        assertSame(first, cached);
+        assertEquals(2, recomputed.get(0).getProductCount());
+        assertEquals(1.0, meterRegistry.get("reports_cache_requests_total")
+                .tag("operation", "value_by_price_band").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void getLowStock_shouldReturnProductsOrderedByQuantity() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            productService.createProduct(product("1.00", i));
+        }
+
+        // When
+        List<Product> lowStock = reportService.getLowStock(5, 3).join();
+
+        // Then
+        assertEquals(List.of(0, 1, 2), lowStock.stream().map(Product::quantity).toList());
+        assertThrows(IllegalArgumentException.class, () -> reportService.getLowStock(-1, 3));
+        assertThrows(IllegalArgumentException.class, () -> reportService.getLowStock(5, 1000));
+    }
+
+    @Test
+    void getAgeDistribution_shouldCountUsersByDecade() {
+        // Given
+        userService.createUser(UserDto.builder().name("A").email("a@example.com").age(25).build());
+        userService.createUser(UserDto.builder().name("B").email("b@example.com").age(29).build());
+        userService.createUser(UserDto.builder().name("C").email("c@example.com").age(104).build());
+
+        // When
+        List<AgeBandDto> bands = reportService.getAgeDistribution().join();
+
+        // Then
+        assertEquals(11, bands.size());
+        assertEquals(2, bands.get(2).getUserCount());
+        assertEquals(1, bands.get(10).getUserCount());
+        assertNull(bands.get(10).getTo());
+    }
+
+    private static ProductDto product(String price, int quantity) {
+        return ProductDto.builder().name("Item").price(new BigDecimal(price)).quantity(quantity).build();
+    }
+}
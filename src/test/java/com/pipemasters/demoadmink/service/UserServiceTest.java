@@ -1,11 +1,21 @@
 package com.pipemasters.demoadmink.service;
 
+import com.pipemasters.demoadmink.config.AppProperties;
 import com.pipemasters.demoadmink.dto.UserDto;
+import com.pipemasters.demoadmink.model.User;
+import com.pipemasters.demoadmink.mutation.MutationStore;
+import com.pipemasters.demoadmink.support.GaugeSampler;
+import com.pipemasters.demoadmink.support.IdempotencyStore;
+import com.pipemasters.demoadmink.support.ManualClock;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,33 +23,40 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class UserServiceTest {
 
+    private final ManualClock clock = new ManualClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final List<UserService> services = new ArrayList<>();
     private UserService userService;
     private MeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        userService = new UserService(meterRegistry);
+        userService = service(meterRegistry, new AppProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(UserService::close);
     }
 
     @Test
     void getAllUsers_shouldReturnAllUsers() {
-        List<UserDto> users = userService.getAllUsers();
+        List<User> users = userService.getAllUsers();
         assertEquals(2, users.size());
     }
 
     @Test
     void getUserById_shouldReturnUser_whenExists() {
         Long existingId = 1L;
-        Optional<UserDto> result = userService.getUserById(existingId);
+        Optional<User> result = userService.getUserById(existingId);
         assertTrue(result.isPresent());
-        assertEquals("John Doe", result.get().getName());
+        assertEquals("John Doe", result.get().name());
     }
 
     @Test
     void getUserById_shouldReturnEmpty_whenNotExists() {
         Long nonExistingId = 999L;
-        Optional<UserDto> result = userService.getUserById(nonExistingId);
+        Optional<User> result = userService.getUserById(nonExistingId);
         assertTrue(result.isEmpty());
     }
 
@@ -50,11 +67,21 @@ class UserServiceTest {
                 .email("new@example.com")
                 .age(35)
                 .build();
-        UserDto created = userService.createUser(newUser);
-        assertNotNull(created.getId());
-        assertEquals("New User", created.getName());
-        assertEquals("new@example.com", created.getEmail());
-        assertEquals(35, created.getAge());
+        User created = userService.createUser(newUser);
+        assertNotNull(created.id());
+        assertEquals("New User", created.name());
+        assertEquals("new@example.com", created.email());
+        assertEquals(35, created.age());
+    }
+
+    @Test
+    void createUser_shouldReturnStoredUser_whenIdempotencyKeyIsReplayed() {
+        UserDto newUser = UserDto.builder().name("New User").email("new@example.com").age(35).build();
+        User created = userService.createUser(newUser, "signup-1").value();
+        IdempotencyStore.Result<User> replay = userService.createUser(newUser, "signup-1");
+        assertTrue(replay.replayed());
+        assertSame(created, replay.value());
+        assertEquals(3, userService.getAllUsers().size());
     }
 
     @Test
@@ -65,17 +92,17 @@ class UserServiceTest {
                 .email("updated@example.com")
                 .age(40)
                 .build();
-        Optional<UserDto> result = userService.updateUser(existingId, updatedUser);
+        Optional<User> result = userService.updateUser(existingId, updatedUser);
         assertTrue(result.isPresent());
-        assertEquals(existingId, result.get().getId());
-        assertEquals("Updated Name", result.get().getName());
+        assertEquals(existingId, result.get().id());
+        assertEquals("Updated Name", result.get().name());
     }
 
     @Test
     void updateUser_shouldReturnEmpty_whenNotExists() {
         Long nonExistingId = 999L;
         UserDto updatedUser = UserDto.builder().name("Updated").build();
-        Optional<UserDto> result = userService.updateUser(nonExistingId, updatedUser);
+        Optional<User> result = userService.updateUser(nonExistingId, updatedUser);
         assertTrue(result.isEmpty());
     }
 
@@ -97,16 +124,95 @@ class UserServiceTest {
     @Test
     void createUser_shouldIncrementCounter() {
         UserDto newUser = UserDto.builder().name("Test").email("test@test.com").age(20).build();
-        double initialCount = meterRegistry.counter("users_created_total").count();
+        double initialCount = meterRegistry.counter("users_created_total", "tenant", "default").count();
         userService.createUser(newUser);
-        assertEquals(initialCount + 1, meterRegistry.counter("users_created_total").count());
+        assertEquals(initialCount + 1, meterRegistry.counter("users_created_total", "tenant", "default").count());
     }
 
     @Test
     void deleteUser_shouldIncrementCounter_whenSuccess() {
         Long existingId = 1L;
-        double initialCount = meterRegistry.counter("users_deleted_total").count();
+        double initialCount = meterRegistry.counter("users_deleted_total", "tenant", "default").count();
         userService.deleteUser(existingId);
-        assertEquals(initialCount + 1, meterRegistry.counter("users_deleted_total").count());
+        assertEquals(initialCount + 1, meterRegistry.counter("users_deleted_total", "tenant", "default").count());
+    }
+
+    @Test
+    void constructor_shouldSkipSeedData_whenDisabled() {
+        AppProperties properties = new AppProperties();
+        properties.getSeedData().setEnabled(false);
+        UserService service = service(new SimpleMeterRegistry(), properties);
+        assertTrue(service.getAllUsers().isEmpty());
+    }
+
+    @Test
+    void createUser_shouldRemoveGuestUser_afterExpiry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserService service = service(registry, withExpiry());
+        User guest = service.createUser(UserDto.builder()
+                .name("Guest")
+                .email("guest@example.com")
+                .age(30)
+                .expiresAt(clock.instant().plusSeconds(10))
+                .build());
+        clock.advance(Duration.ofSeconds(11));
+        assertTrue(service.getUserById(guest.id()).isEmpty());
+        assertEquals(2, service.getAllUsers().size());
+        assertEquals(2.0, registry.get("users_total").gauge().value());
+        service.reapExpired();
+        assertTrue(service.restoreUser(guest.id()).isEmpty());
+    }
+
+    @Test
+    void updateAndDelete_shouldTreatExpiredUserAsMissing() {
+        UserService service = service(new SimpleMeterRegistry(), withExpiry());
+        User guest = service.createUser(UserDto.builder()
+                .name("Guest")
+                .email("guest@example.com")
+                .expiresAt(clock.instant().plusSeconds(10))
+                .build());
+        clock.advance(Duration.ofSeconds(11));
+        assertTrue(service.updateUser(guest.id(), UserDto.builder().name("Member").email("member@example.com").build())
+                .isEmpty());
+        assertFalse(service.deleteUser(guest.id()));
+        assertTrue(service.restoreUser(guest.id()).isEmpty());
+    }
+
+    @Test
+    void createUser_shouldIgnoreExpiresAt_whenExpiryIsDisabled() {
+        AppProperties properties = new AppProperties();
+        properties.getExpiry().setEnabled(false);
+        UserService service = service(new SimpleMeterRegistry(), properties);
+        User guest = service.createUser(UserDto.builder()
+                .name("Guest")
+                .email("guest@example.com")
+                .expiresAt(clock.instant().plusSeconds(10))
+                .build());
+        clock.advance(Duration.ofSeconds(11));
+        assertNull(guest.expiresAt());
+        assertTrue(service.getUserById(guest.id()).isPresent());
+    }
+
+    @Test
+    void restoreUser_shouldReturnDeletedUser() {
+        UserService service = service(new SimpleMeterRegistry(), withExpiry());
+        service.deleteUser(2L);
+        Optional<User> restored = service.restoreUser(2L);
+        assertEquals("Jane Smith", restored.orElseThrow().name());
+        assertEquals(2, service.getAllUsers().size());
+        assertTrue(service.restoreUser(2L).isEmpty());
+    }
+
+    private static AppProperties withExpiry() {
+        AppProperties properties = new AppProperties();
+        properties.getExpiry().setEnabled(true);
+        return properties;
+    }
+
+    private UserService service(MeterRegistry registry, AppProperties properties) {
+        UserService service = new UserService(registry, properties, MutationStore.inMemory(), GaugeSampler.direct(),
+                clock, false);
+        services.add(service);
+        return service;
     }
 }
@@ -0,0 +1,61 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpochCacheTest {
+
+    private EpochCache<String, Integer> cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EpochCache<>("test", "report", 2, new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_shouldReuseValueWhileEpochIsUnchanged() {
+        // When
+        int first = cache.get("key", 1, loads::incrementAndGet);
+        int second = cache.get("key", 1, loads::incrementAndGet);
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(1, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_shouldReloadAfterEpochChanges() {
+        // Given
+        cache.get("key", 1, loads::incrementAndGet);
+
+        // When
+        int value = cache.get("key", 2, loads::incrementAndGet);
+
+        // Then
+        assertEquals(2, value);
+    }
+
+    @Test
+    void evict_shouldRemoveOnlyMatchingValue() {
+        // Given
+        Integer cached = cache.get("key", 1, () -> 1000);
+
+        // When
+        cache.evict("key", 2000);
+        int kept = cache.get("key", 1, loads::incrementAndGet);
+        cache.evict("key", cached);
+        int reloaded = cache.get("key", 1, loads::incrementAndGet);
+
+        // Then
+        assertEquals(1000, kept);
+        assertEquals(1, reloaded);
+    }
+}
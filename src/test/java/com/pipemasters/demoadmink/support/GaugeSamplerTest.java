@@ -0,0 +1,66 @@
+package com.pipemasters.demoadmink.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GaugeSamplerTest {
+
+    @Test
+    void direct_shouldEvaluateOnEveryRead() {
+        // Given
+        AtomicInteger evaluations = new AtomicInteger();
+        Supplier<Number> gauge = GaugeSampler.direct().sampled(evaluations::incrementAndGet);
+
+        // When
+        gauge.get();
+        gauge.get();
+
+        // Then
+        assertEquals(2, evaluations.get());
+    }
+
+    @Test
+    void scheduled_shouldServeLastSampleUntilRefresh() {
+        // Given
+        AtomicInteger evaluations = new AtomicInteger();
+        try (GaugeSampler sampler = GaugeSampler.scheduled(Duration.ofHours(1))) {
+            Supplier<Number> gauge = sampler.sampled(evaluations::incrementAndGet);
+
+            // When
+            double first = gauge.get().doubleValue();
+            double second = gauge.get().doubleValue();
+            sampler.refreshAll();
+            double afterRefresh = gauge.get().doubleValue();
+
+            // Then
+            assertEquals(1.0, first);
+            assertEquals(1.0, second);
+            assertEquals(2.0, afterRefresh);
+        }
+    }
+
+    @Test
+    void scheduled_shouldKeepPreviousValueWhenSourceFails() {
+        // Given
+        AtomicInteger evaluations = new AtomicInteger();
+        try (GaugeSampler sampler = GaugeSampler.scheduled(Duration.ofHours(1))) {
+            Supplier<Number> gauge = sampler.sampled(() -> {
+                if (evaluations.incrementAndGet() > 1) {
+                    throw new IllegalStateException("boom");
+                }
+                return 42.0;
+            });
+
+            // When
+            sampler.refreshAll();
+
+            // Then
+            assertEquals(42.0, gauge.get().doubleValue());
+        }
+    }
+}
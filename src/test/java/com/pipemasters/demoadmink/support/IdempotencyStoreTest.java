@@ -0,0 +1,190 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void execute_shouldReplayStoredResult_withoutRerunningOperation() {
+        // Given
+        IdempotencyStore<Integer> store = new IdempotencyStore<>("test", "create", 10, Duration.ofMinutes(1), meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        IdempotencyStore.Result<Integer> first = store.execute("key", 1, executions::incrementAndGet);
+        IdempotencyStore.Result<Integer> second = store.execute("key", 1, executions::incrementAndGet);
+
+        // Then
+        assertEquals(new IdempotencyStore.Result<>(1, false), first);
+        assertEquals(new IdempotencyStore.Result<>(1, true), second);
+        assertEquals(1, executions.get());
+        assertEquals(1.0, requests("replayed"));
+    }
+
+    @Test
+    void execute_shouldCoalesceConcurrentDuplicates() throws Exception {
+        // Given
+        IdempotencyStore<String> store = new IdempotencyStore<>("test", "create", 10, Duration.ofMinutes(1), meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<IdempotencyStore.Result<String>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> store.execute("key", 1, () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "created";
+        })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> store.execute("key", 1, () -> {
+                executions.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        while (requests("joined") < 7) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Then
+        for (Future<IdempotencyStore.Result<String>> result : results) {
+            assertEquals("created", result.get(5, TimeUnit.SECONDS).value());
+        }
+        assertEquals(1, executions.get());
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldReject_whenKeyIsReusedWithDifferentFingerprint() {
+        // Given
+        IdempotencyStore<Integer> store = new IdempotencyStore<>("test", "create", 10, Duration.ofMinutes(1), meterRegistry);
+        store.execute("key", 1, () -> 1);
+
+        // When & Then
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute("key", 2, () -> 2));
+    }
+
+    @Test
+    void execute_shouldReject_whenKeyIsReusedWithRequestOfSameHashCode() {
+        // Given
+        IdempotencyStore<Integer> store = new IdempotencyStore<>("test", "create", 10, Duration.ofMinutes(1), meterRegistry);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        store.execute("key", "Aa", () -> 1);
+
+        // When & Then
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute("key", "BB", () -> 2));
+        assertTrue(store.execute("key", new String("Aa"), () -> 3).replayed());
+    }
+
+    @Test
+    void execute_shouldRerunOperation_afterFailure() {
+        // Given
+        IdempotencyStore<Integer> store = new IdempotencyStore<>("test", "create", 10, Duration.ofMinutes(1), meterRegistry);
+        assertThrows(IllegalStateException.class, () -> store.execute("key", 1, () -> {
+            throw new IllegalStateException("quota");
+        }));
+
+        // When
+        IdempotencyStore.Result<Integer> retry = store.execute("key", 1, () -> 7);
+
+        // Then
+        assertEquals(new IdempotencyStore.Result<>(7, false), retry);
+    }
+
+    @Test
+    void execute_shouldNotCountFailedKeys_towardsMaxEntries() {
+        // Given
+        IdempotencyStore<Integer> store = new IdempotencyStore<>("test", "create", 2, Duration.ofMinutes(1), meterRegistry);
+        store.execute("stored", 1, () -> 1);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalStateException.class, () -> store.execute("failed", 1, () -> {
+                throw new IllegalStateException("quota");
+            }));
+        }
+
+        // Then
+        assertTrue(store.execute("stored", 1, () -> -1).replayed());
+        assertEquals(0.0, meterRegistry.get("test_idempotency_evictions_total").counter().count());
+    }
+
+    @Test
+    void execute_shouldEvictOldestKeys_whenFull() {
+        // Given
+        IdempotencyStore<Integer> store = new IdempotencyStore<>("test", "create", 100, Duration.ofMinutes(1), meterRegistry);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            int value = i;
+            store.execute("key-" + i, 1, () -> value);
+        }
+
+        // Then
+        assertEquals(100, store.size());
+        assertEquals(9_900.0, meterRegistry.get("test_idempotency_evictions_total").counter().count());
+        assertTrue(store.execute("key-9999", 1, () -> -1).replayed());
+        assertFalse(store.execute("key-0", 1, () -> -1).replayed());
+    }
+
+    @Test
+    void execute_shouldRerunOperation_afterTtl() throws Exception {
+        // Given
+        IdempotencyStore<Integer> store = new IdempotencyStore<>("test", "create", 10, Duration.ofMillis(20), meterRegistry);
+        store.execute("key", 1, () -> 1);
+
+        // When
+        Thread.sleep(50);
+        IdempotencyStore.Result<Integer> result = store.execute("key", 1, () -> 2);
+
+        // Then
+        assertEquals(new IdempotencyStore.Result<>(2, false), result);
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void isValidKey_shouldAcceptVisibleAsciiUpToMaxLength() {
+        assertTrue(IdempotencyStore.isValidKey("8e03978e-40d5-43e8-bc93-6894a57f9324"));
+        assertFalse(IdempotencyStore.isValidKey(""));
+        assertFalse(IdempotencyStore.isValidKey("with space"));
+        assertFalse(IdempotencyStore.isValidKey("k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1)));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("test_idempotency_requests_total").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void execute_shouldShareInFlightComputation() throws Exception {
+        // Given
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", "get", true, Duration.ZERO, meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "value";
+        })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                executions.incrementAndGet();
+                return "other";
+            })));
+        }
+        while (coalesced() < 7) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(7.0 / 8, meterRegistry.get("test_coalescing_ratio").gauge().value(), 1e-9);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldRecompute_afterCompletion_whenWindowIsZero() {
+        // Given
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>("test", "get", true, Duration.ZERO, meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        singleFlight.execute(1L, executions::incrementAndGet);
+        int second = singleFlight.execute(1L, executions::incrementAndGet);
+
+        // Then
+        assertEquals(2, second);
+        assertEquals(0, coalesced());
+    }
+
+    @Test
+    void execute_shouldReuseResult_withinWindow_untilInvalidated() {
+        // Given
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>("test", "get", true, Duration.ofMinutes(1), meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        singleFlight.execute(1L, executions::incrementAndGet);
+        int cached = singleFlight.execute(1L, executions::incrementAndGet);
+        singleFlight.invalidate(1L);
+        int recomputed = singleFlight.execute(1L, executions::incrementAndGet);
+
+        // Then
+        assertEquals(1, cached);
+        assertEquals(2, recomputed);
+    }
+
+    @Test
+    void execute_shouldPropagateFailure_andNotCacheIt() {
+        // Given
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>("test", "get", true, Duration.ofMinutes(1), meterRegistry);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(5, singleFlight.execute(1L, () -> 5));
+    }
+
+    @Test
+    void execute_shouldAlwaysRunLoader_whenDisabled() {
+        // Given
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>("test", "get", false, Duration.ofMinutes(1), meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        singleFlight.execute(1L, executions::incrementAndGet);
+        singleFlight.execute(1L, executions::incrementAndGet);
+
+        // Then
+        assertEquals(2, executions.get());
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("test_coalescing_requests_total").tag("result", "coalesced").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pipemasters.demoadmink.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_shouldFireTimersAtTheirTick_notEarlier() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(0, 10);
+        wheel.schedule("a", 20);
+        wheel.schedule("b", 21);
+        List<String> fired = new ArrayList<>();
+
+        // When
+        wheel.advance(29, fired::add);
+        List<String> beforeDeadline = List.copyOf(fired);
+        wheel.advance(30, fired::add);
+        // Срок округляется вверх до тика: 21 мс срабатывает на тике 30 мс
+
+        // Then
+        assertEquals(List.of("a"), beforeDeadline);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_shouldCascadeDistantTimersThroughLevels() {
+        // Given
+        TimingWheel<Long> wheel = new TimingWheel<>(0, 1);
+        long[] deadlines = {63, 64, 65, 4_095, 4_096, 262_143, 262_145, 1_000_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        List<Long> fired = new ArrayList<>();
+
+        // When & Then
+        for (long deadline : deadlines) {
+            wheel.advance(deadline - 1, fired::add);
+            assertFalse(fired.contains(deadline), "fired early: " + deadline);
+            wheel.advance(deadline, fired::add);
+            assertEquals(deadline, fired.get(fired.size() - 1));
+        }
+        assertEquals(deadlines.length, fired.size());
+    }
+
+    @Test
+    void schedule_shouldRejectTimer_whenDeadlineHasPassed() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(0, 10);
+        wheel.advance(100, item -> fail("nothing scheduled"));
+
+        // When
+        boolean scheduled = wheel.schedule("late", 95);
+
+        // Then
+        assertFalse(scheduled);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,26 @@
+package com.pipemasters.demoadmink.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenRefillOverTime() throws Exception {
+        // Given
+        TokenBucket bucket = new TokenBucket(100, 2);
+
+        // When
+        boolean first = bucket.tryAcquire();
+        boolean second = bucket.tryAcquire();
+        boolean third = bucket.tryAcquire();
+        Thread.sleep(30);
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(bucket.tryAcquire());
+    }
+}
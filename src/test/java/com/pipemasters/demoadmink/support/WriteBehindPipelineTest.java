@@ -0,0 +1,142 @@
+package com.pipemasters.demoadmink.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindPipelineTest {
+
+    private static final Duration RETRY = Duration.ofMillis(5);
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void submit_shouldDeliverAllItemsInOrder_inBatchesNotLargerThanBatchSize() {
+        // Given
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        try (WriteBehindPipeline<Integer> pipeline = new WriteBehindPipeline<>("test", 1000, 10,
+                Duration.ofMillis(50), RETRY, RETRY, batch -> batches.add(new ArrayList<>(batch)), meterRegistry)) {
+
+            // When
+            for (int i = 0; i < 95; i++) {
+                pipeline.submit(i);
+            }
+
+            // Then
+            assertTrue(pipeline.flush(Duration.ofSeconds(5)));
+        }
+        List<Integer> delivered = batches.stream().flatMap(List::stream).toList();
+        assertEquals(95, delivered.size());
+        for (int i = 0; i < 95; i++) {
+            assertEquals(i, delivered.get(i));
+        }
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 10));
+        assertTrue(batches.size() < 95);
+    }
+
+    @Test
+    void close_shouldDrainPendingItems() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+        WriteBehindPipeline<Integer> pipeline = new WriteBehindPipeline<>("test", 100, 5, Duration.ZERO, RETRY, RETRY,
+                batch -> {
+                    awaitQuietly(release);
+                    delivered.addAll(batch);
+                }, meterRegistry);
+        for (int i = 0; i < 20; i++) {
+            pipeline.submit(i);
+        }
+
+        // When
+        release.countDown();
+        pipeline.close();
+
+        // Then
+        assertEquals(20, delivered.size());
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(21));
+    }
+
+    @Test
+    void commit_shouldRetryFailedBatch_withoutLosingOrReordering() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        try (WriteBehindPipeline<Integer> pipeline = new WriteBehindPipeline<>("test", 100, 1, Duration.ZERO,
+                RETRY, RETRY, batch -> {
+            if (batch.get(0) == 1 && attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("storage unavailable");
+            }
+            delivered.addAll(batch);
+        }, meterRegistry)) {
+
+            // When
+            pipeline.submit(1);
+            pipeline.submit(2);
+
+            // Then
+            assertTrue(pipeline.flush(Duration.ofSeconds(5)));
+        }
+        assertEquals(List.of(1, 2), delivered);
+        assertEquals(2.0, meterRegistry.counter("test_write_behind_failures_total").count());
+        assertEquals(0.0, meterRegistry.counter("test_write_behind_lost_total").count());
+    }
+
+    @Test
+    void submit_shouldReject_whenQueueIsFullWhileStoreIsUnavailable() {
+        // Given
+        AtomicBoolean storeDown = new AtomicBoolean(true);
+        CountDownLatch firstAttempt = new CountDownLatch(1);
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        try (WriteBehindPipeline<Integer> pipeline = new WriteBehindPipeline<>("test", 3, 1, Duration.ZERO,
+                RETRY, RETRY, batch -> {
+            firstAttempt.countDown();
+            if (storeDown.get()) {
+                throw new IllegalStateException("storage unavailable");
+            }
+            delivered.addAll(batch);
+        }, meterRegistry)) {
+            pipeline.submit(0);
+            awaitQuietly(firstAttempt);
+            for (int i = 1; i <= 3; i++) {
+                pipeline.submit(i);
+            }
+
+            // When & Then
+            assertThrows(WriteBehindOverloadedException.class, () -> pipeline.submit(4));
+            assertFalse(pipeline.flush(Duration.ofMillis(50)));
+            storeDown.set(false);
+            assertTrue(pipeline.flush(Duration.ofSeconds(5)));
+            assertDoesNotThrow(() -> pipeline.submit(5));
+            assertTrue(pipeline.flush(Duration.ofSeconds(5)));
+        }
+        assertEquals(List.of(0, 1, 2, 3, 5), delivered);
+        assertEquals(1.0, meterRegistry.counter("test_write_behind_rejected_total").count());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
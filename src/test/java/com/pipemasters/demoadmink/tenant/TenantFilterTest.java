@@ -0,0 +1,153 @@
+package com.pipemasters.demoadmink.tenant;
+
+import com.pipemasters.demoadmink.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantFilterTest {
+
+    private AppProperties.Tenancy tenancy;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        tenancy = new AppProperties().getTenancy();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void doFilter_shouldExposeTenantFromHeader_andUseDefaultWithoutHeader() throws Exception {
+        // Given
+        TenantFilter filter = filter();
+        AtomicReference<String> seen = new AtomicReference<>();
+        FilterChain chain = (request, response) -> seen.set(TenantContext.current());
+
+        // When
+        filter.doFilter(request("acme"), new MockHttpServletResponse(), chain);
+        String withHeader = seen.get();
+        filter.doFilter(request(null), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertEquals("acme", withHeader);
+        assertEquals(TenantContext.DEFAULT_TENANT, seen.get());
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.current());
+    }
+
+    @Test
+    void doFilter_shouldNotLimitRequests_whenQuotasAreZero() throws Exception {
+        // Given
+        tenancy.getDefaults().setRequestsPerSecond(0);
+        tenancy.getDefaults().setMaxConcurrentRequests(0);
+        TenantFilter filter = filter();
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        int[] passed = new int[1];
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filter.doFilter(request(null), new MockHttpServletResponse(), (request, response) -> passed[0]++);
+        }
+        filter.doFilter(request(null), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(request(null), nested, (r, s) -> passed[0]++));
+
+        // Then
+        assertEquals(10_001, passed[0]);
+        assertEquals(200, nested.getStatus());
+    }
+
+    @Test
+    void doFilter_shouldReject_invalidTenantAndTenantsOverLimit() throws Exception {
+        // Given
+        tenancy.setMaxTenants(1);
+        TenantFilter filter = filter();
+        MockHttpServletResponse invalid = new MockHttpServletResponse();
+        MockHttpServletResponse overLimit = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("bad tenant!"), invalid, (request, response) -> fail("must not pass"));
+        filter.doFilter(request("first"), new MockHttpServletResponse(), (request, response) -> { });
+        filter.doFilter(request("second"), overLimit, (request, response) -> fail("must not pass"));
+
+        // Then
+        assertEquals(400, invalid.getStatus());
+        assertEquals(403, overLimit.getStatus());
+    }
+
+    @Test
+    void doFilter_shouldReturn429_whenRateQuotaIsExhausted() throws Exception {
+        // Given
+        tenancy.getDefaults().setRequestsPerSecond(1);
+        tenancy.getDefaults().setBurst(1);
+        TenantFilter filter = filter();
+        filter.doFilter(request("acme"), new MockHttpServletResponse(), (request, response) -> { });
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("acme"), limited, (request, response) -> fail("must not pass"));
+
+        // Then
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("tenant_requests_rejected_total")
+                .tags("tenant", "acme", "reason", "rate_limit").counter().count());
+    }
+
+    @Test
+    void doFilter_shouldReturn429_whenTenantHasTooManyConcurrentRequests() throws Exception {
+        // Given
+        tenancy.getDefaults().setMaxConcurrentRequests(1);
+        TenantFilter filter = filter();
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        MockHttpServletResponse otherTenant = new MockHttpServletResponse();
+
+        // When: второй запрос того же арендатора приходит, пока первый еще обрабатывается
+        filter.doFilter(request("acme"), new MockHttpServletResponse(), (request, response) -> {
+            filter.doFilter(request("acme"), nested, (r, s) -> fail("must not pass"));
+            filter.doFilter(request("other"), otherTenant, (r, s) -> { });
+        });
+
+        // Then
+        assertEquals(429, nested.getStatus());
+        assertEquals(200, otherTenant.getStatus());
+    }
+
+    @Test
+    void doFilter_shouldHoldConcurrencySlot_untilAsyncRequestCompletes() throws Exception {
+        // Given
+        tenancy.getDefaults().setMaxConcurrentRequests(1);
+        TenantFilter filter = filter();
+        MockHttpServletRequest async = request("acme");
+        async.setAsyncSupported(true);
+        MockHttpServletResponse whileAsync = new MockHttpServletResponse();
+        MockHttpServletResponse afterAsync = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(async, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        filter.doFilter(request("acme"), whileAsync, (request, response) -> fail("must not pass"));
+        async.getAsyncContext().complete();
+        filter.doFilter(request("acme"), afterAsync, (request, response) -> { });
+
+        // Then
+        assertEquals(429, whileAsync.getStatus());
+        assertEquals(200, afterAsync.getStatus());
+    }
+
+    private TenantFilter filter() {
+        return new TenantFilter(tenancy.getHeader(), new TenantRegistry(tenancy, meterRegistry));
+    }
+
+    private MockHttpServletRequest request(String tenant) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        if (tenant != null) {
+            request.addHeader(tenancy.getHeader(), tenant);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,214 @@
+package com.pipemasters.demoadmink.timeseries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesStoreTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long WINDOW = TimeSeriesStore.MAX_BUCKETS;
+
+    @Test
+    void query_shouldReturnExactPointsAcrossSealedAndOpenChunks() {
+        // Given
+        Random random = new Random(42);
+        List<TimeSeriesPoint> expected = new ArrayList<>();
+        long timestamp = START;
+        double value = 100.0;
+        try (TimeSeriesStore store = store(null, 16)) {
+            for (int i = 0; i < 1000; i++) {
+                timestamp += random.nextInt(5) == 0 ? random.nextInt(100_000) : 1000;
+                value = random.nextInt(3) == 0 ? value : random.nextGaussian() * 1e6;
+                store.append("series", timestamp, value);
+                expected.add(new TimeSeriesPoint(timestamp, value));
+            }
+
+            // When
+            List<TimeSeriesPoint> points = new ArrayList<>();
+            for (long from = START; from <= timestamp; from += WINDOW) {
+                points.addAll(store.query("series", from, from + WINDOW, Duration.ofMillis(1), Aggregation.LAST));
+            }
+
+            // Then
+            assertEquals(expected, points);
+        }
+    }
+
+    @Test
+    void query_shouldDownsampleWithAggregation() {
+        // Given
+        try (TimeSeriesStore store = store(null, 4)) {
+            for (int i = 0; i < 120; i++) {
+                store.append("series", START + i * 60_000L, i);
+            }
+            long to = START + Duration.ofHours(2).toMillis();
+
+            // When
+            List<TimeSeriesPoint> avg = store.query("series", START, to, Duration.ofHours(1), Aggregation.AVG);
+            List<TimeSeriesPoint> max = store.query("series", START, to, Duration.ofHours(1), Aggregation.MAX);
+            List<TimeSeriesPoint> last = store.query("series", START, to, Duration.ofHours(1), Aggregation.LAST);
+            List<TimeSeriesPoint> count = store.query("series", START, to, Duration.ofHours(1), Aggregation.COUNT);
+
+            // Then
+            assertEquals(List.of(new TimeSeriesPoint(START, 29.5), new TimeSeriesPoint(START + 3_600_000L, 89.5)), avg);
+            assertEquals(59.0, max.get(0).value());
+            assertEquals(119.0, last.get(1).value());
+            assertEquals(60.0, count.get(1).value());
+        }
+    }
+
+    @Test
+    void append_shouldClampOutOfOrderTimestamps() {
+        // Given
+        try (TimeSeriesStore store = store(null, 512)) {
+            store.append("series", START + 1000, 1.0);
+
+            // When
+            store.append("series", START, 2.0);
+
+            // Then
+            List<TimeSeriesPoint> points = store.query("series", START, START + 2000, Duration.ofMillis(1),
+                    Aggregation.LAST);
+            assertEquals(List.of(new TimeSeriesPoint(START + 1000, 2.0)), points);
+        }
+    }
+
+    @Test
+    void append_shouldWriteSealedChunksToMappedSegments(@TempDir Path directory) throws Exception {
+        // Given
+        try (TimeSeriesStore store = store(directory, 8)) {
+
+            // When
+            for (int i = 0; i < 100; i++) {
+                store.append("series", START + i, i);
+            }
+
+            // Then
+            try (var files = Files.list(directory)) {
+                assertEquals(1, files.count());
+            }
+            List<TimeSeriesPoint> points = store.query("series", START, START + 100, Duration.ofMillis(10),
+                    Aggregation.SUM);
+            assertEquals(10, points.size());
+            assertEquals(45.0, points.get(0).value());
+        }
+    }
+
+    @Test
+    void query_shouldRejectTooManyBuckets() {
+        // Given
+        try (TimeSeriesStore store = store(null, 512)) {
+            store.append("series", START, 1.0);
+
+            // When & Then
+            assertThrows(IllegalArgumentException.class, () -> store.query("series", START,
+                    START + Duration.ofDays(30).toMillis(), Duration.ofSeconds(1), Aggregation.LAST));
+            assertTrue(store.query("missing", START, START + 1, Duration.ofMillis(1), Aggregation.LAST).isEmpty());
+        }
+    }
+
+    @Test
+    void append_shouldDropPointsOlderThanRetention() {
+        // Given
+        try (TimeSeriesStore store = new TimeSeriesStore("test", null, 4, 1 << 20, Duration.ofHours(1), 0,
+                new SimpleMeterRegistry())) {
+            for (int i = 0; i < 60; i++) {
+                store.append("series", START + i * 60_000L, i);
+            }
+            store.append("idle", START, 1.0);
+
+            // When
+            store.append("series", START + Duration.ofHours(2).toMillis(), 120);
+
+            // Then
+            List<TimeSeriesPoint> points = store.query("series", START, START + Duration.ofHours(3).toMillis(),
+                    Duration.ofHours(1), Aggregation.COUNT);
+            assertEquals(List.of(new TimeSeriesPoint(START + Duration.ofHours(2).toMillis(), 1.0)), points);
+            assertTrue(store.query("idle", START, START + 1, Duration.ofMillis(1), Aggregation.LAST).isEmpty());
+        }
+    }
+
+    @Test
+    void append_shouldKeepRecentPoints_whileSealingAndPurgingManyChunks() {
+        // Given
+        try (TimeSeriesStore store = new TimeSeriesStore("test", null, 4, 1 << 20, Duration.ofHours(1), 0,
+                new SimpleMeterRegistry())) {
+
+            // When
+            for (int i = 0; i < 600; i++) {
+                store.append("series", START + i * 60_000L, i);
+            }
+
+            // Then
+            List<TimeSeriesPoint> points = store.query("series", START, START + Duration.ofHours(10).toMillis(),
+                    Duration.ofMinutes(1), Aggregation.LAST);
+            List<Double> lastHour = points.subList(points.size() - 60, points.size()).stream()
+                    .map(TimeSeriesPoint::value).toList();
+            assertEquals(IntStream.range(540, 600).mapToObj(i -> (double) i).toList(), lastHour);
+            assertTrue(points.get(0).value() >= 530, "oldest kept point: " + points.get(0));
+        }
+    }
+
+    @Test
+    void append_shouldFreeOldestSegments_whenOverSizeLimit(@TempDir Path directory) throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (TimeSeriesStore store = new TimeSeriesStore("test", directory, 8, 256, Duration.ZERO, 512, registry)) {
+
+            // When
+            for (int i = 0; i < 2000; i++) {
+                store.append("series", START + i * 1000L, i % 7 == 0 ? i * 1.5 : i);
+            }
+
+            // Then
+            assertTrue(registry.get("test_timeseries_allocated_bytes").gauge().value() <= 512 + 256);
+            try (var files = Files.list(directory)) {
+                assertTrue(files.count() <= 3);
+            }
+            List<TimeSeriesPoint> points = store.query("series", START, START + 2_000_000L, Duration.ofSeconds(1000),
+                    Aggregation.LAST);
+            assertEquals(1999.0, points.get(points.size() - 1).value());
+            assertTrue(store.query("series", START, START + 1000, Duration.ofMillis(1), Aggregation.LAST).isEmpty());
+        }
+    }
+
+    @Test
+    void remove_shouldDropSeriesAndReleaseSegments(@TempDir Path directory) throws Exception {
+        // Given
+        try (TimeSeriesStore store = new TimeSeriesStore("test", directory, 8, 128, Duration.ZERO, 0,
+                new SimpleMeterRegistry())) {
+            for (int i = 0; i < 100; i++) {
+                store.append("removed", START + i, i);
+            }
+
+            // When
+            store.remove("removed");
+            for (int i = 0; i < 100; i++) {
+                store.append("kept", START + i, i);
+            }
+
+            // Then
+            assertTrue(store.query("removed", START, START + 100, Duration.ofMillis(1), Aggregation.LAST).isEmpty());
+            assertEquals(100, store.query("kept", START, START + 100, Duration.ofMillis(1), Aggregation.LAST).size());
+            try (var files = Files.list(directory)) {
+                assertFalse(files.anyMatch(file -> file.endsWith("segment-00000.ts")));
+            }
+        }
+    }
+
+    private static TimeSeriesStore store(Path directory, int pointsPerChunk) {
+        return new TimeSeriesStore("test", directory, pointsPerChunk, 1 << 20, Duration.ZERO, 0,
+                new SimpleMeterRegistry());
+    }
+}